@@ -93,10 +93,12 @@ public class SecurityConfig {
                             "/quotation/denyQuotation/**",
                             "/warranty/getWarrantyPdf/**",
                             "/feedback/getByTicketId/*",
-                            "/repairTicket/getRecentUpdates"
+                            "/repairTicket/getRecentUpdates",
+                            "/repairTicket/getRecentUpdates/page"
                     ).hasAnyRole("CUSTOMER", "ADMIN", "TECHNICIAN")
                     .requestMatchers(
                             "/repairTicket/checkInRepairTicket",
+                            "/repairTicket/getRepairPhotoStatus/*",
                             "/repairTicket/generateRepairTicketNumber",
                             "/repairTicket/getAllRepairTickets",
                             "/user/getTechnicianByEmail",
@@ -3,6 +3,8 @@ package com.servit.servit.controller;
 import com.servit.servit.service.PartService;
 import com.servit.servit.service.InventoryWorkflowService;
 import com.servit.servit.service.PartNumberStockTrackingService;
+import com.servit.servit.service.InventoryReportService;
+import com.servit.servit.service.PartImportService;
 import com.servit.servit.entity.PartNumberStockTrackingEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +23,12 @@ import com.servit.servit.dto.part.QuotationPartSelectionDTO;
 import com.servit.servit.dto.part.SupplierReplacementRequestDTO;
 import com.servit.servit.dto.part.PartNumberStockSummaryDTO;
 import com.servit.servit.dto.part.UpdatePartNumberStockTrackingDTO;
+import com.servit.servit.dto.part.StockTrackingRefreshResultDTO;
+import com.servit.servit.dto.part.PartCursorPageDTO;
+import com.servit.servit.dto.part.BatchReservationResultDTO;
+import com.servit.servit.dto.part.InventoryValuationReportDTO;
+import com.servit.servit.dto.part.PartImportResultDTO;
+import com.servit.servit.enumeration.PartEnum;
 import com.servit.servit.entity.InventoryTransactionEntity;
 import com.servit.servit.entity.PartEntity;
 import com.servit.servit.repository.PartRepository;
@@ -36,11 +44,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.io.IOException;
+import java.time.LocalDateTime;
+import org.springframework.format.annotation.DateTimeFormat;
 
 @RestController
 @RequestMapping("/part")
@@ -60,6 +72,15 @@ public class PartController {
     @Autowired
     private PartRepository partRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InventoryReportService inventoryReportService;
+
+    @Autowired
+    private PartImportService partImportService;
+
     public PartController(PartService partService) {
         this.partService = partService;
     }
@@ -92,9 +113,6 @@ public class PartController {
                        req.getPartNumber(), req.getSerialNumber());
 
             PartResponseDTO result = partService.addpart(req, file);
-
-            // Ensure stock tracking is updated immediately
-            stockTrackingService.updateStockTracking(result.getPartNumber());
             logger.info("API Response: Part added successfully - ID: {}, Part Number: {}", 
                        result.getId(), result.getPartNumber());
             return ResponseEntity.status(HttpStatus.CREATED).body(result);
@@ -131,6 +149,51 @@ public class PartController {
         }
     }
 
+    /**
+     * Imports a supplier manifest spanning many part numbers. The format is taken from the format parameter,
+     * or from the file extension (.ndjson / .jsonl for NDJSON, anything else is read as CSV).
+     */
+    @PostMapping("/importParts")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+    public ResponseEntity<?> importParts(@RequestParam("file") MultipartFile file,
+                                         @RequestParam(required = false) String format) {
+        logger.info("API Request: Importing parts from file: {} ({} bytes)",
+                file != null ? file.getOriginalFilename() : null, file != null ? file.getSize() : 0);
+        try {
+            if (file == null || file.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("File must not be null or empty");
+            }
+            PartImportService.Format importFormat;
+            if (format != null && !format.isBlank()) {
+                importFormat = PartImportService.Format.valueOf(format.trim().toUpperCase());
+            } else {
+                String filename = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+                importFormat = filename.endsWith(".ndjson") || filename.endsWith(".jsonl")
+                        ? PartImportService.Format.NDJSON : PartImportService.Format.CSV;
+            }
+
+            PartImportResultDTO result;
+            try (java.io.InputStream input = file.getInputStream()) {
+                result = partImportService.importParts(input, importFormat);
+            }
+            if (result.getFatalError() != null) {
+                // The lines before the error are imported; report them along with the error
+                logger.warn("API Error: Part import stopped early - Imported: {}, Error: {}",
+                        result.getImported(), result.getFatalError());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(result);
+            }
+            logger.info("API Response: Part import finished - Imported: {}, Failed: {}", result.getImported(), result.getFailed());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            logger.warn("API Error: Bad request while importing parts - {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("API Error: Internal server error while importing parts - {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Internal server error: " + e.getMessage());
+        }
+    }
+
     @PatchMapping("/updatePart/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> updatePart(@PathVariable Long id, @RequestBody UpdatePartRequestDTO req) {
@@ -236,19 +299,81 @@ public class PartController {
         }
     }
 
+    @GetMapping("/getPartsPage")
+    public ResponseEntity<?> getPartsPage(@RequestParam(required = false) Long cursor,
+                                          @RequestParam(required = false) Integer size,
+                                          @RequestParam(required = false) PartEnum partType,
+                                          @RequestParam(defaultValue = "false") boolean available,
+                                          @RequestParam(required = false) String brand) {
+        logger.info("API Request: Getting parts page - cursor: {}, size: {}", cursor, size);
+        try {
+            PartCursorPageDTO page = partService.getPartsPage(cursor, size, partType, available, brand);
+            logger.info("API Response: Retrieved {} parts, hasMore: {}", page.getSize(), page.getHasMore());
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            logger.error("API Error: Internal server error while getting parts page - {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Internal server error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams all matching parts without building the full list in memory.
+     * format=json writes a JSON array, format=ndjson writes one JSON object per line.
+     */
+    @GetMapping("/streamParts")
+    public void streamParts(@RequestParam(defaultValue = "json") String format,
+                            @RequestParam(required = false) PartEnum partType,
+                            @RequestParam(defaultValue = "false") boolean available,
+                            @RequestParam(required = false) String brand,
+                            HttpServletResponse response) throws IOException {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        logger.info("API Request: Streaming parts - format: {}", ndjson ? "ndjson" : "json");
+        response.setContentType(ndjson ? "application/x-ndjson" : "application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            long count = partService.streamParts(partType, available, brand, part -> {
+                try {
+                    generator.writeObject(part);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            logger.info("API Response: Streamed {} parts", count);
+        } catch (Exception e) {
+            logger.error("API Error: Error while streaming parts - {}", e.getMessage(), e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Error streaming parts: " + e.getMessage());
+            }
+        }
+    }
+
     @GetMapping("/stock/getAllPartNumberSummaries")
     public ResponseEntity<List<PartNumberStockSummaryDTO>> getAllPartNumberSummaries() {
         logger.info("API Request: Getting all part number stock summaries");
         try {
             // Get distinct part numbers
-            List<String> partNumbers = partService.getAllParts().stream()
-                    .map(PartResponseDTO::getPartNumber)
-                    .distinct()
-                    .toList();
+            List<String> partNumbers = partRepository.findDistinctPartNumbers();
+            Map<String, PartNumberStockSummaryDTO> summaryMap = stockTrackingService.getAllStockSummariesMap();
 
             List<PartNumberStockSummaryDTO> summaries = new ArrayList<>();
             for (String partNumber : partNumbers) {
-                PartNumberStockSummaryDTO summary = stockTrackingService.getStockSummary(partNumber);
+                PartNumberStockSummaryDTO summary = summaryMap.get(partNumber);
+                if (summary == null) {
+                    // Tracking row missing - fall back to creating it
+                    summary = stockTrackingService.getStockSummary(partNumber);
+                }
                 if (summary != null) {
                     summaries.add(summary);
                 }
@@ -461,8 +586,15 @@ public class PartController {
                                                      @RequestParam List<Long> selectedPartIds,
                                                      @RequestParam boolean approved) {
         try {
-            inventoryWorkflowService.processQuotationApproval(repairTicketId, quotationId, selectedPartIds, approved);
-            return ResponseEntity.ok("Quotation " + (approved ? "approved" : "rejected") + " successfully");
+            BatchReservationResultDTO result =
+                    inventoryWorkflowService.processQuotationApproval(repairTicketId, quotationId, selectedPartIds, approved);
+            if (!approved) {
+                return ResponseEntity.ok("Quotation rejected successfully");
+            }
+            if (!Boolean.TRUE.equals(result.getReserved())) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+            }
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Internal server error: " + e.getMessage());
@@ -518,6 +650,102 @@ public class PartController {
         }
     }
 
+    /**
+     * Get one page of a part's transaction history, newest first.
+     * Pass nextCursorTimestamp/nextCursorId of a page back as beforeTimestamp/beforeId for the next one.
+     */
+    @GetMapping("/audit/partHistory/{partId}/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+    public ResponseEntity<?> getPartTransactionHistoryPage(@PathVariable Long partId,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTimestamp,
+                                                           @RequestParam(required = false) Long beforeId,
+                                                           @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(inventoryWorkflowService.getTransactionHistoryPage(partId, beforeTimestamp, beforeId, size));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Internal server error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get one page of a repair ticket's transaction history, newest first.
+     */
+    @GetMapping("/audit/ticketHistory/{ticketId}/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+    public ResponseEntity<?> getTicketTransactionHistoryPage(@PathVariable String ticketId,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTimestamp,
+                                                             @RequestParam(required = false) Long beforeId,
+                                                             @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(inventoryWorkflowService.getTicketTransactionHistoryPage(ticketId, beforeTimestamp, beforeId, size));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Internal server error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams every inventory transaction in [from, to) in chronological order.
+     * format=csv (default) writes CSV with a header row, format=ndjson writes one JSON object per line.
+     */
+    @GetMapping("/audit/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportTransactions(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                   @RequestParam(defaultValue = "csv") String format,
+                                   HttpServletResponse response) throws IOException {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        logger.info("API Request: Exporting inventory transactions from {} to {} as {}", from, to, ndjson ? "ndjson" : "csv");
+        response.setContentType(ndjson ? "application/x-ndjson" : "text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"inventory-transactions." + (ndjson ? "ndjson" : "csv") + "\"");
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            if (!ndjson) {
+                generator.writeRaw("transactionId,partId,transactionType,quantityChanged,previousStock,newStock," +
+                        "previousReserved,newReserved,relatedTicketId,relatedQuotationId,performedBy,reason,notes," +
+                        "transactionTimestamp,workflowContext\n");
+            }
+            long count = inventoryWorkflowService.exportTransactions(from, to, tx -> {
+                try {
+                    if (ndjson) {
+                        generator.writeObject(tx);
+                        generator.writeRaw('\n');
+                    } else {
+                        generator.writeRaw(String.join(",",
+                                csvField(tx.getTransactionId()), csvField(tx.getPartId()), csvField(tx.getTransactionType()),
+                                csvField(tx.getQuantityChanged()), csvField(tx.getPreviousStock()), csvField(tx.getNewStock()),
+                                csvField(tx.getPreviousReserved()), csvField(tx.getNewReserved()),
+                                csvField(tx.getRelatedTicketId()), csvField(tx.getRelatedQuotationId()),
+                                csvField(tx.getPerformedBy()), csvField(tx.getReason()), csvField(tx.getNotes()),
+                                csvField(tx.getTransactionTimestamp()), csvField(tx.getWorkflowContext())) + "\n");
+                    }
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            });
+            logger.info("API Response: Exported {} inventory transactions", count);
+        } catch (Exception e) {
+            logger.error("API Error: Error while exporting inventory transactions - {}", e.getMessage(), e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Error exporting transactions: " + e.getMessage());
+            }
+        }
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
     // ================ Part Number Stock Tracking ================
 
     @GetMapping("/stock/summary/{partNumber}")
@@ -548,6 +776,65 @@ public class PartController {
         }
     }
 
+    /**
+     * Inventory valuation report: totals, aging buckets and per-supplier / per-part-type rollups,
+     * computed in one streaming pass over the active parts.
+     */
+    @GetMapping("/stock/valuationReport")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getValuationReport() {
+        try {
+            return ResponseEntity.ok(inventoryReportService.getValuationReport());
+        } catch (Exception e) {
+            logger.error("API Error: Error while computing valuation report - {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error computing valuation report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams one valuation line (value, age and aging bucket) per active part.
+     * format=csv (default) writes CSV with a header row, format=ndjson writes one JSON object per line.
+     */
+    @GetMapping("/stock/valuationReport/lines")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void streamValuationLines(@RequestParam(defaultValue = "csv") String format,
+                                     HttpServletResponse response) throws IOException {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        logger.info("API Request: Streaming valuation lines as {}", ndjson ? "ndjson" : "csv");
+        response.setContentType(ndjson ? "application/x-ndjson" : "text/csv");
+        response.setCharacterEncoding("UTF-8");
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            if (!ndjson) {
+                generator.writeRaw("partId,partNumber,name,partType,supplierName,unitCost,units,value,ageDays,agingBucket\n");
+            }
+            InventoryValuationReportDTO report = inventoryReportService.streamValuation(line -> {
+                try {
+                    if (ndjson) {
+                        generator.writeObject(line);
+                        generator.writeRaw('\n');
+                    } else {
+                        generator.writeRaw(String.join(",",
+                                csvField(line.getPartId()), csvField(line.getPartNumber()), csvField(line.getName()),
+                                csvField(line.getPartType()), csvField(line.getSupplierName()), csvField(line.getUnitCost()),
+                                csvField(line.getUnits()), csvField(line.getValue()), csvField(line.getAgeDays()),
+                                csvField(line.getAgingBucket())) + "\n");
+                    }
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            });
+            logger.info("API Response: Streamed {} valuation lines", report.getTotalParts());
+        } catch (Exception e) {
+            logger.error("API Error: Error while streaming valuation lines - {}", e.getMessage(), e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Error streaming valuation lines: " + e.getMessage());
+            }
+        }
+    }
+
     @GetMapping("/stock/needReorder")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getPartNumbersNeedingReorder() {
@@ -604,8 +891,8 @@ public class PartController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> refreshAllStockTracking() {
         try {
-            stockTrackingService.updateAllStockTracking();
-            return ResponseEntity.ok("All stock tracking data refreshed successfully");
+            StockTrackingRefreshResultDTO result = stockTrackingService.updateAllStockTracking();
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error refreshing all stock tracking: " + e.getMessage());
@@ -3,6 +3,7 @@ package com.servit.servit.controller;
 import com.servit.servit.dto.repairticket.*;
 import com.servit.servit.entity.RepairTicketEntity;
 import com.servit.servit.service.ConfigurationService;
+import com.servit.servit.service.MediaProcessingService;
 import com.servit.servit.service.RepairTicketService;
 import com.servit.servit.service.S3Service;
 import jakarta.persistence.EntityNotFoundException;
@@ -10,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +21,7 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +52,9 @@ public class RepairTicketController {
     @Autowired
     private com.servit.servit.repository.UserRepository userRepository;
 
+    @Autowired
+    private MediaProcessingService mediaProcessingService;
+
     public RepairTicketController(RepairTicketService repairTicketService) {
         this.repairTicketService = repairTicketService;
     }
@@ -270,6 +276,20 @@ public class RepairTicketController {
         }
     }
 
+    @GetMapping("/getRepairPhotoStatus/{ticketNumber}")
+    public ResponseEntity<List<RepairPhotoStatusDTO>> getRepairPhotoStatus(@PathVariable String ticketNumber) {
+        try {
+            List<RepairPhotoStatusDTO> statuses = mediaProcessingService.getPhotoStatus(ticketNumber);
+            if (statuses.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            return ResponseEntity.ok(statuses);
+        } catch (Exception e) {
+            logger.error("Error fetching photo status for ticket {}: {}", ticketNumber, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/getActiveRepairTickets")
     public ResponseEntity<Page<GetRepairTicketResponseDTO>> getActiveRepairTickets(
             @PageableDefault(size = 20) Pageable pageable) {
@@ -461,5 +481,23 @@ public class RepairTicketController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * Get one page of a customer's recent updates, newest first.
+     * Pass nextCursorTimestamp/nextCursorId of a page back as beforeTimestamp/beforeId for the next one.
+     */
+    @GetMapping("/getRecentUpdates/page")
+    public ResponseEntity<CustomerActivityPageDTO> getRecentUpdatesPage(
+            @RequestParam String email,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTimestamp,
+            @RequestParam(required = false) String beforeId,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(repairTicketService.getRecentUpdatesPageForCustomer(email, beforeTimestamp, beforeId, size));
+        } catch (Exception e) {
+            logger.error("Failed to get recent updates page for customer: {}", email, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
 
@@ -0,0 +1,14 @@
+package com.servit.servit.dto.notification;
+
+import lombok.Data;
+
+@Data
+public class StockAlertDTO {
+    private String type; // LOW_STOCK, STOCK_RESTORED
+    private String partNumber;
+    private String partName;
+    private Integer currentAvailableStock;
+    private Integer lowStockThreshold;
+    private String message;
+    private String createdAt;
+}
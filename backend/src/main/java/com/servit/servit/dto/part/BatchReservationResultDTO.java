@@ -0,0 +1,29 @@
+package com.servit.servit.dto.part;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BatchReservationResultDTO {
+    private String repairTicketId;
+    private Boolean reserved; // false when any part failed; nothing is reserved then
+    private List<ReservedPartDTO> reservedParts = new ArrayList<>();
+    private List<PartFailureDTO> failures = new ArrayList<>();
+
+    @Data
+    public static class ReservedPartDTO {
+        private Long partId;
+        private String partNumber;
+        private Integer quantity;
+        private Integer currentStock;
+        private Integer previousReserved;
+        private Integer newReserved;
+    }
+
+    @Data
+    public static class PartFailureDTO {
+        private Long partId;
+        private String reason;
+    }
+}
@@ -0,0 +1,23 @@
+package com.servit.servit.dto.part;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class InventoryTransactionDTO {
+    private Long transactionId;
+    private Long partId;
+    private String transactionType;
+    private Integer quantityChanged;
+    private Integer previousStock;
+    private Integer newStock;
+    private Integer previousReserved;
+    private Integer newReserved;
+    private String relatedTicketId;
+    private String relatedQuotationId;
+    private String performedBy;
+    private String reason;
+    private String notes;
+    private LocalDateTime transactionTimestamp;
+    private String workflowContext;
+}
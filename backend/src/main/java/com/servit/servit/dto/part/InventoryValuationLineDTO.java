@@ -0,0 +1,19 @@
+package com.servit.servit.dto.part;
+
+import com.servit.servit.enumeration.PartEnum;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class InventoryValuationLineDTO {
+    private Long partId;
+    private String partNumber;
+    private String name;
+    private PartEnum partType;
+    private String supplierName;
+    private BigDecimal unitCost;
+    private Integer units;
+    private BigDecimal value; // unitCost * units
+    private Long ageDays; // days since dateAdded
+    private String agingBucket;
+}
@@ -0,0 +1,27 @@
+package com.servit.servit.dto.part;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class InventoryValuationReportDTO {
+    private LocalDateTime generatedAt;
+    private Long totalParts;
+    private Long totalUnits;
+    private BigDecimal totalValue;
+    private Long averageAgeDays;
+    private List<RollupDTO> agingBuckets = new ArrayList<>();
+    private List<RollupDTO> bySupplier = new ArrayList<>();
+    private List<RollupDTO> byPartType = new ArrayList<>();
+
+    @Data
+    public static class RollupDTO {
+        private String key; // bucket label, supplier name or part type
+        private Long partsCount = 0L;
+        private Long units = 0L;
+        private BigDecimal totalValue = BigDecimal.ZERO;
+    }
+}
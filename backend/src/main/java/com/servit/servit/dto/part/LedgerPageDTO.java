@@ -0,0 +1,15 @@
+package com.servit.servit.dto.part;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class LedgerPageDTO {
+    private List<InventoryTransactionDTO> items;
+    private Integer size;
+    private Boolean hasMore;
+    // Timestamp and ID of the last item; pass back as beforeTimestamp/beforeId for the next (older) page
+    private LocalDateTime nextCursorTimestamp;
+    private Long nextCursorId;
+}
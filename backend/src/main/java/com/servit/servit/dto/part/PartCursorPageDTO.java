@@ -0,0 +1,12 @@
+package com.servit.servit.dto.part;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class PartCursorPageDTO {
+    private List<PartResponseDTO> items;
+    private Integer size;
+    private Boolean hasMore;
+    private Long nextCursor; // partId of the last item; pass back as cursor for the next page
+}
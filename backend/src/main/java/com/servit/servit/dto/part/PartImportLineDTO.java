@@ -0,0 +1,24 @@
+package com.servit.servit.dto.part;
+
+import com.servit.servit.enumeration.PartEnum;
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * One line of a part import file (a CSV row or an NDJSON object).
+ * Only partNumber and serialNumber are required when the part number already exists;
+ * the other details are then copied from an existing part with that number.
+ */
+@Data
+public class PartImportLineDTO {
+    private String partNumber;
+    private String serialNumber;
+    private String name;
+    private String description;
+    private BigDecimal unitCost;
+    private PartEnum partType;
+    private String brand;
+    private String model;
+    private String supplierName;
+    private String supplierPartNumber;
+}
@@ -0,0 +1,23 @@
+package com.servit.servit.dto.part;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PartImportResultDTO {
+    private Long totalLines = 0L;
+    private Long imported = 0L;
+    private Long failed = 0L;
+    private Integer partNumbersAffected = 0;
+    private Boolean errorsTruncated = false; // true when more lines failed than are listed in errors
+    private String fatalError; // set when the file could not be read to the end; counts cover the lines before it
+    private List<LineErrorDTO> errors = new ArrayList<>();
+
+    @Data
+    public static class LineErrorDTO {
+        private Long line;
+        private String serialNumber;
+        private String reason;
+    }
+}
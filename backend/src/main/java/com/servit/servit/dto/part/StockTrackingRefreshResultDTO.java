@@ -0,0 +1,12 @@
+package com.servit.servit.dto.part;
+
+import lombok.Data;
+
+@Data
+public class StockTrackingRefreshResultDTO {
+    private Integer partNumbersScanned;
+    private Integer rowsInserted;
+    private Integer rowsUpdated;
+    private Integer rowsUnchanged;
+    private Long durationMs;
+}
@@ -0,0 +1,15 @@
+package com.servit.servit.dto.repairticket;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class CustomerActivityPageDTO {
+    private List<RecentUpdateDTO> items;
+    private Integer size;
+    private Boolean hasMore;
+    // Timestamp and event ID of the last item; pass back as beforeTimestamp/beforeId for the next (older) page
+    private LocalDateTime nextCursorTimestamp;
+    private String nextCursorId;
+}
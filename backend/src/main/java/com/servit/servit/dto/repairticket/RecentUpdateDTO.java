@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 
 @Data
 public class RecentUpdateDTO {
+    private String eventId; // Source letter + row ID; keyset cursor of the activity feed
     private String eventType; // TICKET_CREATED, STATUS_CHANGED, QUOTATION_CREATED, QUOTATION_UPDATED, PARTS_ORDERED, etc.
     private String ticketNumber;
     private String message; // Human-readable message
@@ -0,0 +1,14 @@
+package com.servit.servit.dto.repairticket;
+
+import com.servit.servit.enumeration.MediaStatusEnum;
+import lombok.Data;
+
+@Data
+public class RepairPhotoStatusDTO {
+    private Long repairPhotoId;
+    private Integer photoIndex;
+    private MediaStatusEnum status;
+    private String photoUrl; // null until READY
+    private Integer attempts;
+    private String lastError;
+}
@@ -0,0 +1,42 @@
+package com.servit.servit.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One event of a customer's activity feed, written by CustomerActivityService when a ticket is checked in,
+ * its status changes or one of its quotations is created or answered. Keeping the feed in one table keyed
+ * by customer lets a page be read as a range of the feed index instead of merging the source tables.
+ */
+@Entity
+@Table(name = "customer_activity", indexes = {
+        @Index(name = "idx_customer_activity_feed", columnList = "customer_email_normalized, event_at DESC, event_id DESC")
+})
+@Data
+public class CustomerActivityEntity {
+    // Source letter + zero-padded row ID of the source table, e.g. S0000000000000000042
+    @Id
+    @Column(name = "event_id", length = 20)
+    private String eventId;
+
+    @Column(name = "customer_email_normalized", nullable = false)
+    private String customerEmailNormalized;
+
+    @Column(name = "event_at", nullable = false)
+    private LocalDateTime eventAt;
+
+    // TICKET, STATUS or QUOTATION
+    @Column(name = "source", nullable = false, length = 16)
+    private String source;
+
+    @Column(name = "ticket_number", nullable = false)
+    private String ticketNumber;
+
+    @Column(name = "status")
+    private String status;
+
+    @Column(name = "updated_by")
+    private String updatedBy;
+}
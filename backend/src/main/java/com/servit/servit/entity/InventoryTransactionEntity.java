@@ -9,7 +9,11 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "inventory_transaction")
+@Table(name = "inventory_transaction", indexes = {
+        @Index(name = "idx_inv_tx_part_time", columnList = "part_id, transaction_timestamp"),
+        @Index(name = "idx_inv_tx_ticket_time", columnList = "related_ticket_id, transaction_timestamp"),
+        @Index(name = "idx_inv_tx_time", columnList = "transaction_timestamp")
+})
 public class InventoryTransactionEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -12,7 +12,9 @@ import java.time.LocalDateTime;
 @Data
 public class NotificationEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "notification_id")
+    @TableGenerator(name = "notification_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "notification", allocationSize = 50)
     private Long notificationId;
 
     @Column(name = "ticket_number")
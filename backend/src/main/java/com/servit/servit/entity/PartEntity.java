@@ -11,10 +11,15 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 @Data
 @Entity
-@Table(name = "part")
+@Table(name = "part", indexes = {
+        @Index(name = "idx_part_name_type", columnList = "name, part_type, is_deleted"),
+        @Index(name = "idx_part_number_deleted", columnList = "partNumber, is_deleted")
+})
 public class PartEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "part_id")
+    @TableGenerator(name = "part_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "part", allocationSize = 50)
     @Column(name = "part_id")
     private Long partId;
 
@@ -10,7 +10,9 @@ import java.util.List;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 @Entity
-@Table(name = "quotation")
+@Table(name = "quotation", indexes = {
+        @Index(name = "idx_quotation_ticket_number", columnList = "repair_ticket_number")
+})
 @Data
 public class QuotationEntity {
     @Id
@@ -5,17 +5,55 @@ import lombok.Data;
 import lombok.ToString;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.servit.servit.enumeration.MediaStatusEnum;
+
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name = "repair_photo")
+@Table(name = "repair_photo", indexes = {
+        @Index(name = "idx_repair_photo_status", columnList = "photo_status, next_attempt_at")
+})
 @Data
 public class RepairPhotoEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "repair_photo_id")
+    @TableGenerator(name = "repair_photo_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "repair_photo", allocationSize = 50)
     @Column(name = "repair_photo_id")
     private Long repairPhotoId;
 
     @Column(name = "photo_url")
-    private String photoUrl;
+    private String photoUrl; // null until the photo has been processed
+
+    // Null for photos stored before processing became asynchronous; those are READY
+    @Enumerated(EnumType.STRING)
+    @Column(name = "photo_status")
+    private MediaStatusEnum photoStatus;
+
+    // Position of the photo in the check-in request; used for the file name
+    @Column(name = "photo_index")
+    private Integer photoIndex;
+
+    // Raw upload waiting to be processed, on the local disk of the node that received it
+    @JsonIgnore
+    @Column(name = "spool_path", length = 1024)
+    private String spoolPath;
+
+    // Content type of the raw upload, handed back to the upload when the spooled file is processed
+    @JsonIgnore
+    @Column(name = "spool_content_type", length = 100)
+    private String spoolContentType;
+
+    @Column(name = "processing_attempts")
+    private Integer processingAttempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @JsonIgnore
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
 
     @ManyToOne
     @JoinColumn(name = "repair_ticket_id")
@@ -9,11 +9,15 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "repair_status_history")
+@Table(name = "repair_status_history", indexes = {
+        @Index(name = "idx_repair_status_history_ticket_time", columnList = "repair_ticket_id, timestamp")
+})
 @Data
 public class RepairStatusHistoryEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "repair_status_history_id")
+    @TableGenerator(name = "repair_status_history_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "repair_status_history", allocationSize = 50)
     private Long repairStatusHistoryId;
 
     @ManyToOne
@@ -13,7 +13,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "repair_ticket")
+@Table(name = "repair_ticket", indexes = {
+        @Index(name = "idx_repair_ticket_customer_email", columnList = "customer_email_normalized, repair_ticket_id"),
+        @Index(name = "idx_repair_ticket_customer_check_in", columnList = "customer_email_normalized, check_in_date"),
+        // Ticket and serial number prefix lookups of RepairTicketSearchService
+        @Index(name = "idx_repair_ticket_number", columnList = "ticket_number"),
+        @Index(name = "idx_repair_ticket_serial_number", columnList = "device_serial_number")
+})
 @Data
 public class RepairTicketEntity {
     @Id
@@ -33,6 +39,10 @@ public class RepairTicketEntity {
     @Column(name = "customer_email", nullable = false)
     private String customerEmail;
 
+    // Lower-cased, trimmed customerEmail; customer lookups filter on this indexed column
+    @Column(name = "customer_email_normalized")
+    private String customerEmailNormalized;
+
     @Column(name = "customer_phone_number", nullable = false)
     private String customerPhoneNumber;
 
@@ -105,4 +115,14 @@ public class RepairTicketEntity {
 
     @Column(name = "document_path")
     private String documentPath;
+
+    @PrePersist
+    @PreUpdate
+    private void normalizeCustomerEmail() {
+        customerEmailNormalized = normalizeEmail(customerEmail);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email != null ? email.trim().toLowerCase() : null;
+    }
 }
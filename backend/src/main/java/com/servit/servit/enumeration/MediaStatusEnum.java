@@ -0,0 +1,7 @@
+package com.servit.servit.enumeration;
+
+public enum MediaStatusEnum {
+    PENDING,
+    READY,
+    FAILED
+}
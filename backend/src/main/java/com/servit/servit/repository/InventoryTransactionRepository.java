@@ -1,13 +1,18 @@
 package com.servit.servit.repository;
 
 import com.servit.servit.entity.InventoryTransactionEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface InventoryTransactionRepository extends JpaRepository<InventoryTransactionEntity, Long> {
@@ -27,4 +32,55 @@ public interface InventoryTransactionRepository extends JpaRepository<InventoryT
     
     @Query("SELECT t FROM InventoryTransactionEntity t WHERE t.part.partId = :partId AND t.transactionType = :transactionType ORDER BY t.transactionTimestamp DESC")
     List<InventoryTransactionEntity> findByPartIdAndTransactionType(@Param("partId") Long partId, @Param("transactionType") String transactionType);
-} 
\ No newline at end of file
+
+    // Ledger rows are read as projections (part ID only, no part entity) and paged newest first by
+    // (transactionTimestamp, transactionId), which the composite indexes on the entity serve directly
+    String LEDGER_ROW_SELECT = "SELECT t.transactionId AS transactionId, t.part.partId AS partId, " +
+            "t.transactionType AS transactionType, t.quantityChanged AS quantityChanged, " +
+            "t.previousStock AS previousStock, t.newStock AS newStock, t.previousReserved AS previousReserved, " +
+            "t.newReserved AS newReserved, t.relatedTicketId AS relatedTicketId, " +
+            "t.relatedQuotationId AS relatedQuotationId, t.performedBy AS performedBy, t.reason AS reason, " +
+            "t.notes AS notes, t.transactionTimestamp AS transactionTimestamp, t.workflowContext AS workflowContext " +
+            "FROM InventoryTransactionEntity t ";
+
+    String BEFORE_CURSOR = "(:beforeTimestamp IS NULL OR t.transactionTimestamp < :beforeTimestamp OR " +
+            "(t.transactionTimestamp = :beforeTimestamp AND t.transactionId < :beforeId)) ";
+
+    String NEWEST_FIRST = "ORDER BY t.transactionTimestamp DESC, t.transactionId DESC";
+
+    @Query(LEDGER_ROW_SELECT + "WHERE t.part.partId = :partId AND " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<LedgerRow> findPartLedgerPage(@Param("partId") Long partId,
+                                       @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                       @Param("beforeId") Long beforeId,
+                                       Pageable limit);
+
+    @Query(LEDGER_ROW_SELECT + "WHERE t.relatedTicketId = :ticketId AND " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<LedgerRow> findTicketLedgerPage(@Param("ticketId") String ticketId,
+                                         @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                         @Param("beforeId") Long beforeId,
+                                         Pageable limit);
+
+    // Forward-only cursor; Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(LEDGER_ROW_SELECT + "WHERE t.transactionTimestamp >= :from AND t.transactionTimestamp < :to " +
+           "ORDER BY t.transactionTimestamp ASC, t.transactionId ASC")
+    Stream<LedgerRow> streamLedgerBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    interface LedgerRow {
+        Long getTransactionId();
+        Long getPartId();
+        String getTransactionType();
+        Integer getQuantityChanged();
+        Integer getPreviousStock();
+        Integer getNewStock();
+        Integer getPreviousReserved();
+        Integer getNewReserved();
+        String getRelatedTicketId();
+        String getRelatedQuotationId();
+        String getPerformedBy();
+        String getReason();
+        String getNotes();
+        LocalDateTime getTransactionTimestamp();
+        String getWorkflowContext();
+    }
+}
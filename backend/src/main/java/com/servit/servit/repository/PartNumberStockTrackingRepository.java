@@ -2,10 +2,13 @@ package com.servit.servit.repository;
 
 import com.servit.servit.entity.PartNumberStockTrackingEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +16,35 @@ import java.util.Optional;
 public interface PartNumberStockTrackingRepository extends JpaRepository<PartNumberStockTrackingEntity, Long> {
     
     Optional<PartNumberStockTrackingEntity> findByPartNumber(String partNumber);
+
+    List<PartNumberStockTrackingEntity> findByPartNumberIn(Collection<String> partNumbers);
+
+    // Same as applyStockDelta, resolving the part number from a part ID so callers need no prior SELECT
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PartNumberStockTrackingEntity t SET " +
+           "t.currentTotalStock = t.currentTotalStock + :partsDelta, " +
+           "t.totalPartsCount = t.totalPartsCount + :partsDelta, " +
+           "t.currentAvailableStock = t.currentAvailableStock + :availableDelta, " +
+           "t.lastStockUpdate = :now " +
+           "WHERE t.partNumber = (SELECT p.partNumber FROM PartEntity p WHERE p.partId = :partId)")
+    int applyStockDeltaForPart(@Param("partId") Long partId,
+                               @Param("partsDelta") int partsDelta,
+                               @Param("availableDelta") int availableDelta,
+                               @Param("now") LocalDateTime now);
+
+    // Applies stock counter deltas in place; returns 0 when no tracking row exists yet.
+    // Does not clear the persistence context: PartNumberStockTrackingService refreshes the rows it re-reads
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PartNumberStockTrackingEntity p SET " +
+           "p.currentTotalStock = p.currentTotalStock + :partsDelta, " +
+           "p.totalPartsCount = p.totalPartsCount + :partsDelta, " +
+           "p.currentAvailableStock = p.currentAvailableStock + :availableDelta, " +
+           "p.lastStockUpdate = :now " +
+           "WHERE p.partNumber = :partNumber")
+    int applyStockDelta(@Param("partNumber") String partNumber,
+                        @Param("partsDelta") int partsDelta,
+                        @Param("availableDelta") int availableDelta,
+                        @Param("now") LocalDateTime now);
     
     // Find all part numbers that are at or below threshold (excluding zero stock)
     @Query("SELECT p FROM PartNumberStockTrackingEntity p WHERE " +
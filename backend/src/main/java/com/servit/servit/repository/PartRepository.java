@@ -3,20 +3,49 @@ package com.servit.servit.repository;
 import com.servit.servit.entity.PartEntity;
 import com.servit.servit.entity.WarrantyEntity;
 import com.servit.servit.enumeration.PartEnum;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import lombok.Value;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PartRepository extends JpaRepository<PartEntity, Long> {
     Optional<PartEntity> findByPartNumber(String partNumber);
     
     List<PartEntity> findAllByPartNumber(String partNumber);
+
+    Optional<PartEntity> findFirstByPartNumberAndIsDeletedFalseOrderByPartIdAsc(String partNumber);
+
+    @Query("SELECT p.partPhotoUrl FROM PartEntity p WHERE p.partNumber = :partNumber AND p.isDeleted = false " +
+           "AND p.partPhotoUrl IS NOT NULL AND TRIM(p.partPhotoUrl) <> '' AND p.partPhotoUrl <> '0' ORDER BY p.partId")
+    List<String> findSharedPhotoUrls(@Param("partNumber") String partNumber, Pageable pageable);
+
+    // Only siblings change, which the photo upload paths never re-read, so the persistence context is kept
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PartEntity p SET p.partPhotoUrl = :photoUrl, p.modifiedBy = :modifiedBy, p.dateModified = :now, " +
+           "p.version = COALESCE(p.version, 0) + 1 " +
+           "WHERE p.partNumber = :partNumber AND p.isDeleted = false AND p.partId <> :sourcePartId " +
+           "AND (p.partPhotoUrl IS NULL OR TRIM(p.partPhotoUrl) = '' OR p.partPhotoUrl = '0')")
+    int fillMissingPhotoUrl(@Param("partNumber") String partNumber,
+                            @Param("photoUrl") String photoUrl,
+                            @Param("sourcePartId") Long sourcePartId,
+                            @Param("modifiedBy") String modifiedBy,
+                            @Param("now") LocalDateTime now);
     
     @Query("SELECT DISTINCT p.partNumber FROM PartEntity p WHERE p.isDeleted = false")
     List<String> findDistinctPartNumbers();
@@ -25,7 +54,39 @@ public interface PartRepository extends JpaRepository<PartEntity, Long> {
     
     Optional<PartEntity> findBySerialNumber(String serialNumber);
 
+    @Query("SELECT p.serialNumber FROM PartEntity p WHERE p.serialNumber IN :serialNumbers")
+    List<String> findExistingSerialNumbers(@Param("serialNumbers") Collection<String> serialNumbers);
+
+    // Includes deleted parts: the serial_number unique constraint covers them too
+    @Query("SELECT p.serialNumber FROM PartEntity p")
+    List<String> findAllSerialNumbers();
+
     List<PartEntity> findByIsDeletedFalse();
+
+    // Read-only list path: constructs PartRow straight from the row, with the part number's stock tracking
+    // joined in, so no entities (or their warranty association) are loaded into the persistence context.
+    // A class rather than an interface projection: Spring Data backs each interface row with its own proxy,
+    // which costs more per row than the query itself on large listings
+    String PART_ROW_SELECT = "SELECT new com.servit.servit.repository.PartRepository$PartRow(p.partId, p.partNumber, " +
+            "p.name, p.description, p.unitCost, p.serialNumber, p.partType, p.isDeleted, p.dateAdded, p.dateModified, " +
+            "p.datePurchasedByCustomer, p.warrantyExpiration, p.isCustomerPurchased, p.addedBy, p.modifiedBy, " +
+            "p.quotationPart, p.isReserved, p.reservedQuantity, p.reservedForTicketId, p.supplierName, " +
+            "p.supplierPartNumber, p.supplierOrderDate, p.supplierExpectedDelivery, p.supplierActualDelivery, " +
+            "p.version, p.brand, p.model, p.customerFirstName, p.customerLastName, p.customerPhone, p.customerEmail, " +
+            "p.partPhotoUrl, t.lowStockThreshold, t.currentAvailableStock) " +
+            "FROM PartEntity p LEFT JOIN PartNumberStockTrackingEntity t ON t.partNumber = p.partNumber ";
+
+    @Query(PART_ROW_SELECT + "WHERE p.isDeleted = false")
+    List<PartRow> findActivePartRows();
+
+    @Query(PART_ROW_SELECT + "WHERE p.isDeleted = false AND t.currentAvailableStock > 0")
+    List<PartRow> findAvailablePartRows();
+
+    @Query(PART_ROW_SELECT + "WHERE p.isDeleted = false AND t.currentAvailableStock <= t.lowStockThreshold")
+    List<PartRow> findLowStockPartRows();
+
+    @Query(PART_ROW_SELECT + "WHERE p.isDeleted = false AND p.isReserved = false AND p.isCustomerPurchased = false AND p.partType = com.servit.servit.enumeration.PartEnum.STANDARD AND (p.quotationPart = 0 OR p.quotationPart IS NULL) AND p.datePurchasedByCustomer IS NULL AND p.reservedForTicketId IS NULL AND p.supplierName IS NULL AND p.supplierPartNumber IS NULL AND p.supplierOrderDate IS NULL AND p.supplierExpectedDelivery IS NULL AND p.supplierActualDelivery IS NULL AND p.warrantyExpiration IS NULL AND p.warranty IS NULL")
+    List<PartRow> findEligiblePartRowsForQuotation();
     
     List<PartEntity> findByPartTypeAndIsDeletedFalse(PartEnum partType);
     
@@ -43,14 +104,148 @@ public interface PartRepository extends JpaRepository<PartEntity, Long> {
     @Query("SELECT p FROM PartEntity p WHERE p.isDeleted = false AND " +
             "((p.currentStock - COALESCE(p.reservedQuantity, 0)) > 0)")
     List<PartEntity> findPartsWithAvailableStock();
+
+    // Keyset pagination over active parts; availability is judged at part number level like getAvailableParts
+    @Query("SELECT p FROM PartEntity p WHERE p.isDeleted = false AND p.partId > :afterId AND " +
+            "(:partType IS NULL OR p.partType = :partType) AND " +
+            "(:brand IS NULL OR LOWER(p.brand) = LOWER(:brand)) AND " +
+            "(:availableOnly = false OR EXISTS (SELECT t FROM PartNumberStockTrackingEntity t " +
+            "WHERE t.partNumber = p.partNumber AND t.currentAvailableStock > 0)) " +
+            "ORDER BY p.partId ASC")
+    List<PartEntity> findActivePartsAfter(@Param("afterId") Long afterId,
+                                          @Param("partType") PartEnum partType,
+                                          @Param("brand") String brand,
+                                          @Param("availableOnly") boolean availableOnly,
+                                          Pageable limit);
+
+    // Forward-only cursor; Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result.
+    // Streams flat rows: while the cursor is open the connection cannot run another query, such as the
+    // select of PartEntity's eager warranty
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(PART_ROW_SELECT + "WHERE p.isDeleted = false AND " +
+            "(:partType IS NULL OR p.partType = :partType) AND " +
+            "(:brand IS NULL OR LOWER(p.brand) = LOWER(:brand)) AND " +
+            "(:availableOnly = false OR t.currentAvailableStock > 0) " +
+            "ORDER BY p.partId ASC")
+    Stream<PartRow> streamActiveParts(@Param("partType") PartEnum partType,
+                                      @Param("brand") String brand,
+                                      @Param("availableOnly") boolean availableOnly);
     
+    // Valuation report input, streamed as projections so neither the result set nor the persistence context grows
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT p.partId AS partId, p.partNumber AS partNumber, p.name AS name, p.partType AS partType, " +
+           "p.supplierName AS supplierName, p.unitCost AS unitCost, p.currentStock AS currentStock, p.dateAdded AS dateAdded " +
+           "FROM PartEntity p WHERE p.isDeleted = false ORDER BY p.partId ASC")
+    Stream<PartValuationRow> streamValuationRows();
+
     @Query("SELECT p FROM PartEntity p WHERE p.isDeleted = false AND " +
             "p.partType = :partType AND " +
             "((p.currentStock - COALESCE(p.reservedQuantity, 0)) > 0)")
     List<PartEntity> findAvailablePartsByType(@Param("partType") PartEnum partType);
     
+    // ================ Conditional reservation updates ================
+    // Each statement checks and changes the row atomically; 0 rows updated means the condition failed.
+    // Flags are assigned before reservedQuantity because MySQL evaluates SET clauses left to right.
+    // The persistence context is not cleared; PartService refreshes a changed part it already holds.
+
+    // Locks the first free STANDARD unit with this name; rows already locked by concurrent claims are skipped
+    @Query(value = "SELECT part_id FROM part WHERE name = :name AND part_type = 'STANDARD' AND is_deleted = false " +
+                   "AND current_stock - COALESCE(reserved_quantity, 0) > 0 " +
+                   "ORDER BY part_id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<Long> lockReplacementCandidate(@Param("name") String name);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PartEntity p SET p.isReserved = true, p.reservedForTicketId = :ticketId, " +
+           "p.reservedQuantity = COALESCE(p.reservedQuantity, 0) + :quantity, " +
+           "p.modifiedBy = :modifiedBy, p.dateModified = :now, p.version = COALESCE(p.version, 0) + 1 " +
+           "WHERE p.partId = :partId AND p.isDeleted = false " +
+           "AND p.currentStock - COALESCE(p.reservedQuantity, 0) >= :quantity")
+    int reserveIfAvailable(@Param("partId") Long partId,
+                           @Param("quantity") int quantity,
+                           @Param("ticketId") String ticketId,
+                           @Param("modifiedBy") String modifiedBy,
+                           @Param("now") LocalDateTime now);
+
+    @Query("SELECT p.partId AS partId, p.partNumber AS partNumber FROM PartEntity p WHERE p.partId IN :partIds")
+    List<PartIdAndNumber> findPartNumbersByIds(@Param("partIds") Collection<Long> partIds);
+
+    // Reads the row, not a possibly stale managed instance, so it sees conditional UPDATEs made earlier
+    @Query("SELECT p.currentStock AS currentStock, p.reservedQuantity AS reservedQuantity FROM PartEntity p WHERE p.partId = :partId")
+    Optional<PartStockLevels> findStockLevels(@Param("partId") Long partId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PartEntity p WHERE p.partId IN :partIds")
+    List<PartEntity> findAllByIdForUpdate(@Param("partIds") Collection<Long> partIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PartEntity p SET p.isReserved = true, p.reservedForTicketId = :ticketId, " +
+           "p.reservedQuantity = COALESCE(p.reservedQuantity, 0) + :quantity, " +
+           "p.modifiedBy = :modifiedBy, p.dateModified = :now, p.version = COALESCE(p.version, 0) + 1 " +
+           "WHERE p.partId IN :partIds AND p.isDeleted = false " +
+           "AND p.currentStock - COALESCE(p.reservedQuantity, 0) >= :quantity")
+    int reserveAllIfAvailable(@Param("partIds") Collection<Long> partIds,
+                              @Param("quantity") int quantity,
+                              @Param("ticketId") String ticketId,
+                              @Param("modifiedBy") String modifiedBy,
+                              @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PartEntity p SET " +
+           "p.isReserved = CASE WHEN p.reservedQuantity > :quantity THEN true ELSE false END, " +
+           "p.reservedForTicketId = CASE WHEN p.reservedQuantity > :quantity THEN p.reservedForTicketId ELSE NULL END, " +
+           "p.reservedQuantity = p.reservedQuantity - :quantity, " +
+           "p.modifiedBy = :modifiedBy, p.dateModified = :now, p.version = COALESCE(p.version, 0) + 1 " +
+           "WHERE p.partId = :partId AND p.reservedQuantity >= :quantity")
+    int releaseIfReserved(@Param("partId") Long partId,
+                          @Param("quantity") int quantity,
+                          @Param("modifiedBy") String modifiedBy,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PartEntity p SET " +
+           "p.isReserved = CASE WHEN p.reservedQuantity > :quantity THEN true ELSE false END, " +
+           "p.reservedForTicketId = CASE WHEN p.reservedQuantity > :quantity THEN p.reservedForTicketId ELSE NULL END, " +
+           "p.currentStock = p.currentStock - :quantity, " +
+           "p.reservedQuantity = p.reservedQuantity - :quantity, " +
+           "p.modifiedBy = :modifiedBy, p.dateModified = :now, p.version = COALESCE(p.version, 0) + 1 " +
+           "WHERE p.partId = :partId AND p.reservedQuantity >= :quantity")
+    int confirmUsageIfReserved(@Param("partId") Long partId,
+                               @Param("quantity") int quantity,
+                               @Param("modifiedBy") String modifiedBy,
+                               @Param("now") LocalDateTime now);
+
     @Query("SELECT COUNT(p) FROM PartEntity p WHERE p.isDeleted = false")
     Long countActiveParts();
+
+    // Aggregates used to build part number stock summaries without loading PartEntity rows
+    @Query("SELECT p.partNumber AS partNumber, COALESCE(SUM(p.currentStock), 0) AS stockSum " +
+           "FROM PartEntity p WHERE p.isDeleted = false GROUP BY p.partNumber")
+    List<PartNumberStockSum> sumCurrentStockGroupedByPartNumber();
+
+    @Query("SELECT p.partNumber AS partNumber, COALESCE(SUM(p.currentStock), 0) AS stockSum " +
+           "FROM PartEntity p WHERE p.isDeleted = false AND p.partNumber IN :partNumbers GROUP BY p.partNumber")
+    List<PartNumberStockSum> sumCurrentStockGroupedByPartNumber(@Param("partNumbers") Collection<String> partNumbers);
+
+    @Query("SELECT DISTINCT p.partNumber AS partNumber, p.supplierName AS supplierName " +
+           "FROM PartEntity p WHERE p.isDeleted = false AND p.supplierName IS NOT NULL AND TRIM(p.supplierName) <> '' " +
+           "ORDER BY p.partNumber, p.supplierName")
+    List<PartNumberSupplier> findDistinctSuppliersGroupedByPartNumber();
+
+    @Query("SELECT DISTINCT p.partNumber AS partNumber, p.supplierName AS supplierName " +
+           "FROM PartEntity p WHERE p.isDeleted = false AND p.supplierName IS NOT NULL AND TRIM(p.supplierName) <> '' " +
+           "AND p.partNumber IN :partNumbers ORDER BY p.partNumber, p.supplierName")
+    List<PartNumberSupplier> findDistinctSuppliersGroupedByPartNumber(@Param("partNumbers") Collection<String> partNumbers);
+
+    // Lightweight read of the searchable columns, used to build the in-memory search and compatibility indexes
+    @Query("SELECT p.partId AS partId, p.partNumber AS partNumber, p.serialNumber AS serialNumber, p.name AS name, " +
+           "p.brand AS brand, p.model AS model, p.description AS description, p.unitCost AS unitCost " +
+           "FROM PartEntity p WHERE p.isDeleted = false")
+    List<PartSearchFields> findSearchFieldsOfActiveParts();
+
+    @Query("SELECT p.partNumber AS partNumber, MIN(p.name) AS partName, COUNT(p) AS partsCount, " +
+           "COALESCE(SUM(p.reservedQuantity), 0) AS reservedSum " +
+           "FROM PartEntity p WHERE p.isDeleted = false GROUP BY p.partNumber")
+    List<PartNumberStockCounts> countStockGroupedByPartNumber();
     
     @Query("SELECT SUM(p.currentStock) FROM PartEntity p WHERE p.isDeleted = false")
     Long getTotalStock();
@@ -76,4 +271,92 @@ public interface PartRepository extends JpaRepository<PartEntity, Long> {
 
     @Query("SELECT p FROM PartEntity p WHERE p.isDeleted = false AND p.isReserved = false AND p.isCustomerPurchased = false AND p.partType = com.servit.servit.enumeration.PartEnum.STANDARD AND (p.quotationPart = 0 OR p.quotationPart IS NULL) AND p.datePurchasedByCustomer IS NULL AND p.reservedForTicketId IS NULL AND p.supplierName IS NULL AND p.supplierPartNumber IS NULL AND p.supplierOrderDate IS NULL AND p.supplierExpectedDelivery IS NULL AND p.supplierActualDelivery IS NULL AND p.warrantyExpiration IS NULL AND p.warranty IS NULL")
     List<PartEntity> findEligiblePartsForQuotation();
-} 
\ No newline at end of file
+
+    @Value
+    class PartRow {
+        Long partId;
+        String partNumber;
+        String name;
+        String description;
+        BigDecimal unitCost;
+        String serialNumber;
+        PartEnum partType;
+        Boolean isDeleted;
+        LocalDateTime dateAdded;
+        LocalDateTime dateModified;
+        LocalDateTime datePurchasedByCustomer;
+        LocalDateTime warrantyExpiration;
+        Boolean isCustomerPurchased;
+        String addedBy;
+        String modifiedBy;
+        Integer quotationPart;
+        Boolean isReserved;
+        Integer reservedQuantity;
+        String reservedForTicketId;
+        String supplierName;
+        String supplierPartNumber;
+        LocalDateTime supplierOrderDate;
+        LocalDateTime supplierExpectedDelivery;
+        LocalDateTime supplierActualDelivery;
+        Long version;
+        String brand;
+        String model;
+        String customerFirstName;
+        String customerLastName;
+        String customerPhone;
+        String customerEmail;
+        String partPhotoUrl;
+        // Null when the part number has no stock tracking row yet
+        Integer lowStockThreshold;
+        Integer currentAvailableStock;
+    }
+
+    interface PartValuationRow {
+        Long getPartId();
+        String getPartNumber();
+        String getName();
+        PartEnum getPartType();
+        String getSupplierName();
+        BigDecimal getUnitCost();
+        Integer getCurrentStock();
+        LocalDateTime getDateAdded();
+    }
+
+    interface PartIdAndNumber {
+        Long getPartId();
+        String getPartNumber();
+    }
+
+    interface PartStockLevels {
+        Integer getCurrentStock();
+        Integer getReservedQuantity();
+    }
+
+    interface PartSearchFields {
+        Long getPartId();
+        String getPartNumber();
+        String getSerialNumber();
+        String getName();
+        String getBrand();
+        String getModel();
+        String getDescription();
+        BigDecimal getUnitCost();
+    }
+
+    interface PartNumberStockCounts {
+        String getPartNumber();
+        String getPartName();
+        Long getPartsCount();
+        Long getReservedSum();
+    }
+
+    interface PartNumberStockSum {
+        String getPartNumber();
+        Long getStockSum();
+    }
+
+    interface PartNumberSupplier {
+        String getPartNumber();
+        String getSupplierName();
+    }
+}
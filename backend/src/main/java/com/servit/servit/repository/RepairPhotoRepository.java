@@ -0,0 +1,16 @@
+package com.servit.servit.repository;
+
+import com.servit.servit.entity.RepairPhotoEntity;
+import com.servit.servit.enumeration.MediaStatusEnum;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RepairPhotoRepository extends JpaRepository<RepairPhotoEntity, Long> {
+    List<RepairPhotoEntity> findByRepairTicketTicketNumberOrderByPhotoIndexAsc(String ticketNumber);
+
+    List<RepairPhotoEntity> findByPhotoStatusAndNextAttemptAtLessThanEqual(MediaStatusEnum photoStatus, LocalDateTime now);
+}
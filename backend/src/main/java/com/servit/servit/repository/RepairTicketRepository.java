@@ -2,13 +2,18 @@ package com.servit.servit.repository;
 
 import com.servit.servit.entity.RepairTicketEntity;
 import com.servit.servit.enumeration.RepairStatusEnum;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,11 +21,33 @@ import java.util.Optional;
 public interface RepairTicketRepository extends JpaRepository<RepairTicketEntity, Integer> {
     Optional<RepairTicketEntity> findByTicketNumber(String ticketNumber);
 
-    @Query(value = "SELECT ticket_number FROM repair_ticket WHERE ticket_number LIKE 'IORT-%' ORDER BY repair_ticket_id DESC LIMIT 1", nativeQuery = true)
-    String findLastTicketNumber();
+    // Listings load the technician in the same query instead of one lookup per ticket
+    @Override
+    @EntityGraph(attributePaths = "technicianEmail")
+    List<RepairTicketEntity> findAll(Sort sort);
 
-    List<RepairTicketEntity> findByCustomerEmail(String email);
+    @Override
+    @EntityGraph(attributePaths = "technicianEmail")
+    Page<RepairTicketEntity> findAll(Pageable pageable);
 
+    @EntityGraph(attributePaths = "technicianEmail")
+    List<RepairTicketEntity> findByRepairTicketIdIn(Collection<Long> repairTicketIds);
+
+    // Customer lookups take the value of RepairTicketEntity.normalizeEmail and use idx_repair_ticket_customer_email
+    @EntityGraph(attributePaths = "technicianEmail")
+    List<RepairTicketEntity> findByCustomerEmailNormalizedOrderByRepairTicketIdDesc(String normalizedEmail);
+
+    @EntityGraph(attributePaths = "technicianEmail")
+    Page<RepairTicketEntity> findByCustomerEmailNormalized(String normalizedEmail, Pageable pageable);
+
+    // Fills the normalized column for tickets created before it existed
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE RepairTicketEntity r SET r.customerEmailNormalized = LOWER(TRIM(r.customerEmail)) " +
+            "WHERE r.customerEmailNormalized IS NULL")
+    int backfillCustomerEmailNormalized();
+
+    @EntityGraph(attributePaths = "technicianEmail")
     @Query("SELECT r FROM RepairTicketEntity r WHERE " +
             "LOWER(r.ticketNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(r.customerFirstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -32,7 +59,8 @@ public interface RepairTicketRepository extends JpaRepository<RepairTicketEntity
             "LOWER(r.reportedIssue) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     Page<RepairTicketEntity> searchRepairTickets(@Param("searchTerm") String searchTerm, Pageable pageable);
 
-    @Query("SELECT r FROM RepairTicketEntity r WHERE r.customerEmail = :email AND (" +
+    @EntityGraph(attributePaths = "technicianEmail")
+    @Query("SELECT r FROM RepairTicketEntity r WHERE r.customerEmailNormalized = :email AND (" +
             "LOWER(r.ticketNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(r.customerFirstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(r.customerLastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -43,6 +71,7 @@ public interface RepairTicketRepository extends JpaRepository<RepairTicketEntity
     Page<RepairTicketEntity> searchRepairTicketsByEmail(@Param("email") String email, @Param("searchTerm") String searchTerm, Pageable pageable);
 
     // Search tickets assigned to a technician (by technician's user email)
+    @EntityGraph(attributePaths = "technicianEmail")
     @Query("SELECT r FROM RepairTicketEntity r WHERE r.technicianEmail.email = :email AND (" +
             "LOWER(r.ticketNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(r.customerFirstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -53,17 +82,28 @@ public interface RepairTicketRepository extends JpaRepository<RepairTicketEntity
             "LOWER(r.reportedIssue) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
     Page<RepairTicketEntity> searchRepairTicketsByTechnicianEmail(@Param("email") String email, @Param("searchTerm") String searchTerm, Pageable pageable);
 
+    @EntityGraph(attributePaths = "technicianEmail")
     @Query("SELECT r FROM RepairTicketEntity r WHERE r.repairStatus IN ('RECEIVED', 'DIAGNOSING', 'AWAITING_PARTS', 'REPAIRING', 'READY_FOR_PICKUP')")
     Page<RepairTicketEntity> findActiveRepairTickets(Pageable pageable);
 
+    @EntityGraph(attributePaths = "technicianEmail")
     List<RepairTicketEntity> findByRepairStatus(RepairStatusEnum repairStatus);
 
+    @EntityGraph(attributePaths = "technicianEmail")
     Page<RepairTicketEntity> findByRepairStatus(RepairStatusEnum repairStatus, Pageable pageable);
 
+    @EntityGraph(attributePaths = "technicianEmail")
     Page<RepairTicketEntity> findByRepairStatusAndTechnicianEmail_Email(RepairStatusEnum repairStatus, String email, Pageable pageable);
 
     @Query("SELECT r.repairStatus, COUNT(r) FROM RepairTicketEntity r GROUP BY r.repairStatus")
     List<Object[]> countTicketsByStatus();
 
-    Page<RepairTicketEntity> findByCustomerEmail(String email, Pageable pageable);
+    // Photo URLs of a page of tickets as (repairTicketId, photoUrl) rows, in upload order
+    @Query("SELECT p.repairTicket.repairTicketId, p.photoUrl FROM RepairPhotoEntity p " +
+            "WHERE p.repairTicket.repairTicketId IN :ticketIds AND p.photoUrl IS NOT NULL ORDER BY p.repairPhotoId")
+    List<Object[]> findRepairPhotoUrlsByTicketIds(@Param("ticketIds") Collection<Long> ticketIds);
+
+    @Query("SELECT p.repairTicket.repairTicketId, p.photoUrl FROM AfterRepairPhotoEntity p " +
+            "WHERE p.repairTicket.repairTicketId IN :ticketIds ORDER BY p.afterRepairPhotoId")
+    List<Object[]> findAfterRepairPhotoUrlsByTicketIds(@Param("ticketIds") Collection<Long> ticketIds);
 }
@@ -2,9 +2,14 @@ package com.servit.servit.repository;
 
 import com.servit.servit.entity.UserEntity;
 import com.servit.servit.enumeration.UserRoleEnum;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +20,18 @@ public interface UserRepository extends JpaRepository<UserEntity, Integer> {
     Optional<UserEntity> findByUsername(String username);
 
     long countByRole(UserRoleEnum role);
+
+    List<UserEntity> findByRoleOrderByUserIdAsc(UserRoleEnum role);
+
+    // Users created in [start, end)
+    List<UserEntity> findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByUserIdAsc(LocalDateTime start, LocalDateTime end);
+
+    // Matches first name, last name, or full name with or without the space; needle must be lower-case
+    @Query("SELECT u FROM UserEntity u WHERE u.role = :role AND (" +
+            "LOWER(u.firstName) LIKE CONCAT('%', :needle, '%') OR " +
+            "LOWER(u.lastName) LIKE CONCAT('%', :needle, '%') OR " +
+            "LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE CONCAT('%', :needle, '%') OR " +
+            "LOWER(CONCAT(u.firstName, u.lastName)) LIKE CONCAT('%', :needle, '%')) " +
+            "ORDER BY u.userId ASC")
+    List<UserEntity> searchByRoleAndName(@Param("role") UserRoleEnum role, @Param("needle") String needle, Pageable pageable);
 }
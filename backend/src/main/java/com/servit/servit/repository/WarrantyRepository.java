@@ -18,9 +18,6 @@ public interface WarrantyRepository extends JpaRepository<WarrantyEntity, Long>
 
     List<WarrantyEntity> findByCustomerEmail(String email);
 
-    @Query(value = "SELECT warranty_number FROM warranty WHERE warranty_number LIKE 'IORMA-%' ORDER BY warranty_id DESC LIMIT 1", nativeQuery = true)
-    String findLastWarrantyNumber();
-
     @Query("SELECT w FROM WarrantyEntity w WHERE w.customerEmail = :email AND (" +
             "LOWER(CAST(w.warrantyNumber AS string)) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(w.customerFirstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
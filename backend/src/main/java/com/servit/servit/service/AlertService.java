@@ -1,18 +1,29 @@
 package com.servit.servit.service;
 
+import com.servit.servit.dto.notification.StockAlertDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
+
 /**
  * Service for handling notifications throughout the inventory and repair workflows.
  * Currently implements console logging but can be extended to support email, SMS, push notifications, etc.
+ * Stock alerts are also pushed to WebSocket subscribers of /topic/inventory/alerts.
  */
 @Service
 public class AlertService {
     
     private static final Logger logger = LoggerFactory.getLogger(AlertService.class);
 
+    private static final String STOCK_ALERT_TOPIC = "/topic/inventory/alerts";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
     /**
      * Sends low stock alert to administrators
      */
@@ -23,6 +34,7 @@ public class AlertService {
         // TODO: Implement actual notification mechanism (email, push notification, etc.)
         logger.warn("ALERT: {}", alertMessage);
         System.out.println("🚨 " + alertMessage);
+        publishStockAlert("LOW_STOCK", partName, currentStock, threshold, alertMessage);
     }
 
     /**
@@ -77,5 +89,46 @@ public class AlertService {
                                               message, partName, currentStock);
         logger.info("STOCK_RESTORE: {}", restoreMessage);
         System.out.println("✅ " + restoreMessage);
+        publishStockAlert("STOCK_RESTORED", partName, currentStock, null, restoreMessage);
+    }
+
+    /**
+     * Sends a low stock alert for a part number, delivered to WebSocket subscribers as well as the log
+     */
+    public void sendLowStockAlert(String partNumber, String partName, int currentStock, int threshold, String message) {
+        String alertMessage = String.format("LOW STOCK ALERT: %s | Part: %s | Current Stock: %d | Threshold: %d",
+                                           message, partName, currentStock, threshold);
+        logger.warn("ALERT: {}", alertMessage);
+        publishStockAlert("LOW_STOCK", partNumber, partName, currentStock, threshold, alertMessage);
+    }
+
+    /**
+     * Sends a stock restored notification for a part number, delivered to WebSocket subscribers as well as the log
+     */
+    public void sendStockRestoreNotification(String partNumber, String partName, int currentStock, int threshold, String message) {
+        String restoreMessage = String.format("STOCK RESTORED: %s | Part: %s | Current Stock: %d",
+                                              message, partName, currentStock);
+        logger.info("STOCK_RESTORE: {}", restoreMessage);
+        publishStockAlert("STOCK_RESTORED", partNumber, partName, currentStock, threshold, restoreMessage);
+    }
+
+    private void publishStockAlert(String type, String partName, int currentStock, Integer threshold, String message) {
+        publishStockAlert(type, null, partName, currentStock, threshold, message);
+    }
+
+    private void publishStockAlert(String type, String partNumber, String partName, int currentStock, Integer threshold, String message) {
+        try {
+            StockAlertDTO alert = new StockAlertDTO();
+            alert.setType(type);
+            alert.setPartNumber(partNumber);
+            alert.setPartName(partName);
+            alert.setCurrentAvailableStock(currentStock);
+            alert.setLowStockThreshold(threshold);
+            alert.setMessage(message);
+            alert.setCreatedAt(LocalDateTime.now().toString());
+            messagingTemplate.convertAndSend(STOCK_ALERT_TOPIC, alert);
+        } catch (Exception e) {
+            logger.error("Failed to publish stock alert for {}: {}", partName, e.getMessage(), e);
+        }
     }
 } 
\ No newline at end of file
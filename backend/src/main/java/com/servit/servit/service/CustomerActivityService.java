@@ -0,0 +1,330 @@
+package com.servit.servit.service;
+
+import com.servit.servit.dto.repairticket.CustomerActivityPageDTO;
+import com.servit.servit.dto.repairticket.RecentUpdateDTO;
+import com.servit.servit.entity.QuotationEntity;
+import com.servit.servit.entity.RepairStatusHistoryEntity;
+import com.servit.servit.entity.RepairTicketEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Customer activity feed: ticket check-ins, status changes and quotation events of all tickets of a
+ * customer, newest first. The events are kept in the customer_activity table, one row per event, written
+ * here as each event happens. A page is a range of idx_customer_activity_feed (customer, event_at DESC,
+ * event_id DESC): the first page and every cursor page read their page size of rows plus one, however long
+ * the customer's history is. Numbered pages (getActivity) still read offset + page size rows.
+ * <p>
+ * Events are ordered by timestamp, then by event ID (source letter + zero-padded row ID) to break ties.
+ * Status changes keep the technician assigned when they happened. A quotation has one event, moved to the
+ * customer's response when it is approved or denied.
+ * At startup, and after a restore, the table is filled from the source tables so events written before it
+ * existed, or restored from a backup, are in the feed.
+ * Event timestamps are bound through JDBC as they are; ServitApplication runs the JVM in
+ * hibernate.jdbc.time_zone, so they are stored like the Hibernate-written source columns.
+ */
+@Service
+public class CustomerActivityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerActivityService.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String COLUMNS = "event_id, source, ticket_number, event_at, status, updated_by";
+
+    private static final String FIRST_PAGE_SQL =
+            "SELECT " + COLUMNS + " FROM customer_activity WHERE customer_email_normalized = :email " +
+            "ORDER BY event_at DESC, event_id DESC LIMIT :limit";
+
+    // Expanded rather than a row comparison so both arms are ranges of the feed index
+    private static final String CURSOR_PAGE_SQL =
+            "SELECT " + COLUMNS + " FROM customer_activity WHERE customer_email_normalized = :email AND " +
+            "(event_at < :beforeTimestamp OR (event_at = :beforeTimestamp AND event_id < :beforeId)) " +
+            "ORDER BY event_at DESC, event_id DESC LIMIT :limit";
+
+    private static final String NUMBERED_PAGE_SQL =
+            "SELECT " + COLUMNS + " FROM customer_activity WHERE customer_email_normalized = :email " +
+            "ORDER BY event_at DESC, event_id DESC LIMIT :limit OFFSET :offset";
+
+    private static final String COUNT_SQL =
+            "SELECT COUNT(*) FROM customer_activity WHERE customer_email_normalized = :email";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO customer_activity (event_id, customer_email_normalized, event_at, source, ticket_number, status, updated_by) ";
+
+    private static final String UPSERT_EVENT_SQL = INSERT_SQL +
+            "VALUES (:eventId, :email, :eventAt, :source, :ticketNumber, :status, :updatedBy) " +
+            "ON DUPLICATE KEY UPDATE event_at = VALUES(event_at), status = VALUES(status), updated_by = VALUES(updated_by)";
+
+    // The quotation only carries the ticket number, so the customer comes from the ticket
+    private static final String UPSERT_QUOTATION_SQL = INSERT_SQL +
+            "SELECT :eventId, " + customerOf("r") + ", :eventAt, 'QUOTATION', r.ticket_number, :status, NULL " +
+            "FROM repair_ticket r WHERE r.ticket_number = :ticketNumber " +
+            "ON DUPLICATE KEY UPDATE event_at = VALUES(event_at), status = VALUES(status)";
+
+    private static final String DELETE_SQL = "DELETE FROM customer_activity WHERE event_id = :eventId";
+
+    // Approved/denied quotations are dated by the customer's response
+    private static final String QUOTATION_EVENT_AT =
+            "CASE WHEN q.status IN ('APPROVED', 'DENIED') AND q.responded_at IS NOT NULL THEN q.responded_at ELSE q.created_at END";
+
+    private static final String[] BACKFILL_SQL = {
+            INSERT_SQL +
+            "SELECT CONCAT('T', LPAD(r.repair_ticket_id, 19, '0')), " + customerOf("r") + ", r.check_in_date, 'TICKET', " +
+            "r.ticket_number, r.repair_status, r.technician_name " +
+            "FROM repair_ticket r WHERE r.check_in_date IS NOT NULL AND r.customer_email IS NOT NULL " +
+            "ON DUPLICATE KEY UPDATE event_at = VALUES(event_at)",
+            INSERT_SQL +
+            "SELECT CONCAT('S', LPAD(h.repair_status_history_id, 19, '0')), " + customerOf("r") + ", h.timestamp, 'STATUS', " +
+            "r.ticket_number, h.repair_status, r.technician_name " +
+            "FROM repair_status_history h JOIN repair_ticket r ON r.repair_ticket_id = h.repair_ticket_id " +
+            "WHERE r.customer_email IS NOT NULL " +
+            "ON DUPLICATE KEY UPDATE event_at = VALUES(event_at)",
+            INSERT_SQL +
+            "SELECT CONCAT('Q', LPAD(q.quotation_id, 19, '0')), " + customerOf("r") + ", " + QUOTATION_EVENT_AT + ", " +
+            "'QUOTATION', r.ticket_number, q.status, NULL " +
+            "FROM quotation q JOIN repair_ticket r ON r.ticket_number = q.repair_ticket_number " +
+            "WHERE r.customer_email IS NOT NULL " +
+            "ON DUPLICATE KEY UPDATE event_at = VALUES(event_at), status = VALUES(status)"
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CustomerActivityService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Gets one page of a customer's activity, newest first.
+     * @param beforeTimestamp Timestamp of the last item of the previous page, or null for the first page
+     * @param beforeId Event ID of the last item of the previous page
+     */
+    public CustomerActivityPageDTO getActivityPage(String email, LocalDateTime beforeTimestamp, String beforeId, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("email", RepairTicketEntity.normalizeEmail(email))
+                .addValue("limit", pageSize + 1);
+        List<RecentUpdateDTO> rows;
+        if (beforeTimestamp == null) {
+            rows = jdbcTemplate.query(FIRST_PAGE_SQL, params, this::toRecentUpdate);
+        } else {
+            // Without an ID, the cursor timestamp alone bounds the page (ties at that instant are skipped)
+            params.addValue("beforeTimestamp", beforeTimestamp)
+                    .addValue("beforeId", beforeId != null ? beforeId : "");
+            rows = jdbcTemplate.query(CURSOR_PAGE_SQL, params, this::toRecentUpdate);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<RecentUpdateDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+        CustomerActivityPageDTO page = new CustomerActivityPageDTO();
+        page.setItems(items);
+        page.setSize(items.size());
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            RecentUpdateDTO last = items.get(items.size() - 1);
+            page.setNextCursorTimestamp(last.getTimestamp());
+            page.setNextCursorId(last.getEventId());
+        }
+        return page;
+    }
+
+    /**
+     * Gets a numbered page of a customer's activity, newest first.
+     * Reads offset + page size rows and counts the customer's events, so prefer getActivityPage for deep pages.
+     */
+    public Page<RecentUpdateDTO> getActivity(String email, Pageable pageable) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("email", RepairTicketEntity.normalizeEmail(email))
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+        List<RecentUpdateDTO> items = jdbcTemplate.query(NUMBERED_PAGE_SQL, params, this::toRecentUpdate);
+        Long total = jdbcTemplate.queryForObject(COUNT_SQL, params, Long.class);
+        logger.info("Found {} recent updates for customer: {}", total, email);
+        return new PageImpl<>(items, pageable, total != null ? total : 0L);
+    }
+
+    /**
+     * Records the check-in of a saved ticket. Tickets without a check-in date have no event.
+     */
+    public void recordCheckIn(RepairTicketEntity ticket) {
+        if (ticket.getCheckInDate() == null || ticket.getCustomerEmail() == null) {
+            return;
+        }
+        upsertEvent(eventId('T', ticket.getRepairTicketId()), ticket, ticket.getCheckInDate(), "TICKET",
+                ticket.getRepairStatus() != null ? ticket.getRepairStatus().name() : null);
+    }
+
+    /**
+     * Records a saved status history row of a ticket.
+     */
+    public void recordStatusChange(RepairStatusHistoryEntity history) {
+        RepairTicketEntity ticket = history.getRepairTicket();
+        if (ticket == null || ticket.getCustomerEmail() == null) {
+            return;
+        }
+        LocalDateTime eventAt = history.getTimestamp() != null ? history.getTimestamp() : LocalDateTime.now();
+        upsertEvent(eventId('S', history.getRepairStatusHistoryId()), ticket, eventAt, "STATUS",
+                history.getRepairStatusEnum().name());
+    }
+
+    /**
+     * Records a saved quotation, or moves its event to its current status and date after an update.
+     */
+    public void recordQuotation(QuotationEntity quotation) {
+        String status = quotation.getStatus();
+        boolean responded = ("APPROVED".equals(status) || "DENIED".equals(status)) && quotation.getRespondedAt() != null;
+        LocalDateTime eventAt = responded ? quotation.getRespondedAt() : quotation.getCreatedAt();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("eventId", eventId('Q', quotation.getQuotationId()))
+                .addValue("eventAt", eventAt != null ? eventAt : LocalDateTime.now())
+                .addValue("status", status)
+                .addValue("ticketNumber", quotation.getRepairTicketNumber());
+        try {
+            jdbcTemplate.update(UPSERT_QUOTATION_SQL, params);
+        } catch (DataAccessException e) {
+            logger.error("Failed to record activity of quotation {}: {}", quotation.getQuotationId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Removes the event of a deleted quotation.
+     */
+    public void removeQuotation(Long quotationId) {
+        try {
+            jdbcTemplate.update(DELETE_SQL, new MapSqlParameterSource("eventId", eventId('Q', quotationId)));
+        } catch (DataAccessException e) {
+            logger.error("Failed to remove activity of quotation {}: {}", quotationId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Adds the events of the source tables missing from customer_activity and brings quotation events up to
+     * date. Existing events are matched by event ID, so later startups only rewrite what changed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            int rows = 0;
+            for (String sql : BACKFILL_SQL) {
+                rows += jdbcTemplate.update(sql, EmptySqlParameterSource.INSTANCE);
+            }
+            logger.info("Customer activity backfilled ({} rows affected)", rows);
+        } catch (DataAccessException e) {
+            logger.error("Failed to backfill customer activity: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rebuilds customer_activity from the source tables, dropping events whose rows no longer exist.
+     * Call after the source tables were replaced, as a restore does.
+     */
+    public void rebuild() {
+        jdbcTemplate.update("DELETE FROM customer_activity", EmptySqlParameterSource.INSTANCE);
+        backfill();
+    }
+
+    // ================ Helper Methods ================
+
+    private void upsertEvent(String eventId, RepairTicketEntity ticket, LocalDateTime eventAt, String source, String status) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("eventId", eventId)
+                .addValue("email", RepairTicketEntity.normalizeEmail(ticket.getCustomerEmail()))
+                .addValue("eventAt", eventAt)
+                .addValue("source", source)
+                .addValue("ticketNumber", ticket.getTicketNumber())
+                .addValue("status", status)
+                .addValue("updatedBy", ticket.getTechnicianName());
+        try {
+            jdbcTemplate.update(UPSERT_EVENT_SQL, params);
+        } catch (DataAccessException e) {
+            logger.error("Failed to record {} activity of ticket {}: {}", source, ticket.getTicketNumber(), e.getMessage(), e);
+        }
+    }
+
+    // Same format as the backfill's CONCAT(letter, LPAD(id, 19, '0')), so cursors compare alike
+    private static String eventId(char source, Long id) {
+        return source + String.format("%019d", id);
+    }
+
+    private static String customerOf(String ticketAlias) {
+        return "COALESCE(" + ticketAlias + ".customer_email_normalized, LOWER(TRIM(" + ticketAlias + ".customer_email)))";
+    }
+
+    private RecentUpdateDTO toRecentUpdate(ResultSet rs, int rowNum) throws SQLException {
+        String source = rs.getString("source");
+        String status = rs.getString("status");
+        RecentUpdateDTO update = new RecentUpdateDTO();
+        update.setEventId(rs.getString("event_id"));
+        update.setTicketNumber(rs.getString("ticket_number"));
+        update.setTimestamp(rs.getObject("event_at", LocalDateTime.class));
+        update.setStatus(status);
+        update.setUpdatedBy(rs.getString("updated_by"));
+        switch (source) {
+            case "TICKET" -> {
+                update.setEventType("TICKET_CREATED");
+                update.setMessage("Ticket created");
+            }
+            case "STATUS" -> {
+                update.setEventType("STATUS_CHANGED");
+                update.setMessage(getStatusChangeMessage(status != null ? status : ""));
+            }
+            default -> setQuotationEvent(update, status);
+        }
+        return update;
+    }
+
+    private void setQuotationEvent(RecentUpdateDTO update, String status) {
+        if ("PENDING".equalsIgnoreCase(status)) {
+            update.setEventType("QUOTATION_CREATED");
+            update.setMessage("Quotation created");
+        } else if ("APPROVED".equalsIgnoreCase(status)) {
+            update.setEventType("QUOTATION_APPROVED");
+            update.setMessage("Quotation approved");
+        } else if ("DENIED".equalsIgnoreCase(status)) {
+            update.setEventType("QUOTATION_DENIED");
+            update.setMessage("Quotation denied");
+        } else {
+            update.setEventType("QUOTATION_UPDATED");
+            update.setMessage("Quotation updated");
+        }
+    }
+
+    private String getStatusChangeMessage(String status) {
+        switch (status.toUpperCase()) {
+            case "RECEIVED":
+                return "Ticket received";
+            case "DIAGNOSING":
+            case "DIAGNOSED":
+                return "Diagnosis complete";
+            case "AWAITING_PARTS":
+                return "Awaiting parts";
+            case "REPAIRING":
+                return "Repair in progress";
+            case "READY_FOR_PICKUP":
+                return "Ready for pickup";
+            case "COMPLETED":
+            case "COMPLETE":
+                return "Ticket completed";
+            default:
+                return "Status updated to " + status.replace("_", " ").toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.servit.servit.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues repair ticket (IORT-) and warranty (IORMA-) numbers.
+ * Each sequence has one counter row in id_generator holding the next number not yet handed to any node.
+ * A node claims a block of numbers with one short locked UPDATE and serves them from an AtomicLong,
+ * so issuing a number needs no query and numbers never collide across threads or instances.
+ * Numbers left in a node's block when it stops are skipped, so the issued numbers can have small gaps.
+ */
+@Service
+@DependsOn("entityManagerFactory") // id_generator and the ticket/warranty tables must exist before seeding
+public class DocumentNumberService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentNumberService.class);
+
+    public static final String REPAIR_TICKET_PREFIX = "IORT-";
+    public static final String WARRANTY_PREFIX = "IORMA-";
+
+    // Highest number already used by each prefix, read once at startup to seed the counter rows
+    private static final Map<String, String> MAX_USED_SQL = Map.of(
+            REPAIR_TICKET_PREFIX,
+            "SELECT MAX(CAST(SUBSTRING(ticket_number, 6) AS UNSIGNED)) FROM repair_ticket WHERE ticket_number LIKE 'IORT-%'",
+            WARRANTY_PREFIX,
+            "SELECT MAX(CAST(SUBSTRING(warranty_number, 7) AS UNSIGNED)) FROM warranty WHERE warranty_number LIKE 'IORMA-%'"
+    );
+
+    private static final String SEED_SQL =
+            "INSERT INTO id_generator (sequence_name, next_val) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+
+    @Value("${document.number.block-size:10}")
+    private int blockSize;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DocumentNumberService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Raises each counter row above the highest number already used, creating missing rows,
+     * and drops the blocks held in memory. Runs at startup; call again after restoring data.
+     */
+    @PostConstruct
+    public void seedFromExistingNumbers() {
+        for (Map.Entry<String, String> sequence : MAX_USED_SQL.entrySet()) {
+            Long maxUsed = jdbcTemplate.queryForObject(sequence.getValue(), Long.class);
+            long next = (maxUsed != null ? maxUsed : 0L) + 1;
+            jdbcTemplate.update(SEED_SQL, sequence.getKey(), next);
+            logger.info("{} numbers continue from {}", sequence.getKey(), next);
+        }
+        blocks.clear();
+    }
+
+    public String nextRepairTicketNumber() {
+        return REPAIR_TICKET_PREFIX + String.format("%06d", next(REPAIR_TICKET_PREFIX));
+    }
+
+    public String nextWarrantyNumber() {
+        return WARRANTY_PREFIX + String.format("%06d", next(WARRANTY_PREFIX));
+    }
+
+    // ================ Helper Methods ================
+
+    private long next(String sequence) {
+        while (true) {
+            Block block = blocks.get(sequence);
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+            }
+            synchronized (this) {
+                // Only one thread claims a new block; the others retry against it
+                if (blocks.get(sequence) == block) {
+                    blocks.put(sequence, claimBlock(sequence));
+                }
+            }
+        }
+    }
+
+    private Block claimBlock(String sequence) {
+        Block block = requiresNew.execute(status -> {
+            Long start = jdbcTemplate.queryForObject(
+                    "SELECT next_val FROM id_generator WHERE sequence_name = ? FOR UPDATE", Long.class, sequence);
+            if (start == null) {
+                throw new IllegalStateException("Number counter missing for " + sequence);
+            }
+            jdbcTemplate.update("UPDATE id_generator SET next_val = ? WHERE sequence_name = ?", start + blockSize, sequence);
+            return new Block(start, start + blockSize);
+        });
+        logger.debug("Claimed {} numbers {} to {}", sequence, block.next.get(), block.end - 1);
+        return block;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end; // exclusive
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.servit.servit.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+/**
+ * Owns the id_generator table behind the @TableGenerator mappings of the high-volume entities
+ * (part, repair_photo, notification, repair_status_history). Those entities take ids in blocks of
+ * ALLOCATION_SIZE instead of using AUTO_INCREMENT, which lets Hibernate batch their inserts.
+ * <p>
+ * Each row holds the upper bound of the next block to hand out (pooled optimizer, stored_last_used=false):
+ * reading N claims ids N - ALLOCATION_SIZE + 1 .. N and moves the row to N + ALLOCATION_SIZE.
+ * At startup, and after a restore, every row is raised to at least MAX(id) + ALLOCATION_SIZE so the
+ * first block starts above the ids already in the table.
+ * The same table also holds the IORT-/IORMA- counter rows of DocumentNumberService.
+ */
+@Service
+@DependsOn("entityManagerFactory") // The schema update creates id_generator before it is seeded
+public class IdGeneratorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorService.class);
+
+    // Must match allocationSize of the @TableGenerator mappings
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String PART = "part";
+    public static final String REPAIR_PHOTO = "repair_photo";
+    public static final String NOTIFICATION = "notification";
+    public static final String REPAIR_STATUS_HISTORY = "repair_status_history";
+
+    // Sequence (pkColumnValue) -> table and id column it allocates for
+    private static final Map<String, String[]> SEQUENCES = Map.of(
+            PART, new String[]{"part", "part_id"},
+            REPAIR_PHOTO, new String[]{"repair_photo", "repair_photo_id"},
+            NOTIFICATION, new String[]{"notification", "notification_id"},
+            REPAIR_STATUS_HISTORY, new String[]{"repair_status_history", "repair_status_history_id"}
+    );
+
+    private static final String SEED_SQL =
+            "INSERT INTO id_generator (sequence_name, next_val) SELECT ?, COALESCE(MAX(%s), 0) + ? FROM %s " +
+            "ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+
+    @Autowired
+    public IdGeneratorService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Raises every id_generator row above the current maximum id of its table, creating missing rows.
+     * Runs before the application serves requests; call again after bulk-loading rows with explicit ids.
+     */
+    @PostConstruct
+    public void seedFromCurrentIds() {
+        for (Map.Entry<String, String[]> sequence : SEQUENCES.entrySet()) {
+            String table = sequence.getValue()[0];
+            String idColumn = sequence.getValue()[1];
+            jdbcTemplate.update(String.format(SEED_SQL, idColumn, table), sequence.getKey(), ALLOCATION_SIZE);
+        }
+        logger.info("Id generator seeded for {} sequences", SEQUENCES.size());
+    }
+
+    /**
+     * Claims a contiguous block of ids from a sequence for rows inserted outside Hibernate (JDBC batches),
+     * following the same block layout as the pooled optimizer so both never hand out the same id.
+     * Runs in its own transaction so the id_generator row is not locked for the caller's whole transaction.
+     * @param sequence One of the sequence names (PART, REPAIR_PHOTO, ...)
+     * @param count Number of ids needed
+     * @return The first id of the block; the block is firstId .. firstId + count - 1
+     */
+    public long allocateBlock(String sequence, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        Long firstId = requiresNew.execute(status -> {
+            Long next = jdbcTemplate.queryForObject(
+                    "SELECT next_val FROM id_generator WHERE sequence_name = ? FOR UPDATE", Long.class, sequence);
+            if (next == null) {
+                throw new IllegalStateException("Id generator row missing for sequence " + sequence);
+            }
+            jdbcTemplate.update("UPDATE id_generator SET next_val = ? WHERE sequence_name = ?", next + count, sequence);
+            return next - ALLOCATION_SIZE + 1;
+        });
+        return firstId;
+    }
+}
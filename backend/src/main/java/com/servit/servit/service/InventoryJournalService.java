@@ -0,0 +1,277 @@
+package com.servit.servit.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind journal for inventory transactions (the inventory_transaction audit table).
+ * Entries are recorded without touching the database on the request path and written in JDBC batches.
+ * <ul>
+ *   <li>ASYNC (default): entries are queued in a bounded buffer once the surrounding transaction commits
+ *       and drained by a background writer. When the buffer is full, entries are dropped and counted.</li>
+ *   <li>FLUSH_ON_COMMIT: entries are collected per transaction and written in one batch just before it
+ *       commits, so they commit or roll back with the change they describe.</li>
+ * </ul>
+ * Callers snapshot the stock columns when they record an entry; any left null are filled from the part
+ * row when the entry is written, which in ASYNC mode may be after later changes.
+ * Metrics: inventory.journal.queue.depth, inventory.journal.dropped, inventory.journal.written,
+ * inventory.journal.failed and the inventory.journal.flush timer.
+ */
+@Service
+public class InventoryJournalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryJournalService.class);
+
+    public enum Mode { ASYNC, FLUSH_ON_COMMIT }
+
+    // Selecting from part skips entries whose part no longer exists instead of failing the whole batch
+    private static final String INSERT_SQL =
+            "INSERT INTO inventory_transaction (part_id, transaction_type, quantity_changed, previous_stock, new_stock, " +
+            "previous_reserved, new_reserved, related_ticket_id, related_quotation_id, performed_by, reason, notes, " +
+            "transaction_timestamp, workflow_context) " +
+            "SELECT p.part_id, ?, ?, COALESCE(?, p.current_stock), COALESCE(?, p.current_stock), " +
+            "COALESCE(?, p.reserved_quantity), COALESCE(?, p.reserved_quantity), ?, ?, ?, ?, ?, ?, ? " +
+            "FROM part p WHERE p.part_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.journal.mode:ASYNC}")
+    private Mode mode;
+
+    @Value("${inventory.journal.capacity:10000}")
+    private int capacity;
+
+    @Value("${inventory.journal.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.journal.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private BlockingQueue<JournalEntry> buffer;
+    private ScheduledExecutorService writer;
+    private Counter droppedCounter;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Timer flushTimer;
+
+    @Autowired
+    public InventoryJournalService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void startWriter() {
+        buffer = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("inventory.journal.queue.depth", buffer, BlockingQueue::size)
+                .description("Inventory journal entries waiting to be written")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("inventory.journal.dropped")
+                .description("Inventory journal entries dropped because the buffer was full")
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("inventory.journal.written").register(meterRegistry);
+        failedCounter = Counter.builder("inventory.journal.failed").register(meterRegistry);
+        flushTimer = Timer.builder("inventory.journal.flush")
+                .description("Time taken to write one batch of inventory journal entries")
+                .register(meterRegistry);
+
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "inventory-journal-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        writer.scheduleWithFixedDelay(this::drain, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Inventory journal started in {} mode with capacity {}", mode, capacity);
+    }
+
+    @PreDestroy
+    public void stopWriter() {
+        try {
+            writer.shutdown();
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Inventory journal writer did not terminate gracefully, forcing shutdown");
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // Whatever is still buffered is written on the way out
+        drain();
+        logger.info("Inventory journal stopped");
+    }
+
+    /**
+     * Records an inventory transaction. Write failures are logged and counted; in FLUSH_ON_COMMIT mode
+     * a failed write inside a transaction also fails its commit.
+     */
+    public void record(JournalEntry entry) {
+        if (entry.getPartId() == null) {
+            // part_id is mandatory in inventory_transaction, so part-less workflow events are only logged
+            logger.debug("Inventory event without part not journaled: {} {}", entry.getTransactionType(), entry.getNotes());
+            return;
+        }
+        if (entry.getTimestamp() == null) {
+            entry.setTimestamp(LocalDateTime.now());
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (mode == Mode.FLUSH_ON_COMMIT) {
+                write(List.of(entry));
+            } else {
+                enqueue(entry);
+            }
+            return;
+        }
+
+        if (mode == Mode.FLUSH_ON_COMMIT) {
+            pendingForTransaction().add(entry);
+        } else {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        }
+    }
+
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    // ================ Helper Methods ================
+
+    /**
+     * Returns the entries collected for the current transaction, registering the before-commit flush on first use.
+     */
+    @SuppressWarnings("unchecked")
+    private List<JournalEntry> pendingForTransaction() {
+        List<JournalEntry> pending = (List<JournalEntry>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<JournalEntry> entries = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, entries);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(entries);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventoryJournalService.this);
+                }
+            });
+            pending = entries;
+        }
+        return pending;
+    }
+
+    private void enqueue(JournalEntry entry) {
+        if (!buffer.offer(entry)) {
+            droppedCounter.increment();
+            logger.warn("Inventory journal buffer full, dropped {} entry for part {}",
+                    entry.getTransactionType(), entry.getPartId());
+        }
+    }
+
+    private void drain() {
+        List<JournalEntry> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, entries, batchSize, (ps, entry) -> {
+                ps.setString(1, entry.getTransactionType());
+                setInteger(ps, 2, entry.getQuantityChanged());
+                setInteger(ps, 3, entry.getPreviousStock());
+                setInteger(ps, 4, entry.getNewStock());
+                setInteger(ps, 5, entry.getPreviousReserved());
+                setInteger(ps, 6, entry.getNewReserved());
+                ps.setString(7, entry.getRelatedTicketId());
+                ps.setString(8, entry.getRelatedQuotationId());
+                ps.setString(9, entry.getPerformedBy());
+                ps.setString(10, entry.getReason());
+                ps.setString(11, entry.getNotes());
+                ps.setTimestamp(12, Timestamp.valueOf(entry.getTimestamp()));
+                ps.setString(13, entry.getWorkflowContext());
+                ps.setLong(14, entry.getPartId());
+            });
+            writtenCounter.increment(entries.size());
+        } catch (Exception e) {
+            failedCounter.increment(entries.size());
+            logger.error("Failed to write {} inventory journal entries: {}", entries.size(), e.getMessage(), e);
+            if (mode == Mode.FLUSH_ON_COMMIT && TransactionSynchronizationManager.isSynchronizationActive()) {
+                // In this mode the audit trail is part of the transaction
+                throw e;
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    /**
+     * One inventory_transaction row. Stock and reserved counts left null are taken from the part when written,
+     * so set them when recording if the entry must reflect the stock at that moment.
+     */
+    @Data
+    public static class JournalEntry {
+        private Long partId;
+        private String transactionType;
+        private Integer quantityChanged;
+        private Integer previousStock;
+        private Integer newStock;
+        private Integer previousReserved;
+        private Integer newReserved;
+        private String relatedTicketId;
+        private String relatedQuotationId;
+        private String performedBy;
+        private String reason;
+        private String notes;
+        private String workflowContext;
+        private LocalDateTime timestamp;
+    }
+}
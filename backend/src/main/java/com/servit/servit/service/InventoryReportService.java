@@ -0,0 +1,145 @@
+package com.servit.servit.service;
+
+import com.servit.servit.dto.part.InventoryValuationLineDTO;
+import com.servit.servit.dto.part.InventoryValuationReportDTO;
+import com.servit.servit.repository.PartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Computes inventory valuation (unit cost x units), aging buckets and per-supplier / per-type rollups
+ * in a single forward-only pass over the active parts. Only the rollups are kept in memory, so memory
+ * stays constant however many parts there are.
+ */
+@Service
+public class InventoryReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReportService.class);
+
+    // Upper bound (inclusive, in days since dateAdded) of each aging bucket; the last bucket is open-ended
+    private static final int[] AGING_BUCKET_LIMITS = {30, 90, 180, 365};
+    private static final String[] AGING_BUCKET_LABELS = {"0-30", "31-90", "91-180", "181-365", "365+"};
+    private static final String NO_SUPPLIER = "IN_HOUSE";
+
+    private final PartRepository partRepository;
+
+    @Autowired
+    public InventoryReportService(PartRepository partRepository) {
+        this.partRepository = partRepository;
+    }
+
+    /**
+     * Builds the valuation report.
+     * @return Totals, aging buckets and rollups as of now
+     */
+    @Transactional(readOnly = true)
+    public InventoryValuationReportDTO getValuationReport() {
+        return streamValuation(null);
+    }
+
+    /**
+     * Streams one valuation line per active part (in part ID order) while building the report.
+     * @param lineConsumer Receives each line as it is computed, or null to only build the report
+     * @return The report for all lines streamed
+     */
+    @Transactional(readOnly = true)
+    public InventoryValuationReportDTO streamValuation(Consumer<InventoryValuationLineDTO> lineConsumer) {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        InventoryValuationReportDTO report = new InventoryValuationReportDTO();
+        report.setGeneratedAt(now);
+        List<InventoryValuationReportDTO.RollupDTO> buckets = new ArrayList<>();
+        for (String label : AGING_BUCKET_LABELS) {
+            buckets.add(rollup(label));
+        }
+        Map<String, InventoryValuationReportDTO.RollupDTO> bySupplier = new TreeMap<>();
+        Map<String, InventoryValuationReportDTO.RollupDTO> byPartType = new TreeMap<>();
+
+        long totalParts = 0;
+        long totalUnits = 0;
+        long totalAgeDays = 0;
+        BigDecimal totalValue = BigDecimal.ZERO;
+
+        try (Stream<PartRepository.PartValuationRow> rows = partRepository.streamValuationRows()) {
+            Iterator<PartRepository.PartValuationRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                PartRepository.PartValuationRow row = iterator.next();
+                int units = row.getCurrentStock() != null ? row.getCurrentStock() : 0;
+                BigDecimal unitCost = row.getUnitCost() != null ? row.getUnitCost() : BigDecimal.ZERO;
+                BigDecimal value = unitCost.multiply(BigDecimal.valueOf(units));
+                long ageDays = row.getDateAdded() != null ? Math.max(0, ChronoUnit.DAYS.between(row.getDateAdded(), now)) : 0;
+                int bucket = agingBucket(ageDays);
+
+                add(buckets.get(bucket), units, value);
+                String supplier = row.getSupplierName() != null && !row.getSupplierName().isBlank() ? row.getSupplierName() : NO_SUPPLIER;
+                add(bySupplier.computeIfAbsent(supplier, InventoryReportService::rollup), units, value);
+                String partType = row.getPartType() != null ? row.getPartType().name() : "UNKNOWN";
+                add(byPartType.computeIfAbsent(partType, InventoryReportService::rollup), units, value);
+
+                totalParts++;
+                totalUnits += units;
+                totalAgeDays += ageDays;
+                totalValue = totalValue.add(value);
+
+                if (lineConsumer != null) {
+                    InventoryValuationLineDTO line = new InventoryValuationLineDTO();
+                    line.setPartId(row.getPartId());
+                    line.setPartNumber(row.getPartNumber());
+                    line.setName(row.getName());
+                    line.setPartType(row.getPartType());
+                    line.setSupplierName(row.getSupplierName());
+                    line.setUnitCost(unitCost);
+                    line.setUnits(units);
+                    line.setValue(value);
+                    line.setAgeDays(ageDays);
+                    line.setAgingBucket(AGING_BUCKET_LABELS[bucket]);
+                    lineConsumer.accept(line);
+                }
+            }
+        }
+
+        report.setTotalParts(totalParts);
+        report.setTotalUnits(totalUnits);
+        report.setTotalValue(totalValue);
+        report.setAverageAgeDays(totalParts > 0 ? totalAgeDays / totalParts : 0L);
+        report.setAgingBuckets(buckets);
+        report.setBySupplier(new ArrayList<>(bySupplier.values()));
+        report.setByPartType(new ArrayList<>(byPartType.values()));
+        logger.info("Valuation report over {} parts computed in {} ms", totalParts, System.currentTimeMillis() - start);
+        return report;
+    }
+
+    // ================ Helper Methods ================
+
+    private static int agingBucket(long ageDays) {
+        for (int i = 0; i < AGING_BUCKET_LIMITS.length; i++) {
+            if (ageDays <= AGING_BUCKET_LIMITS[i]) {
+                return i;
+            }
+        }
+        return AGING_BUCKET_LIMITS.length;
+    }
+
+    private static InventoryValuationReportDTO.RollupDTO rollup(String key) {
+        InventoryValuationReportDTO.RollupDTO rollup = new InventoryValuationReportDTO.RollupDTO();
+        rollup.setKey(key);
+        return rollup;
+    }
+
+    private static void add(InventoryValuationReportDTO.RollupDTO rollup, int units, BigDecimal value) {
+        rollup.setPartsCount(rollup.getPartsCount() + 1);
+        rollup.setUnits(rollup.getUnits() + units);
+        rollup.setTotalValue(rollup.getTotalValue().add(value));
+    }
+}
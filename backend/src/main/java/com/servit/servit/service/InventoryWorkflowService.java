@@ -8,6 +8,7 @@ import com.servit.servit.repository.InventoryTransactionRepository;
 import com.servit.servit.repository.PartRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -15,9 +16,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class that handles inventory workflow integrations with other system components.
@@ -27,20 +33,29 @@ import java.util.stream.Collectors;
 @Transactional
 public class InventoryWorkflowService {
 
+    private static final int DEFAULT_LEDGER_PAGE_SIZE = 50;
+    private static final int MAX_LEDGER_PAGE_SIZE = 500;
+
     private final PartRepository partRepository;
     private final InventoryTransactionRepository transactionRepository;
     private final PartService partService;
     private final AlertService alertService;
+    private final PartCompatibilityIndexService compatibilityIndex;
+    private final InventoryJournalService inventoryJournal;
 
     @Autowired
     public InventoryWorkflowService(PartRepository partRepository, 
                                    InventoryTransactionRepository transactionRepository,
                                    PartService partService,
-                                   AlertService alertService) {
+                                   AlertService alertService,
+                                   PartCompatibilityIndexService compatibilityIndex,
+                                   InventoryJournalService inventoryJournal) {
         this.partRepository = partRepository;
         this.transactionRepository = transactionRepository;
         this.partService = partService;
         this.alertService = alertService;
+        this.compatibilityIndex = compatibilityIndex;
+        this.inventoryJournal = inventoryJournal;
     }
 
     /**
@@ -160,14 +175,10 @@ public class InventoryWorkflowService {
 
         PartEntity originalPart = devicePart.get();
         
-        // Find a suitable replacement part (same model, available stock)
-        List<PartEntity> replacementCandidates = partRepository.findByIsDeletedFalse().stream()
-                .filter(p -> p.getName().equals(originalPart.getName()) &&
-                           p.getPartType() == PartEnum.STANDARD &&
-                           (p.getCurrentStock() - p.getReservedQuantity()) > 0)
-                .collect(Collectors.toList());
+        // Find and reserve a suitable replacement part (same model, available stock) in one locked claim
+        Optional<Long> replacementPartId = partService.claimReplacementPart(originalPart.getName(), repairTicketId);
 
-        if (replacementCandidates.isEmpty()) {
+        if (replacementPartId.isEmpty()) {
             // No replacement available - trigger special handling
             logTransaction(originalPart.getPartId(), "AUTO_REPLACEMENT", 0, null, repairTicketId, null,
                           getCurrentUsername(), "PART_UNAVAILABLE", "No replacement part available - flagging for special handling",
@@ -178,19 +189,7 @@ public class InventoryWorkflowService {
             throw new IllegalStateException("No replacement part available for auto-replacement");
         }
 
-        // Reserve the first available replacement
-        PartEntity replacementPart = replacementCandidates.get(0);
-        
-        ReservePartRequestDTO reserveRequest = new ReservePartRequestDTO();
-        reserveRequest.setPartId(replacementPart.getPartId());
-        reserveRequest.setQuantity(1);
-        reserveRequest.setReservedForTicketId(repairTicketId);
-        reserveRequest.setReservedBy(getCurrentUsername());
-        reserveRequest.setReason("AUTO_REPLACEMENT");
-
-        partService.reservePart(reserveRequest);
-
-        logTransaction(replacementPart.getPartId(), "RESERVE", 1, null, repairTicketId, null,
+        logTransaction(replacementPartId.get(), "RESERVE", 1, null, repairTicketId, null,
                       getCurrentUsername(), "AUTO_REPLACEMENT", "Part reserved for auto-replacement",
                       "AUTO_REPLACEMENT");
 
@@ -207,13 +206,8 @@ public class InventoryWorkflowService {
         QuotationPartSelectionDTO response = new QuotationPartSelectionDTO();
         response.setRepairTicketId(repairTicketId);
 
-        // Find parts compatible with the device
-        List<PartEntity> compatibleParts = partRepository.findByIsDeletedFalse().stream()
-                .filter(p -> (p.getName().toLowerCase().contains(deviceModel.toLowerCase()) ||
-                             p.getName().toLowerCase().contains(deviceBrand.toLowerCase()) ||
-                             p.getDescription().toLowerCase().contains(deviceModel.toLowerCase())) &&
-                           (p.getCurrentStock() - p.getReservedQuantity()) > 0)
-                .collect(Collectors.toList());
+        // Find parts compatible with the device, cheapest first
+        List<PartEntity> compatibleParts = findCompatibleParts(deviceModel, deviceBrand);
 
         if (compatibleParts.isEmpty()) {
             logTransaction(null, "QUOTATION_SEARCH", 0, null, repairTicketId, null,
@@ -223,10 +217,8 @@ public class InventoryWorkflowService {
         }
 
         // Set technician recommended part (first available, cheapest)
-        PartEntity recommendedPart = compatibleParts.stream()
-                .min((p1, p2) -> p1.getUnitCost().compareTo(p2.getUnitCost()))
-                .orElse(compatibleParts.get(0));
-        
+        PartEntity recommendedPart = compatibleParts.get(0);
+
         response.setRecommendedPart(recommendedPart.getPartId().toString());
 
         // Create alternative parts list sorted by cost
@@ -243,7 +235,6 @@ public class InventoryWorkflowService {
                     alt.setCompatibility("COMPATIBLE");
                     return alt;
                 })
-                .sorted((a1, a2) -> a1.getUnitCost().compareTo(a2.getUnitCost()))
                 .collect(Collectors.toList());
 
         // Set priority for carousel ordering
@@ -262,34 +253,46 @@ public class InventoryWorkflowService {
 
     /**
      * Handles quotation approval from use case 4.4
-     * Reserves selected parts when customer approves quotation.
+     * Reserves selected parts when customer approves quotation. The parts are reserved all or nothing;
+     * if any cannot be reserved, none are and the failures are returned.
+     * @return The reservation outcome, or null when the quotation was rejected
      */
-    public void processQuotationApproval(String repairTicketId, String quotationId, List<Long> selectedPartIds, boolean approved) {
+    public BatchReservationResultDTO processQuotationApproval(String repairTicketId, String quotationId, List<Long> selectedPartIds, boolean approved) {
         if (!approved) {
             // Release any existing reservations for this quotation
             releaseReservationsForTicket(repairTicketId, "QUOTATION_REJECTED");
-            return;
+            return null;
         }
 
         // Reserve selected parts
-        for (Long partId : selectedPartIds) {
-            ReservePartRequestDTO reserveRequest = new ReservePartRequestDTO();
-            reserveRequest.setPartId(partId);
-            reserveRequest.setQuantity(1);
-            reserveRequest.setReservedForTicketId(repairTicketId);
-            reserveRequest.setReservedBy(getCurrentUsername());
-            reserveRequest.setReason("QUOTATION_APPROVED");
-
-            partService.reservePart(reserveRequest);
+        BatchReservationResultDTO result = partService.reserveParts(selectedPartIds, repairTicketId);
+        if (!Boolean.TRUE.equals(result.getReserved())) {
+            return result;
+        }
 
-            logTransaction(partId, "RESERVE", 1, null, repairTicketId, quotationId,
-                          getCurrentUsername(), "QUOTATION_APPROVED", "Part reserved for approved quotation",
-                          "QUOTATION");
+        String currentUser = getCurrentUsername();
+        for (BatchReservationResultDTO.ReservedPartDTO reservedPart : result.getReservedParts()) {
+            InventoryJournalService.JournalEntry entry = new InventoryJournalService.JournalEntry();
+            entry.setPartId(reservedPart.getPartId());
+            entry.setTransactionType("RESERVE");
+            entry.setQuantityChanged(reservedPart.getQuantity());
+            entry.setPreviousStock(reservedPart.getCurrentStock());
+            entry.setNewStock(reservedPart.getCurrentStock());
+            entry.setPreviousReserved(reservedPart.getPreviousReserved());
+            entry.setNewReserved(reservedPart.getNewReserved());
+            entry.setRelatedTicketId(repairTicketId);
+            entry.setRelatedQuotationId(quotationId);
+            entry.setPerformedBy(currentUser);
+            entry.setReason("QUOTATION_APPROVED");
+            entry.setNotes("Part reserved for approved quotation");
+            entry.setWorkflowContext("QUOTATION");
+            inventoryJournal.record(entry);
         }
 
         // Notify technician that parts are reserved and repair can proceed
         alertService.sendTechnicianNotification(repairTicketId,
                 "Parts reserved for approved quotation. Repair can proceed.");
+        return result;
     }
 
     /**
@@ -354,6 +357,45 @@ public class InventoryWorkflowService {
         return transactionRepository.findByRelatedTicketIdOrderByTransactionTimestampDesc(ticketId);
     }
 
+    /**
+     * Gets one page of a part's transaction history, newest first.
+     * @param beforeTimestamp Timestamp of the last item of the previous page, or null for the first page
+     * @param beforeId ID of the last item of the previous page
+     */
+    @Transactional(readOnly = true)
+    public LedgerPageDTO getTransactionHistoryPage(Long partId, LocalDateTime beforeTimestamp, Long beforeId, Integer size) {
+        int pageSize = ledgerPageSize(size);
+        return toLedgerPage(transactionRepository.findPartLedgerPage(partId, beforeTimestamp, cursorId(beforeTimestamp, beforeId),
+                PageRequest.of(0, pageSize + 1)), pageSize);
+    }
+
+    /**
+     * Gets one page of a repair ticket's transaction history, newest first.
+     */
+    @Transactional(readOnly = true)
+    public LedgerPageDTO getTicketTransactionHistoryPage(String ticketId, LocalDateTime beforeTimestamp, Long beforeId, Integer size) {
+        int pageSize = ledgerPageSize(size);
+        return toLedgerPage(transactionRepository.findTicketLedgerPage(ticketId, beforeTimestamp, cursorId(beforeTimestamp, beforeId),
+                PageRequest.of(0, pageSize + 1)), pageSize);
+    }
+
+    /**
+     * Streams every transaction in [from, to) in chronological order without building a list.
+     * @return Number of transactions streamed
+     */
+    @Transactional(readOnly = true)
+    public long exportTransactions(LocalDateTime from, LocalDateTime to, Consumer<InventoryTransactionDTO> consumer) {
+        long count = 0;
+        try (Stream<InventoryTransactionRepository.LedgerRow> rows = transactionRepository.streamLedgerBetween(from, to)) {
+            Iterator<InventoryTransactionRepository.LedgerRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(toTransactionDto(iterator.next()));
+                count++;
+            }
+        }
+        return count;
+    }
+
     // ================ Private Helper Methods ================
 
     private void createSupplierReplacementReservation(String repairTicketId, PartEntity originalPart) {
@@ -372,9 +414,11 @@ public class InventoryWorkflowService {
         List<PartEntity> reservedParts = partRepository.findByReservedForTicketIdAndIsDeletedFalse(ticketId);
         
         for (PartEntity part : reservedParts) {
+            // Read before releasing: the release refreshes the part
+            Integer reservedQuantity = part.getReservedQuantity();
             try {
-                partService.releaseReservedStock(part.getPartId(), part.getReservedQuantity());
-                logTransaction(part.getPartId(), "RELEASE", part.getReservedQuantity(), null, ticketId, null,
+                partService.releaseReservedStock(part.getPartId(), reservedQuantity);
+                logTransaction(part.getPartId(), "RELEASE", reservedQuantity, null, ticketId, null,
                               getCurrentUsername(), reason, "Reservations released for ticket",
                               "WORKFLOW_CANCELLATION");
             } catch (Exception e) {
@@ -390,6 +434,87 @@ public class InventoryWorkflowService {
         return "SUP-" + supplierPartNumber + "-" + System.currentTimeMillis();
     }
 
+    /**
+     * Looks up compatible parts in the compatibility index and loads only those, keeping the index's cost order.
+     * Falls back to scanning active parts while the index is still being built.
+     */
+    private List<PartEntity> findCompatibleParts(String deviceModel, String deviceBrand) {
+        if (!compatibilityIndex.isReady()) {
+            return partRepository.findByIsDeletedFalse().stream()
+                    .filter(p -> (p.getName().toLowerCase().contains(deviceModel.toLowerCase()) ||
+                                 p.getName().toLowerCase().contains(deviceBrand.toLowerCase()) ||
+                                 p.getDescription().toLowerCase().contains(deviceModel.toLowerCase())) &&
+                               (p.getCurrentStock() - p.getReservedQuantity()) > 0)
+                    .sorted((p1, p2) -> p1.getUnitCost().compareTo(p2.getUnitCost()))
+                    .collect(Collectors.toList());
+        }
+
+        List<Long> candidateIds = compatibilityIndex.findCompatiblePartIds(deviceModel, deviceBrand);
+        if (candidateIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Stock moves with every reservation, so availability is checked against the loaded rows
+        Map<Long, PartEntity> partsById = partRepository.findAllById(candidateIds).stream()
+                .collect(Collectors.toMap(PartEntity::getPartId, p -> p));
+        List<PartEntity> compatibleParts = new ArrayList<>();
+        for (Long partId : candidateIds) {
+            PartEntity part = partsById.get(partId);
+            if (part != null && !Boolean.TRUE.equals(part.getIsDeleted()) &&
+                    (part.getCurrentStock() - part.getReservedQuantity()) > 0) {
+                compatibleParts.add(part);
+            }
+        }
+        return compatibleParts;
+    }
+
+    private int ledgerPageSize(Integer size) {
+        return size == null || size <= 0 ? DEFAULT_LEDGER_PAGE_SIZE : Math.min(size, MAX_LEDGER_PAGE_SIZE);
+    }
+
+    // Without an ID, the cursor timestamp alone bounds the page (ties at that instant are skipped)
+    private Long cursorId(LocalDateTime beforeTimestamp, Long beforeId) {
+        return beforeTimestamp != null && beforeId == null ? 0L : beforeId;
+    }
+
+    private LedgerPageDTO toLedgerPage(List<InventoryTransactionRepository.LedgerRow> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<InventoryTransactionDTO> items = rows.stream()
+                .limit(pageSize)
+                .map(this::toTransactionDto)
+                .collect(Collectors.toList());
+
+        LedgerPageDTO page = new LedgerPageDTO();
+        page.setItems(items);
+        page.setSize(items.size());
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            InventoryTransactionDTO last = items.get(items.size() - 1);
+            page.setNextCursorTimestamp(last.getTransactionTimestamp());
+            page.setNextCursorId(last.getTransactionId());
+        }
+        return page;
+    }
+
+    private InventoryTransactionDTO toTransactionDto(InventoryTransactionRepository.LedgerRow row) {
+        InventoryTransactionDTO dto = new InventoryTransactionDTO();
+        dto.setTransactionId(row.getTransactionId());
+        dto.setPartId(row.getPartId());
+        dto.setTransactionType(row.getTransactionType());
+        dto.setQuantityChanged(row.getQuantityChanged());
+        dto.setPreviousStock(row.getPreviousStock());
+        dto.setNewStock(row.getNewStock());
+        dto.setPreviousReserved(row.getPreviousReserved());
+        dto.setNewReserved(row.getNewReserved());
+        dto.setRelatedTicketId(row.getRelatedTicketId());
+        dto.setRelatedQuotationId(row.getRelatedQuotationId());
+        dto.setPerformedBy(row.getPerformedBy());
+        dto.setReason(row.getReason());
+        dto.setNotes(row.getNotes());
+        dto.setTransactionTimestamp(row.getTransactionTimestamp());
+        dto.setWorkflowContext(row.getWorkflowContext());
+        return dto;
+    }
+
     private String extractBrandFromName(String partName) {
         // Simple extraction - could be enhanced with a proper brand mapping
         String[] words = partName.split(" ");
@@ -399,34 +524,27 @@ public class InventoryWorkflowService {
     private void logTransaction(Long partId, String transactionType, Integer quantityChanged, 
                                Integer newStock, String relatedTicketId, String relatedQuotationId,
                                String performedBy, String reason, String notes, String workflowContext) {
-        try {
-            InventoryTransactionEntity transaction = new InventoryTransactionEntity();
-            
-            if (partId != null) {
-                PartEntity part = partRepository.findById(partId).orElse(null);
-                transaction.setPart(part);
-                if (part != null) {
-                    transaction.setPreviousStock(part.getCurrentStock());
-                    transaction.setNewStock(newStock != null ? newStock : part.getCurrentStock());
-                    transaction.setPreviousReserved(part.getReservedQuantity());
-                    transaction.setNewReserved(part.getReservedQuantity());
-                }
-            }
-            
-            transaction.setTransactionType(transactionType);
-            transaction.setQuantityChanged(quantityChanged);
-            transaction.setRelatedTicketId(relatedTicketId);
-            transaction.setRelatedQuotationId(relatedQuotationId);
-            transaction.setPerformedBy(performedBy);
-            transaction.setReason(reason);
-            transaction.setNotes(notes);
-            transaction.setWorkflowContext(workflowContext);
-            
-            transactionRepository.save(transaction);
-        } catch (Exception e) {
-            // Log error but don't fail the main operation
-            System.err.println("Failed to log inventory transaction: " + e.getMessage());
+        InventoryJournalService.JournalEntry entry = new InventoryJournalService.JournalEntry();
+        entry.setPartId(partId);
+        entry.setTransactionType(transactionType);
+        entry.setQuantityChanged(quantityChanged);
+        entry.setNewStock(newStock);
+        if (partId != null) {
+            // Snapshot the stock now; the journal may write the entry long after later changes
+            partRepository.findStockLevels(partId).ifPresent(levels -> {
+                entry.setPreviousStock(levels.getCurrentStock());
+                entry.setNewStock(newStock != null ? newStock : levels.getCurrentStock());
+                entry.setPreviousReserved(levels.getReservedQuantity());
+                entry.setNewReserved(levels.getReservedQuantity());
+            });
         }
+        entry.setRelatedTicketId(relatedTicketId);
+        entry.setRelatedQuotationId(relatedQuotationId);
+        entry.setPerformedBy(performedBy);
+        entry.setReason(reason);
+        entry.setNotes(notes);
+        entry.setWorkflowContext(workflowContext);
+        inventoryJournal.record(entry);
     }
 
     private String getCurrentUsername() {
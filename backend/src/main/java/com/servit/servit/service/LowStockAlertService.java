@@ -0,0 +1,179 @@
+package com.servit.servit.service;
+
+import com.servit.servit.entity.PartNumberStockTrackingEntity;
+import com.servit.servit.repository.PartNumberStockTrackingRepository;
+import com.servit.servit.repository.PartRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns available-stock changes into low stock and stock restored alerts.
+ * Stock-changing code publishes compact deltas (part number or part ID plus the change in available stock);
+ * they are queued after commit and consumed by a single background thread once per coalescing window.
+ * For each part number touched in a window the consumer reads the tracking row once and alerts only when
+ * the available stock crossed lowStockThreshold since the last alert, so repeated changes within a window
+ * and changes that stay on the same side of the threshold produce nothing.
+ */
+@Service
+public class LowStockAlertService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockAlertService.class);
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int DEFAULT_LOW_STOCK_THRESHOLD = 5;
+
+    private final PartNumberStockTrackingRepository trackingRepository;
+    private final PartRepository partRepository;
+    private final AlertService alertService;
+
+    @Value("${inventory.alert.coalesce-window-ms:10000}")
+    private long coalesceWindowMs;
+
+    private final BlockingQueue<StockDelta> events = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    // Whether the last alert sent for a part number was a low stock one; only touched by the consumer thread
+    private final Map<String, Boolean> alertedLow = new HashMap<>();
+    private ScheduledExecutorService consumer;
+
+    @Autowired
+    public LowStockAlertService(PartNumberStockTrackingRepository trackingRepository,
+                                PartRepository partRepository,
+                                AlertService alertService) {
+        this.trackingRepository = trackingRepository;
+        this.partRepository = partRepository;
+        this.alertService = alertService;
+    }
+
+    @PostConstruct
+    public void startConsumer() {
+        consumer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "low-stock-alert-consumer");
+            t.setDaemon(true);
+            return t;
+        });
+        consumer.scheduleWithFixedDelay(this::processWindow, coalesceWindowMs, coalesceWindowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopConsumer() {
+        consumer.shutdownNow();
+    }
+
+    /**
+     * Publishes a change in available stock for a part number, once the surrounding transaction commits.
+     */
+    public void publish(String partNumber, int availableDelta) {
+        if (partNumber != null && availableDelta != 0) {
+            afterCommit(new StockDelta(partNumber, null, availableDelta));
+        }
+    }
+
+    /**
+     * Publishes a change in available stock for the part number of a part, for callers that never loaded the part.
+     */
+    public void publishForPart(Long partId, int availableDelta) {
+        if (partId != null && availableDelta != 0) {
+            afterCommit(new StockDelta(null, partId, availableDelta));
+        }
+    }
+
+    // ================ Helper Methods ================
+
+    private void processWindow() {
+        try {
+            List<StockDelta> batch = new ArrayList<>();
+            events.drainTo(batch);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            Map<String, Integer> deltaByPartNumber = new HashMap<>();
+            Map<Long, Integer> deltaByPartId = new HashMap<>();
+            for (StockDelta delta : batch) {
+                if (delta.partNumber != null) {
+                    deltaByPartNumber.merge(delta.partNumber, delta.availableDelta, Integer::sum);
+                } else {
+                    deltaByPartId.merge(delta.partId, delta.availableDelta, Integer::sum);
+                }
+            }
+            if (!deltaByPartId.isEmpty()) {
+                for (PartRepository.PartIdAndNumber part : partRepository.findPartNumbersByIds(deltaByPartId.keySet())) {
+                    deltaByPartNumber.merge(part.getPartNumber(), deltaByPartId.get(part.getPartId()), Integer::sum);
+                }
+            }
+
+            for (PartNumberStockTrackingEntity tracking : trackingRepository.findByPartNumberIn(deltaByPartNumber.keySet())) {
+                evaluate(tracking, deltaByPartNumber.get(tracking.getPartNumber()));
+            }
+        } catch (Exception e) {
+            logger.error("Failed to process stock alert events: {}", e.getMessage(), e);
+        }
+    }
+
+    private void evaluate(PartNumberStockTrackingEntity tracking, int windowDelta) {
+        String partNumber = tracking.getPartNumber();
+        int threshold = tracking.getLowStockThreshold() != null ? tracking.getLowStockThreshold() : DEFAULT_LOW_STOCK_THRESHOLD;
+        int available = tracking.getCurrentAvailableStock() != null ? tracking.getCurrentAvailableStock() : 0;
+
+        boolean isLow = available <= threshold;
+        Boolean wasLow = alertedLow.get(partNumber);
+        if (wasLow == null) {
+            // First event for this part number: infer where it stood before the window from the deltas
+            wasLow = available - windowDelta <= threshold;
+        }
+        alertedLow.put(partNumber, isLow);
+
+        if (isLow && !wasLow) {
+            alertService.sendLowStockAlert(partNumber, tracking.getPartName(), available, threshold,
+                    String.format("Part Number: %s (%s). Available Stock: %d, Threshold: %d",
+                            partNumber, tracking.getPartName(), available, threshold));
+        } else if (!isLow && wasLow) {
+            alertService.sendStockRestoreNotification(partNumber, tracking.getPartName(), available, threshold,
+                    String.format("Part Number: %s (%s) is back above its threshold of %d", partNumber, tracking.getPartName(), threshold));
+        }
+    }
+
+    private void afterCommit(StockDelta delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(delta);
+                }
+            });
+        } else {
+            enqueue(delta);
+        }
+    }
+
+    private void enqueue(StockDelta delta) {
+        if (!events.offer(delta)) {
+            logger.warn("Stock alert queue full, dropped delta for part number {} / part {}", delta.partNumber, delta.partId);
+        }
+    }
+
+    private static final class StockDelta {
+        private final String partNumber;
+        private final Long partId;
+        private final int availableDelta;
+
+        private StockDelta(String partNumber, Long partId, int availableDelta) {
+            this.partNumber = partNumber;
+            this.partId = partId;
+            this.availableDelta = availableDelta;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.servit.servit.service;
+
+import com.servit.servit.dto.repairticket.RepairPhotoStatusDTO;
+import com.servit.servit.entity.RepairPhotoEntity;
+import com.servit.servit.enumeration.MediaStatusEnum;
+import com.servit.servit.repository.RepairPhotoRepository;
+import com.servit.servit.util.FileUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compresses and uploads check-in repair photos in the background.
+ * The check-in request only copies each raw upload to a local spool directory and saves the photo row as
+ * PENDING. Once the ticket commits, a worker pool compresses and uploads each photo, stores its URL and flips
+ * it to READY. Failed photos stay PENDING and are retried by a periodic sweep with a growing delay; after
+ * max-attempts they are marked FAILED and their spool file is deleted. The sweep also picks up photos left
+ * PENDING by a restart.
+ * Spool files are local, so a photo is processed by the node that received it.
+ */
+@Service
+public class MediaProcessingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaProcessingService.class);
+
+    private final RepairPhotoRepository repairPhotoRepository;
+    private final FileUtil fileUtil;
+
+    @Value("${media.spool.dir:${java.io.tmpdir}/servit-media-spool}")
+    private String spoolDir;
+
+    @Value("${media.processing.threads:4}")
+    private int threads;
+
+    @Value("${media.processing.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${media.processing.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${media.processing.retry-interval-ms:30000}")
+    private long retryIntervalMs;
+
+    private ThreadPoolExecutor workers;
+    // Photos queued or being processed on this node, so the sweep does not submit them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public MediaProcessingService(RepairPhotoRepository repairPhotoRepository, FileUtil fileUtil) {
+        this.repairPhotoRepository = repairPhotoRepository;
+        this.fileUtil = fileUtil;
+    }
+
+    @PostConstruct
+    public void startWorkers() throws IOException {
+        Files.createDirectories(Paths.get(spoolDir));
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "media-processing-" + threadNumber.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                });
+        workers.allowCoreThreadTimeOut(true);
+        logger.info("Media processing started with {} workers, spool directory {}", threads, spoolDir);
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        try {
+            workers.shutdown();
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Media processing workers did not terminate gracefully, forcing shutdown");
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Validates a raw upload and copies it to the spool directory. The spool file always gets an image
+     * extension, taken from the content type when the upload's name has none.
+     * @return The spool file path, to be stored on the PENDING photo row with the upload's content type
+     * @throws IllegalArgumentException If the photo is empty or not an image type FileUtil accepts
+     */
+    public String spool(MultipartFile photo, String ticketNumber, int index) throws IOException {
+        fileUtil.validatePhoto(photo);
+        String extension = fileUtil.getFileExtension(photo);
+        Path target = Paths.get(spoolDir, String.format("%s-%02d-%s%s", ticketNumber, index, UUID.randomUUID(), extension));
+        try (InputStream input = photo.getInputStream()) {
+            Files.copy(input, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target.toString();
+    }
+
+    /**
+     * Deletes the spool files of photos whose check-in did not go through.
+     */
+    public void discardSpooled(List<RepairPhotoEntity> photos) {
+        for (RepairPhotoEntity photo : photos) {
+            if (photo.getSpoolPath() != null) {
+                try {
+                    Files.deleteIfExists(Paths.get(photo.getSpoolPath()));
+                } catch (IOException e) {
+                    logger.warn("Failed to delete spool file {}: {}", photo.getSpoolPath(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues saved PENDING photos for processing once the surrounding transaction commits.
+     */
+    public void processAfterCommit(List<Long> photoIds) {
+        List<Long> ids = new ArrayList<>(photoIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(MediaProcessingService.this::submit);
+                }
+            });
+        } else {
+            ids.forEach(this::submit);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        sweep();
+    }
+
+    /**
+     * Submits PENDING photos whose next attempt is due: retries, and photos left over from a restart
+     * or a full queue.
+     */
+    @Scheduled(initialDelayString = "${media.processing.retry-interval-ms:30000}",
+               fixedDelayString = "${media.processing.retry-interval-ms:30000}")
+    public void sweep() {
+        try {
+            for (RepairPhotoEntity photo : repairPhotoRepository.findByPhotoStatusAndNextAttemptAtLessThanEqual(
+                    MediaStatusEnum.PENDING, LocalDateTime.now())) {
+                if (photo.getSpoolPath() != null && Files.exists(Paths.get(photo.getSpoolPath()))) {
+                    submit(photo.getRepairPhotoId());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to sweep pending repair photos: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Processing state of the check-in photos of a ticket, in photo order.
+     */
+    public List<RepairPhotoStatusDTO> getPhotoStatus(String ticketNumber) {
+        List<RepairPhotoStatusDTO> statuses = new ArrayList<>();
+        for (RepairPhotoEntity photo : repairPhotoRepository.findByRepairTicketTicketNumberOrderByPhotoIndexAsc(ticketNumber)) {
+            RepairPhotoStatusDTO dto = new RepairPhotoStatusDTO();
+            dto.setRepairPhotoId(photo.getRepairPhotoId());
+            dto.setPhotoIndex(photo.getPhotoIndex());
+            dto.setStatus(photo.getPhotoStatus() != null ? photo.getPhotoStatus() : MediaStatusEnum.READY);
+            dto.setPhotoUrl(photo.getPhotoUrl());
+            dto.setAttempts(photo.getProcessingAttempts() != null ? photo.getProcessingAttempts() : 0);
+            dto.setLastError(photo.getLastError());
+            statuses.add(dto);
+        }
+        return statuses;
+    }
+
+    // ================ Helper Methods ================
+
+    private void submit(Long photoId) {
+        if (photoId == null || !inFlight.add(photoId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    process(photoId);
+                } finally {
+                    inFlight.remove(photoId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Stays PENDING; the sweep submits it again
+            inFlight.remove(photoId);
+            logger.warn("Media processing queue full, repair photo {} left for the next sweep", photoId);
+        }
+    }
+
+    private void process(Long photoId) {
+        RepairPhotoEntity photo = repairPhotoRepository.findById(photoId).orElse(null);
+        if (photo == null || photo.getPhotoStatus() != MediaStatusEnum.PENDING || photo.getSpoolPath() == null) {
+            return;
+        }
+        Path spoolFile = Paths.get(photo.getSpoolPath());
+        String ticketNumber = photo.getRepairTicket().getTicketNumber();
+        try {
+            // S3 stores the content type given here; photos spooled before it was recorded fall back to a probe
+            String contentType = photo.getSpoolContentType() != null ? photo.getSpoolContentType() : Files.probeContentType(spoolFile);
+            MultipartFile raw = new MockMultipartFile("file", spoolFile.getFileName().toString(), contentType, Files.readAllBytes(spoolFile));
+            String photoUrl = fileUtil.saveRepairPhoto(raw, ticketNumber, photo.getPhotoIndex() != null ? photo.getPhotoIndex() : 1);
+
+            photo.setPhotoUrl(photoUrl);
+            photo.setPhotoStatus(MediaStatusEnum.READY);
+            photo.setSpoolPath(null);
+            photo.setSpoolContentType(null);
+            photo.setLastError(null);
+            photo.setNextAttemptAt(null);
+            repairPhotoRepository.save(photo);
+            Files.deleteIfExists(spoolFile);
+            logger.info("Repair photo {} of ticket {} processed", photo.getPhotoIndex(), ticketNumber);
+        } catch (Exception e) {
+            int attempts = (photo.getProcessingAttempts() != null ? photo.getProcessingAttempts() : 0) + 1;
+            photo.setProcessingAttempts(attempts);
+            photo.setLastError(e.getMessage() != null && e.getMessage().length() > 1000 ? e.getMessage().substring(0, 1000) : e.getMessage());
+            boolean failed = attempts >= maxAttempts || e instanceof IllegalArgumentException;
+            if (failed) {
+                // Invalid images will not get better with retries
+                photo.setPhotoStatus(MediaStatusEnum.FAILED);
+                photo.setSpoolPath(null);
+                photo.setSpoolContentType(null);
+                logger.error("Repair photo {} of ticket {} failed after {} attempts: {}", photo.getPhotoIndex(), ticketNumber, attempts, e.getMessage(), e);
+            } else {
+                photo.setNextAttemptAt(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(retryIntervalMs * attempts)));
+                logger.warn("Repair photo {} of ticket {} failed (attempt {}), will retry: {}", photo.getPhotoIndex(), ticketNumber, attempts, e.getMessage());
+            }
+            try {
+                repairPhotoRepository.save(photo);
+            } catch (Exception saveError) {
+                logger.error("Failed to record processing failure of repair photo {}: {}", photoId, saveError.getMessage(), saveError);
+                return;
+            }
+            if (failed) {
+                // Nothing will read the spool file again once the photo is FAILED
+                try {
+                    Files.deleteIfExists(spoolFile);
+                } catch (IOException deleteError) {
+                    logger.warn("Failed to delete spool file {}: {}", spoolFile, deleteError.getMessage());
+                }
+            }
+        }
+    }
+}
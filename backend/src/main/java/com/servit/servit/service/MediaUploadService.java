@@ -0,0 +1,130 @@
+package com.servit.servit.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compresses and uploads all photos of one request concurrently on a bounded pool, instead of one after
+ * another on the request thread. Photos keep the index of their position in the request (1-based), so file
+ * names are the same as with sequential uploads. The first failure cancels the uploads still running and
+ * is rethrown to the caller.
+ */
+@Service
+public class MediaUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaUploadService.class);
+
+    /**
+     * Saves one photo (compress + upload) and returns its stored path.
+     */
+    @FunctionalInterface
+    public interface PhotoUpload {
+        String save(MultipartFile photo, int index) throws IOException;
+    }
+
+    @Value("${media.upload.threads:8}")
+    private int threads;
+
+    @Value("${media.upload.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${media.upload.timeout-ms:60000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void startExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        // When the queue is full the request thread does the upload itself, which throttles callers
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "media-upload-" + threadNumber.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stopExecutor() {
+        try {
+            executor.shutdown();
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Media upload executor did not terminate gracefully, forcing shutdown");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Saves all photos concurrently.
+     * @param photos Photos to save; the photo at position i gets index i + 1
+     * @param upload The save function (typically one of the FileUtil.save*Photo methods)
+     * @return The stored paths, in the same order as the photos
+     * @throws IllegalArgumentException If a photo was rejected (invalid type, empty)
+     * @throws IOException If a photo could not be compressed or uploaded, or the uploads timed out
+     */
+    public List<String> saveAll(List<MultipartFile> photos, PhotoUpload upload) throws IOException {
+        if (photos == null || photos.isEmpty()) {
+            return List.of();
+        }
+
+        CompletionService<String> completion = new ExecutorCompletionService<>(executor);
+        List<Future<String>> futures = new ArrayList<>(photos.size());
+        for (int i = 0; i < photos.size(); i++) {
+            MultipartFile photo = photos.get(i);
+            int index = i + 1;
+            futures.add(completion.submit(() -> upload.save(photo, index)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            for (int done = 0; done < futures.size(); done++) {
+                Future<String> finished = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (finished == null) {
+                    throw new IOException("Timed out uploading " + photos.size() + " photos");
+                }
+                // Surfaces the first failure as soon as it happens
+                finished.get();
+            }
+
+            List<String> paths = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                paths.add(future.get());
+            }
+            return paths;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Failed to save photo: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while uploading photos", e);
+        } finally {
+            // No-op for finished uploads; stops the siblings of a failed or timed-out one
+            for (Future<String> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.servit.servit.service;
+
+import com.servit.servit.entity.PartEntity;
+import com.servit.servit.repository.PartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maps normalized brand/model tokens to the active parts that mention them
+ * (in name, description, brand or model), so quotation part lookups do not scan the part table.
+ * Each token's parts are kept sorted by unit cost, which lets lookups return candidates
+ * already in the order the quotation screen shows them.
+ * Built at startup, kept current from PartService mutations and rebuilt periodically.
+ */
+@Service
+public class PartCompatibilityIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartCompatibilityIndexService.class);
+
+    private static final Comparator<IndexedPart> BY_COST =
+            Comparator.comparing((IndexedPart part) -> part.unitCost).thenComparing(part -> part.partId);
+
+    private final PartRepository partRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, IndexedPart> documents = new HashMap<>();
+    private Map<String, NavigableSet<IndexedPart>> postings = new HashMap<>();
+    private volatile boolean ready = false;
+    // Updates committed while a rebuild reads the database, replayed onto the rebuilt maps; null outside a rebuild
+    private List<IndexedUpdate> updatesDuringRebuild;
+
+    @Autowired
+    public PartCompatibilityIndexService(PartRepository partRepository) {
+        this.partRepository = partRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the whole index from the database.
+     * Parts indexed or removed while the database is read are applied to both the current and the new maps.
+     */
+    @Scheduled(initialDelayString = "${part.search.index.rebuild-interval-ms:900000}",
+               fixedDelayString = "${part.search.index.rebuild-interval-ms:900000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            updatesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Map<Long, IndexedPart> newDocuments = new HashMap<>();
+            Map<String, NavigableSet<IndexedPart>> newPostings = new HashMap<>();
+            for (PartRepository.PartSearchFields fields : partRepository.findSearchFieldsOfActiveParts()) {
+                IndexedPart doc = new IndexedPart(fields.getPartId(), fields.getUnitCost(),
+                        fields.getName(), fields.getDescription(), fields.getBrand(), fields.getModel());
+                newDocuments.put(doc.partId, doc);
+                addPostings(newPostings, doc);
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (IndexedUpdate update : updatesDuringRebuild) {
+                    apply(newDocuments, newPostings, update.partId, update.doc);
+                }
+                documents = newDocuments;
+                postings = newPostings;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Part compatibility index built: {} parts, {} tokens in {} ms",
+                    newDocuments.size(), newPostings.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to build part compatibility index: {}", e.getMessage(), e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                updatesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces a part once the surrounding transaction commits. Deleted parts are removed instead.
+     */
+    public void indexPart(PartEntity part) {
+        if (part == null || part.getPartId() == null) {
+            return;
+        }
+        if (Boolean.TRUE.equals(part.getIsDeleted())) {
+            removePart(part.getPartId());
+            return;
+        }
+        IndexedPart doc = new IndexedPart(part.getPartId(), part.getUnitCost(),
+                part.getName(), part.getDescription(), part.getBrand(), part.getModel());
+        afterCommit(() -> update(doc.partId, doc));
+    }
+
+    /**
+     * Removes a part once the surrounding transaction commits.
+     */
+    public void removePart(Long partId) {
+        afterCommit(() -> update(partId, null));
+    }
+
+    /**
+     * Finds parts compatible with a device: those mentioning every token of the device model,
+     * or every token of the device brand. A blank model or brand matches every part,
+     * as the substring check it replaces did.
+     * @return Part IDs ordered by unit cost (cheapest first)
+     */
+    public List<Long> findCompatiblePartIds(String deviceModel, String deviceBrand) {
+        lock.readLock().lock();
+        try {
+            List<IndexedPart> byModel = match(tokenize(deviceModel));
+            List<IndexedPart> byBrand = match(tokenize(deviceBrand));
+            return mergeByCost(byModel, byBrand);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ================ Helper Methods ================
+
+    /**
+     * Replaces (or, with a null document, removes) a part in the live index, and records the change
+     * for the rebuild in progress if there is one.
+     */
+    private void update(Long partId, IndexedPart doc) {
+        lock.writeLock().lock();
+        try {
+            apply(documents, postings, partId, doc);
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(new IndexedUpdate(partId, doc));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Map<Long, IndexedPart> documents, Map<String, NavigableSet<IndexedPart>> postings,
+                              Long partId, IndexedPart doc) {
+        IndexedPart previous = doc != null ? documents.put(partId, doc) : documents.remove(partId);
+        if (previous != null) {
+            removePostings(postings, previous);
+        }
+        if (doc != null) {
+            addPostings(postings, doc);
+        }
+    }
+
+    /**
+     * Intersects the postings of all tokens, walking the smallest one in cost order.
+     * Must be called under the read lock.
+     */
+    private List<IndexedPart> match(Set<String> tokens) {
+        if (tokens.isEmpty()) {
+            List<IndexedPart> all = new ArrayList<>(documents.values());
+            all.sort(BY_COST);
+            return all;
+        }
+
+        List<NavigableSet<IndexedPart>> lists = new ArrayList<>();
+        for (String token : tokens) {
+            NavigableSet<IndexedPart> parts = postings.get(token);
+            if (parts == null) {
+                return List.of();
+            }
+            lists.add(parts);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<IndexedPart> result = new ArrayList<>();
+        for (IndexedPart part : lists.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(part);
+            }
+            if (inAll) {
+                result.add(part);
+            }
+        }
+        return result;
+    }
+
+    private static List<Long> mergeByCost(List<IndexedPart> first, List<IndexedPart> second) {
+        List<Long> merged = new ArrayList<>(first.size() + second.size());
+        Set<Long> seen = new HashSet<>();
+        int i = 0;
+        int j = 0;
+        while (i < first.size() || j < second.size()) {
+            IndexedPart next;
+            if (j >= second.size() || (i < first.size() && BY_COST.compare(first.get(i), second.get(j)) <= 0)) {
+                next = first.get(i++);
+            } else {
+                next = second.get(j++);
+            }
+            if (seen.add(next.partId)) {
+                merged.add(next.partId);
+            }
+        }
+        return merged;
+    }
+
+    private static void addPostings(Map<String, NavigableSet<IndexedPart>> postings, IndexedPart doc) {
+        for (String token : doc.tokens) {
+            postings.computeIfAbsent(token, k -> new TreeSet<>(BY_COST)).add(doc);
+        }
+    }
+
+    private static void removePostings(Map<String, NavigableSet<IndexedPart>> postings, IndexedPart doc) {
+        for (String token : doc.tokens) {
+            NavigableSet<IndexedPart> parts = postings.get(token);
+            if (parts != null) {
+                parts.remove(doc);
+                if (parts.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    private static Set<String> tokenize(String... values) {
+        Set<String> tokens = new HashSet<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            for (String token : value.toLowerCase(Locale.ROOT).split("[^\\p{Alnum}]+")) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class IndexedUpdate {
+        private final Long partId;
+        // null for a removal
+        private final IndexedPart doc;
+
+        private IndexedUpdate(Long partId, IndexedPart doc) {
+            this.partId = partId;
+            this.doc = doc;
+        }
+    }
+
+    private static final class IndexedPart {
+        private final Long partId;
+        private final BigDecimal unitCost;
+        private final Set<String> tokens;
+
+        private IndexedPart(Long partId, BigDecimal unitCost, String name, String description, String brand, String model) {
+            this.partId = partId;
+            this.unitCost = unitCost != null ? unitCost : BigDecimal.ZERO;
+            this.tokens = tokenize(name, description, brand, model);
+        }
+    }
+}
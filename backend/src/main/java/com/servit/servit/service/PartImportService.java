@@ -0,0 +1,557 @@
+package com.servit.servit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servit.servit.dto.part.PartImportLineDTO;
+import com.servit.servit.dto.part.PartImportResultDTO;
+import com.servit.servit.entity.UserEntity;
+import com.servit.servit.enumeration.PartEnum;
+import com.servit.servit.repository.PartRepository;
+import com.servit.servit.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Imports supplier manifests (CSV with a header row, or NDJSON) spanning any number of part numbers.
+ * The upload is read as a stream and handled in chunks: each chunk is validated (required fields,
+ * duplicate serials within the chunk, serials already stored) and inserted with one JDBC batch in its own
+ * transaction. Serials from earlier chunks are already stored, so the database check also catches
+ * duplicates across chunks. Only the current chunk, the per-part-number counters and a capped error
+ * list are held in memory, whatever the file size. Stock tracking is recomputed once per affected part
+ * number when the whole file has been read.
+ */
+@Service
+public class PartImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    // Guards against an unterminated quote swallowing the rest of the file into one CSV field
+    private static final int MAX_CSV_RECORD_LENGTH = 64 * 1024;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO part (part_id, part_number, serial_number, name, description, unit_cost, part_type, brand, model, " +
+            "supplier_name, supplier_part_number, part_photo_url, added_by, date_added, current_stock, is_deleted, " +
+            "is_customer_purchased, quotation_part, is_reserved, reserved_quantity, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1, FALSE, FALSE, 0, FALSE, 0, 0)";
+
+    private final PartRepository partRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final PartNumberStockTrackingService stockTrackingService;
+    private final LowStockAlertService lowStockAlertService;
+    private final SerialNumberRegistryService serialNumberRegistry;
+    private final PartSearchIndexService searchIndexService;
+    private final PartCompatibilityIndexService compatibilityIndex;
+    private final IdGeneratorService idGenerator;
+
+    @Autowired
+    public PartImportService(PartRepository partRepository,
+                             UserRepository userRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             PartNumberStockTrackingService stockTrackingService,
+                             LowStockAlertService lowStockAlertService,
+                             SerialNumberRegistryService serialNumberRegistry,
+                             PartSearchIndexService searchIndexService,
+                             PartCompatibilityIndexService compatibilityIndex,
+                             IdGeneratorService idGenerator) {
+        this.partRepository = partRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.stockTrackingService = stockTrackingService;
+        this.lowStockAlertService = lowStockAlertService;
+        this.serialNumberRegistry = serialNumberRegistry;
+        this.searchIndexService = searchIndexService;
+        this.compatibilityIndex = compatibilityIndex;
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Imports parts from a CSV or NDJSON stream. Lines that fail validation or insertion are reported
+     * and skipped; every other line is imported. Only ADMIN and TECHNICIAN roles can import parts.
+     * Chunks commit as they go, so if the file cannot be read to the end (malformed record, broken upload)
+     * the lines imported so far stay imported, are reconciled as usual, and the result reports the error.
+     * CSV columns (header names are matched ignoring case, spaces and underscores): partNumber, serialNumber,
+     * name, description, unitCost, partType, brand, model, supplierName, supplierPartNumber.
+     * @param input The uploaded file
+     * @param format CSV or NDJSON
+     * @return Line counts, the per-line errors (capped at MAX_REPORTED_ERRORS) and any error that stopped the import
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+    public PartImportResultDTO importParts(InputStream input, Format format) {
+        long start = System.currentTimeMillis();
+        ImportRun run = new ImportRun(getCurrentUserEmail(), LocalDateTime.now());
+
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            LineSource source = format == Format.NDJSON ? new NdjsonLineSource(reader, objectMapper) : new CsvLineSource(reader);
+
+            List<ImportLine> chunk = new ArrayList<>(CHUNK_SIZE);
+            ImportLine line;
+            while ((line = source.next()) != null) {
+                run.result.setTotalLines(run.result.getTotalLines() + 1);
+                chunk.add(line);
+                if (chunk.size() == CHUNK_SIZE) {
+                    processChunk(chunk, run);
+                    chunk.clear();
+                }
+            }
+            processChunk(chunk, run);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Part import stopped after {} lines: {}", run.result.getTotalLines(), e.getMessage());
+            run.result.setFatalError(e.getMessage());
+        } finally {
+            // Runs for the chunks already committed even when the import stops early
+            reconcile(run);
+        }
+
+        logger.info("Part import finished in {} ms: {} lines, {} imported, {} failed, {} part numbers",
+                System.currentTimeMillis() - start, run.result.getTotalLines(), run.result.getImported(),
+                run.result.getFailed(), run.importedByPartNumber.size());
+        return run.result;
+    }
+
+    // ================ Helper Methods ================
+
+    /**
+     * Brings stock counters, alerts and the in-memory indexes up to date once for the whole file.
+     */
+    private void reconcile(ImportRun run) {
+        for (Map.Entry<String, Integer> entry : run.importedByPartNumber.entrySet()) {
+            stockTrackingService.updateStockTracking(entry.getKey());
+            lowStockAlertService.publish(entry.getKey(), entry.getValue());
+        }
+        if (run.result.getImported() > 0) {
+            searchIndexService.rebuild();
+            compatibilityIndex.rebuild();
+        }
+        run.result.setPartNumbersAffected(run.importedByPartNumber.size());
+    }
+
+    private void processChunk(List<ImportLine> chunk, ImportRun run) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<ImportLine> valid = new ArrayList<>(chunk.size());
+        Set<String> serialsInChunk = new HashSet<>();
+        for (ImportLine line : chunk) {
+            if (line.error == null) {
+                validate(line, run);
+            }
+            if (line.error == null && !serialsInChunk.add(normalizeSerial(line.part.getSerialNumber()))) {
+                line.error = "Duplicate serial number in file";
+            }
+            if (line.error != null) {
+                reportError(run, line);
+            } else {
+                valid.add(line);
+            }
+        }
+
+        List<String> serials = valid.stream().map(line -> line.part.getSerialNumber()).toList();
+        Set<String> existing = new HashSet<>();
+        for (String serial : serialNumberRegistry.findExisting(serials)) {
+            existing.add(normalizeSerial(serial));
+        }
+
+        List<ImportLine> toInsert = new ArrayList<>(valid.size());
+        for (ImportLine line : valid) {
+            if (existing.contains(normalizeSerial(line.part.getSerialNumber()))) {
+                line.error = "Serial number already exists";
+                reportError(run, line);
+            } else {
+                toInsert.add(line);
+            }
+        }
+
+        List<ImportLine> inserted = insert(toInsert, run);
+        for (ImportLine line : inserted) {
+            run.importedByPartNumber.merge(line.part.getPartNumber(), 1, Integer::sum);
+        }
+        run.result.setImported(run.result.getImported() + inserted.size());
+        serialNumberRegistry.register(inserted.stream().map(line -> line.part.getSerialNumber()).toList());
+    }
+
+    /**
+     * Inserts the chunk in one batch. If the batch fails (typically a serial added concurrently),
+     * it is rolled back and the lines are inserted one by one so each failure is reported against its line.
+     * @return The lines that were inserted
+     */
+    private List<ImportLine> insert(List<ImportLine> lines, ImportRun run) {
+        if (lines.isEmpty()) {
+            return lines;
+        }
+        // Ids come from the same block allocator Hibernate uses for parts
+        long firstId = idGenerator.allocateBlock(IdGeneratorService.PART, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            lines.get(i).partId = firstId + i;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, lines, lines.size(), (ps, line) -> bind(ps, line, run)));
+            return lines;
+        } catch (DataAccessException e) {
+            logger.warn("Batch insert of {} imported parts failed, retrying line by line: {}", lines.size(), e.getMessage());
+        }
+
+        List<ImportLine> inserted = new ArrayList<>(lines.size());
+        for (ImportLine line : lines) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, line, run));
+                inserted.add(line);
+            } catch (DataAccessException e) {
+                line.error = "Insert failed: " + e.getMostSpecificCause().getMessage();
+                reportError(run, line);
+            }
+        }
+        return inserted;
+    }
+
+    private void bind(PreparedStatement ps, ImportLine line, ImportRun run) throws SQLException {
+        PartImportLineDTO part = line.part;
+        PartTemplate template = run.templates.get(part.getPartNumber()).orElse(null);
+        ps.setLong(1, line.partId);
+        ps.setString(2, part.getPartNumber());
+        ps.setString(3, part.getSerialNumber());
+        ps.setString(4, part.getName());
+        ps.setString(5, part.getDescription());
+        ps.setBigDecimal(6, part.getUnitCost());
+        ps.setString(7, part.getPartType().name());
+        ps.setString(8, part.getBrand());
+        ps.setString(9, part.getModel());
+        ps.setString(10, part.getSupplierName());
+        ps.setString(11, part.getSupplierPartNumber());
+        ps.setString(12, template != null ? template.photoUrl : null);
+        ps.setString(13, run.currentUser);
+        ps.setTimestamp(14, Timestamp.valueOf(run.now));
+    }
+
+    /**
+     * Checks required fields, filling missing details from an existing part with the same part number.
+     * Sets line.error when the line cannot be imported.
+     */
+    private void validate(ImportLine line, ImportRun run) {
+        PartImportLineDTO part = line.part;
+        part.setPartNumber(trimToNull(part.getPartNumber()));
+        part.setSerialNumber(trimToNull(part.getSerialNumber()));
+        if (part.getPartNumber() == null) {
+            line.error = "Part number is required";
+            return;
+        }
+        if (part.getSerialNumber() == null) {
+            line.error = "Serial number is required";
+            return;
+        }
+
+        PartTemplate template = run.templates.computeIfAbsent(part.getPartNumber(), this::loadTemplate).orElse(null);
+        if (template != null) {
+            if (trimToNull(part.getName()) == null) part.setName(template.name);
+            if (trimToNull(part.getDescription()) == null) part.setDescription(template.description);
+            if (part.getUnitCost() == null) part.setUnitCost(template.unitCost);
+            if (part.getPartType() == null) part.setPartType(template.partType);
+            if (trimToNull(part.getBrand()) == null) part.setBrand(template.brand);
+            if (trimToNull(part.getModel()) == null) part.setModel(template.model);
+        }
+
+        if (trimToNull(part.getName()) == null) {
+            line.error = "Name is required for a new part number";
+        } else if (part.getUnitCost() == null) {
+            line.error = "Unit cost is required for a new part number";
+        } else if (part.getUnitCost().signum() < 0) {
+            line.error = "Unit cost must not be negative";
+        } else if (part.getPartType() == null) {
+            part.setPartType(PartEnum.STANDARD);
+        }
+    }
+
+    private Optional<PartTemplate> loadTemplate(String partNumber) {
+        return partRepository.findFirstByPartNumberAndIsDeletedFalseOrderByPartIdAsc(partNumber).map(existing -> {
+            PartTemplate template = new PartTemplate();
+            template.name = existing.getName();
+            template.description = existing.getDescription();
+            template.unitCost = existing.getUnitCost();
+            template.partType = existing.getPartType();
+            template.brand = existing.getBrand();
+            template.model = existing.getModel();
+            List<String> photoUrls = partRepository.findSharedPhotoUrls(partNumber, PageRequest.of(0, 1));
+            template.photoUrl = photoUrls.isEmpty() ? null : photoUrls.get(0);
+            return template;
+        });
+    }
+
+    private static void reportError(ImportRun run, ImportLine line) {
+        run.result.setFailed(run.result.getFailed() + 1);
+        if (run.result.getErrors().size() >= MAX_REPORTED_ERRORS) {
+            run.result.setErrorsTruncated(true);
+            return;
+        }
+        PartImportResultDTO.LineErrorDTO error = new PartImportResultDTO.LineErrorDTO();
+        error.setLine(line.lineNumber);
+        error.setSerialNumber(line.part != null ? line.part.getSerialNumber() : null);
+        error.setReason(line.error);
+        run.result.getErrors().add(error);
+    }
+
+    // The serial column uses a case-insensitive collation
+    private static String normalizeSerial(String serial) {
+        return serial.toLowerCase(Locale.ROOT);
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private String getCurrentUserEmail() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return "system";
+        }
+        String username = authentication.getName();
+        try {
+            return userRepository.findByUsername(username).map(UserEntity::getEmail).orElse(username);
+        } catch (Exception e) {
+            return username;
+        }
+    }
+
+    /**
+     * State of one import: the result being built, the part count imported per part number and
+     * the details of existing part numbers (both bounded by the number of distinct part numbers).
+     */
+    private static final class ImportRun {
+        private final String currentUser;
+        private final LocalDateTime now;
+        private final PartImportResultDTO result = new PartImportResultDTO();
+        private final Map<String, Integer> importedByPartNumber = new LinkedHashMap<>();
+        private final Map<String, Optional<PartTemplate>> templates = new HashMap<>();
+
+        private ImportRun(String currentUser, LocalDateTime now) {
+            this.currentUser = currentUser;
+            this.now = now;
+        }
+    }
+
+    private static final class PartTemplate {
+        private String name;
+        private String description;
+        private BigDecimal unitCost;
+        private PartEnum partType;
+        private String brand;
+        private String model;
+        private String photoUrl;
+    }
+
+    private static final class ImportLine {
+        private final long lineNumber;
+        private final PartImportLineDTO part;
+        private String error;
+        private long partId;
+
+        private ImportLine(long lineNumber, PartImportLineDTO part, String error) {
+            this.lineNumber = lineNumber;
+            this.part = part;
+            this.error = error;
+        }
+    }
+
+    private interface LineSource {
+        /**
+         * @return The next non-blank line, or null at the end of the input
+         */
+        ImportLine next() throws IOException;
+    }
+
+    private static final class NdjsonLineSource implements LineSource {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long lineNumber = 0;
+
+        private NdjsonLineSource(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public ImportLine next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ImportLine(lineNumber, objectMapper.readValue(text, PartImportLineDTO.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ImportLine(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * RFC 4180 style CSV: comma separated, fields optionally quoted with "" as an escaped quote,
+     * quoted fields may span lines. Line numbers refer to the line a record starts on.
+     */
+    private static final class CsvLineSource implements LineSource {
+        private final BufferedReader reader;
+        private final Map<Integer, String> columns = new HashMap<>();
+        private long lineNumber = 1;
+
+        private CsvLineSource(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i).replaceAll("[\\s_]", "").toLowerCase(Locale.ROOT);
+                if (i == 0 && column.startsWith("\uFEFF")) {
+                    column = column.substring(1);
+                }
+                columns.put(i, column);
+            }
+            if (!columns.containsValue("partnumber") || !columns.containsValue("serialnumber")) {
+                throw new IllegalArgumentException("CSV header must contain partNumber and serialNumber columns");
+            }
+        }
+
+        @Override
+        public ImportLine next() throws IOException {
+            while (true) {
+                long start = lineNumber;
+                List<String> fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                PartImportLineDTO part = new PartImportLineDTO();
+                try {
+                    for (int i = 0; i < fields.size(); i++) {
+                        set(part, columns.get(i), fields.get(i).trim());
+                    }
+                    return new ImportLine(start, part, null);
+                } catch (IllegalArgumentException e) {
+                    return new ImportLine(start, part, e.getMessage());
+                }
+            }
+        }
+
+        private static void set(PartImportLineDTO part, String column, String value) {
+            if (column == null || value.isEmpty()) {
+                return;
+            }
+            switch (column) {
+                case "partnumber" -> part.setPartNumber(value);
+                case "serialnumber" -> part.setSerialNumber(value);
+                case "name" -> part.setName(value);
+                case "description" -> part.setDescription(value);
+                case "unitcost" -> {
+                    try {
+                        part.setUnitCost(new BigDecimal(value));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid unit cost: " + value);
+                    }
+                }
+                case "parttype" -> {
+                    try {
+                        part.setPartType(PartEnum.valueOf(value.toUpperCase(Locale.ROOT)));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Invalid part type: " + value);
+                    }
+                }
+                case "brand" -> part.setBrand(value);
+                case "model" -> part.setModel(value);
+                case "suppliername" -> part.setSupplierName(value);
+                case "supplierpartnumber" -> part.setSupplierPartNumber(value);
+                default -> { } // Unknown columns are ignored
+            }
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int length = 0;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1) {
+                if (++length > MAX_CSV_RECORD_LENGTH) {
+                    throw new IllegalArgumentException("CSV record starting on line " + lineNumber + " is too long (unterminated quote?)");
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    lineNumber++;
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -1,22 +1,35 @@
 package com.servit.servit.service;
 
 import com.servit.servit.dto.part.PartNumberStockSummaryDTO;
+import com.servit.servit.dto.part.StockTrackingRefreshResultDTO;
 import com.servit.servit.dto.part.UpdatePartNumberStockTrackingDTO;
 import com.servit.servit.entity.PartEntity;
 import com.servit.servit.entity.PartNumberStockTrackingEntity;
 import com.servit.servit.repository.PartNumberStockTrackingRepository;
 import com.servit.servit.repository.PartRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -24,15 +37,46 @@ public class PartNumberStockTrackingService {
     
     private static final Logger logger = LoggerFactory.getLogger(PartNumberStockTrackingService.class);
     
+    private static final int REFRESH_BATCH_SIZE = 500;
+    private static final int DEFAULT_LOW_STOCK_THRESHOLD = 5;
+    private static final String DEFAULT_PRIORITY_LEVEL = "NORMAL";
+
+    // Transaction resource holding the part numbers whose counters were changed by a delta UPDATE
+    private static final Object CHANGED_PART_NUMBERS_KEY = new Object();
+    // Marks a delta keyed by part ID, whose part number is only known to the database
+    private static final String ANY_PART_NUMBER = "*";
+
+    // Settings columns (threshold, priority, notes) are only written for new rows
+    private static final String UPSERT_TRACKING_SQL =
+            "INSERT INTO part_number_stock_tracking (part_number, part_name, low_stock_threshold, " +
+            "current_total_stock, current_available_stock, total_parts_count, priority_level, " +
+            "created_at, updated_at, last_stock_update) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE current_total_stock = VALUES(current_total_stock), " +
+            "current_available_stock = VALUES(current_available_stock), " +
+            "total_parts_count = VALUES(total_parts_count), " +
+            "updated_at = VALUES(updated_at), last_stock_update = VALUES(last_stock_update)";
+    
     private final PartNumberStockTrackingRepository trackingRepository;
     private final PartRepository partRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PartSearchIndexService searchIndexService;
+    private final LowStockAlertService lowStockAlertService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
     public PartNumberStockTrackingService(
             PartNumberStockTrackingRepository trackingRepository,
-            PartRepository partRepository) {
+            PartRepository partRepository,
+            JdbcTemplate jdbcTemplate,
+            PartSearchIndexService searchIndexService,
+            LowStockAlertService lowStockAlertService) {
         this.trackingRepository = trackingRepository;
         this.partRepository = partRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.searchIndexService = searchIndexService;
+        this.lowStockAlertService = lowStockAlertService;
     }
     
     /**
@@ -43,6 +87,9 @@ public class PartNumberStockTrackingService {
      * - Each part with unique serial number = 1 physical item
      * - Total Stock = count of non-deleted parts (not sum of currentStock fields)
      * - This ensures consistent counting when adding single/bulk items
+     * 
+     * Day-to-day part operations go through applyStockDelta; this full recompute is the
+     * reconcile path (refreshTracking endpoints, or when no tracking row exists yet).
      */
     public PartNumberStockTrackingEntity updateStockTracking(String partNumber) {
         // Get all non-deleted parts with this part number
@@ -106,6 +153,54 @@ public class PartNumberStockTrackingService {
         return trackingRepository.save(tracking);
     }
     
+    /**
+     * Applies incremental changes to the stock counters of a part number with a single UPDATE,
+     * instead of reloading every part with that number.
+     * Falls back to a full recompute when the part number has no tracking row yet.
+     * @param partNumber The part number whose counters change
+     * @param partsDelta Change in the number of active parts (+n on add, -1 on delete)
+     * @param reservedDelta Change in reserved quantity (+q on reserve, -q on release/confirm)
+     */
+    public void applyStockDelta(String partNumber, int partsDelta, int reservedDelta) {
+        if (partNumber == null || (partsDelta == 0 && reservedDelta == 0)) {
+            return;
+        }
+
+        int updated = trackingRepository.applyStockDelta(partNumber, partsDelta, partsDelta - reservedDelta, LocalDateTime.now());
+        if (updated == 0) {
+            logger.info("No stock tracking row for part number {} - running full recompute", partNumber);
+            updateStockTracking(partNumber);
+        } else {
+            logger.debug("Applied stock delta to part number {}: parts {}, reserved {}", partNumber, partsDelta, reservedDelta);
+            markChanged(partNumber);
+        }
+        lowStockAlertService.publish(partNumber, partsDelta - reservedDelta);
+    }
+    
+    /**
+     * Variant of applyStockDelta keyed by part ID, for callers that changed a part with a conditional
+     * UPDATE and never loaded it. The part number is resolved inside the UPDATE statement.
+     * @param partId The part whose part number counters change
+     * @param partsDelta Change in the number of active parts
+     * @param reservedDelta Change in reserved quantity
+     */
+    public void applyStockDeltaForPart(Long partId, int partsDelta, int reservedDelta) {
+        if (partsDelta == 0 && reservedDelta == 0) {
+            return;
+        }
+
+        int updated = trackingRepository.applyStockDeltaForPart(partId, partsDelta, partsDelta - reservedDelta, LocalDateTime.now());
+        if (updated == 0) {
+            partRepository.findById(partId).ifPresent(part -> {
+                logger.info("No stock tracking row for part number {} - running full recompute", part.getPartNumber());
+                updateStockTracking(part.getPartNumber());
+            });
+        } else {
+            markChanged(ANY_PART_NUMBER);
+        }
+        lowStockAlertService.publishForPart(partId, partsDelta - reservedDelta);
+    }
+    
     /**
      * Updates stock tracking settings for a part number
      */
@@ -114,7 +209,8 @@ public class PartNumberStockTrackingService {
         
         PartNumberStockTrackingEntity tracking;
         if (existingOpt.isPresent()) {
-            tracking = existingOpt.get();
+            // Saving writes every column, so counters changed by a delta earlier in this transaction must be current
+            tracking = refreshIfChanged(existingOpt.get());
         } else {
             // Create new tracking if doesn't exist
             tracking = new PartNumberStockTrackingEntity();
@@ -137,9 +233,7 @@ public class PartNumberStockTrackingService {
      */
     public List<PartNumberStockSummaryDTO> getLowStockPartNumbers() {
         List<PartNumberStockTrackingEntity> lowStockItems = trackingRepository.findLowStockPartNumbers();
-        return lowStockItems.stream()
-                .map(this::convertToSummaryDTO)
-                .toList();
+        return convertToSummaryDTOs(lowStockItems, false);
     }
     
     /**
@@ -149,11 +243,11 @@ public class PartNumberStockTrackingService {
         Optional<PartNumberStockTrackingEntity> trackingOpt = trackingRepository.findByPartNumber(partNumber);
         
         if (trackingOpt.isPresent()) {
-            return convertToSummaryDTO(trackingOpt.get());
+            return convertToSummaryDTOs(List.of(trackingOpt.get()), false).get(0);
         } else {
             // Create tracking if doesn't exist
             PartNumberStockTrackingEntity tracking = updateStockTracking(partNumber);
-            return tracking != null ? convertToSummaryDTO(tracking) : null;
+            return tracking != null ? convertToSummaryDTOs(List.of(tracking), false).get(0) : null;
         }
     }
     
@@ -162,61 +256,141 @@ public class PartNumberStockTrackingService {
      */
     public List<PartNumberStockSummaryDTO> getPartNumbersNeedingReorder() {
         List<PartNumberStockTrackingEntity> needingReorder = trackingRepository.findPartNumbersNeedingReorder();
-        return needingReorder.stream()
-                .map(this::convertToSummaryDTO)
-                .toList();
+        return convertToSummaryDTOs(needingReorder, false);
     }
 
     /**
      * Returns a map of all stock summaries keyed by part number without triggering updates.
      * Used for bulk read scenarios to avoid N+1 lookups during list endpoints.
+     * Costs three queries regardless of how many part numbers exist: the tracking rows,
+     * the grouped stock sums and the grouped distinct suppliers.
      */
+    @Transactional(readOnly = true)
     public Map<String, PartNumberStockSummaryDTO> getAllStockSummariesMap() {
-        return trackingRepository.findAll().stream()
-                .collect(Collectors.toMap(PartNumberStockTrackingEntity::getPartNumber, this::convertToSummaryDTO));
+        Map<String, PartNumberStockSummaryDTO> summaries = new LinkedHashMap<>();
+        for (PartNumberStockSummaryDTO dto : convertToSummaryDTOs(trackingRepository.findAll(), true)) {
+            summaries.put(dto.getPartNumber(), dto);
+        }
+        return summaries;
+    }
+    
+    /**
+     * Returns stock summaries for the given part numbers only, keyed by part number.
+     * Used by paged list endpoints so a page does not load every part number's summary.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, PartNumberStockSummaryDTO> getStockSummariesMap(Collection<String> partNumbers) {
+        if (partNumbers.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, PartNumberStockSummaryDTO> summaries = new HashMap<>();
+        for (PartNumberStockSummaryDTO dto : convertToSummaryDTOs(trackingRepository.findByPartNumberIn(partNumbers), false)) {
+            summaries.put(dto.getPartNumber(), dto);
+        }
+        return summaries;
     }
     
     /**
      * Searches part numbers by name or part number
+     * Uses the in-memory part search index (ranked) once it is built; falls back to the LIKE query before that.
      */
     public List<PartNumberStockSummaryDTO> searchPartNumbers(String searchTerm) {
-        List<PartNumberStockTrackingEntity> results = trackingRepository.searchPartNumbers(searchTerm);
-        return results.stream()
-                .map(this::convertToSummaryDTO)
+        if (!searchIndexService.isReady()) {
+            List<PartNumberStockTrackingEntity> results = trackingRepository.searchPartNumbers(searchTerm);
+            return convertToSummaryDTOs(results, false);
+        }
+
+        List<String> rankedPartNumbers = searchIndexService.searchPartNumbers(searchTerm);
+        if (rankedPartNumbers.isEmpty()) {
+            return List.of();
+        }
+        Map<String, PartNumberStockTrackingEntity> trackingByPartNumber = new HashMap<>();
+        for (PartNumberStockTrackingEntity tracking : trackingRepository.findByPartNumberIn(rankedPartNumbers)) {
+            trackingByPartNumber.put(tracking.getPartNumber(), tracking);
+        }
+        List<PartNumberStockTrackingEntity> ordered = rankedPartNumbers.stream()
+                .map(trackingByPartNumber::get)
+                .filter(Objects::nonNull)
                 .toList();
+        return convertToSummaryDTOs(ordered, false);
     }
     
     /**
      * Updates stock tracking for all part numbers (batch operation)
-     * Only processes part numbers that have active (non-deleted) parts
+     * Counts every part number's active parts and reservations in one GROUP BY pass,
+     * then writes only the rows that changed with batched upserts.
+     * Tracking rows whose part number no longer has active parts are reset to zero.
+     * @return How many rows were inserted, updated or left unchanged, and how long it took
      */
-    public void updateAllStockTracking() {
-        List<String> distinctPartNumbers = partRepository.findDistinctPartNumbers();
-        
-        for (String partNumber : distinctPartNumbers) {
-            // Check if this part number has any non-deleted parts
-            List<PartEntity> activeParts = partRepository.findAllByPartNumber(partNumber)
-                    .stream()
-                    .filter(part -> part.getIsDeleted() == null || !part.getIsDeleted())
-                    .toList();
+    public StockTrackingRefreshResultDTO updateAllStockTracking() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, PartNumberStockTrackingEntity> existing = new HashMap<>();
+        for (PartNumberStockTrackingEntity tracking : trackingRepository.findAll()) {
+            existing.put(tracking.getPartNumber(), tracking);
+        }
 
-            // Only update tracking if there are active parts
-            if (!activeParts.isEmpty()) {
-                updateStockTracking(partNumber);
+        List<Object[]> upserts = new ArrayList<>();
+        int inserted = 0;
+        int updated = 0;
+        int unchanged = 0;
+
+        List<PartRepository.PartNumberStockCounts> counts = partRepository.countStockGroupedByPartNumber();
+        for (PartRepository.PartNumberStockCounts count : counts) {
+            int totalStock = count.getPartsCount().intValue();
+            int availableStock = totalStock - (count.getReservedSum() != null ? count.getReservedSum().intValue() : 0);
+            PartNumberStockTrackingEntity tracking = existing.remove(count.getPartNumber());
+
+            if (tracking == null) {
+                upserts.add(upsertRow(count.getPartNumber(), count.getPartName(), totalStock, availableStock, now));
+                inserted++;
+            } else if (hasStockChanged(tracking, totalStock, availableStock)) {
+                upserts.add(upsertRow(count.getPartNumber(), tracking.getPartName(), totalStock, availableStock, now));
+                updated++;
             } else {
-                // Mark tracking as inactive if no active parts exist
-                Optional<PartNumberStockTrackingEntity> existingTracking = 
-                    trackingRepository.findByPartNumber(partNumber);
-                if (existingTracking.isPresent()) {
-                    PartNumberStockTrackingEntity tracking = existingTracking.get();
-                    tracking.setCurrentTotalStock(0);
-                    tracking.setCurrentAvailableStock(0);
-                    tracking.setTotalPartsCount(0);
-                    tracking.setLastStockUpdate(LocalDateTime.now());
-                    trackingRepository.save(tracking);
-                }
+                unchanged++;
             }
         }
+
+        // Remaining tracking rows have no active parts left
+        for (PartNumberStockTrackingEntity tracking : existing.values()) {
+            if (hasStockChanged(tracking, 0, 0)) {
+                upserts.add(upsertRow(tracking.getPartNumber(), tracking.getPartName(), 0, 0, now));
+                updated++;
+            } else {
+                unchanged++;
+            }
+        }
+
+        for (int i = 0; i < upserts.size(); i += REFRESH_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(UPSERT_TRACKING_SQL, upserts.subList(i, Math.min(i + REFRESH_BATCH_SIZE, upserts.size())));
+        }
+
+        StockTrackingRefreshResultDTO result = new StockTrackingRefreshResultDTO();
+        result.setPartNumbersScanned(counts.size());
+        result.setRowsInserted(inserted);
+        result.setRowsUpdated(updated);
+        result.setRowsUnchanged(unchanged);
+        result.setDurationMs(System.currentTimeMillis() - start);
+
+        logger.info("Refreshed stock tracking for {} part numbers: {} inserted, {} updated, {} unchanged in {} ms",
+                counts.size(), inserted, updated, unchanged, result.getDurationMs());
+        return result;
+    }
+
+    private boolean hasStockChanged(PartNumberStockTrackingEntity tracking, int totalStock, int availableStock) {
+        return !Objects.equals(tracking.getCurrentTotalStock(), totalStock)
+                || !Objects.equals(tracking.getCurrentAvailableStock(), availableStock)
+                || !Objects.equals(tracking.getTotalPartsCount(), totalStock);
+    }
+
+    private Object[] upsertRow(String partNumber, String partName, int totalStock, int availableStock, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return new Object[] {
+                partNumber, partName, DEFAULT_LOW_STOCK_THRESHOLD, totalStock, availableStock, totalStock,
+                DEFAULT_PRIORITY_LEVEL, timestamp, timestamp, timestamp
+        };
     }
     
     /**
@@ -229,10 +403,91 @@ public class PartNumberStockTrackingService {
         // Alert functionality removed - manual inventory management approach
     }
     
+    /**
+     * Converts tracking entities to DTOs with calculated fields.
+     * Supplier and stock-sum data for every part number is loaded with two grouped queries
+     * instead of reading each part number's PartEntity rows.
+     * @param trackings The tracking rows to convert
+     * @param allPartNumbers True when the rows cover every part number, so the aggregates can skip the IN filter
+     */
+    private List<PartNumberStockSummaryDTO> convertToSummaryDTOs(List<PartNumberStockTrackingEntity> trackings, boolean allPartNumbers) {
+        if (trackings.isEmpty()) {
+            return List.of();
+        }
+
+        trackings.forEach(this::refreshIfChanged);
+
+        Collection<String> partNumbers = trackings.stream()
+                .map(PartNumberStockTrackingEntity::getPartNumber)
+                .toList();
+
+        Map<String, Integer> stockSums = new HashMap<>();
+        List<PartRepository.PartNumberStockSum> sums = allPartNumbers
+                ? partRepository.sumCurrentStockGroupedByPartNumber()
+                : partRepository.sumCurrentStockGroupedByPartNumber(partNumbers);
+        for (PartRepository.PartNumberStockSum sum : sums) {
+            stockSums.put(sum.getPartNumber(), sum.getStockSum() != null ? sum.getStockSum().intValue() : 0);
+        }
+
+        Map<String, List<String>> suppliersByPartNumber = new HashMap<>();
+        List<PartRepository.PartNumberSupplier> suppliers = allPartNumbers
+                ? partRepository.findDistinctSuppliersGroupedByPartNumber()
+                : partRepository.findDistinctSuppliersGroupedByPartNumber(partNumbers);
+        for (PartRepository.PartNumberSupplier supplier : suppliers) {
+            suppliersByPartNumber.computeIfAbsent(supplier.getPartNumber(), k -> new ArrayList<>())
+                    .add(supplier.getSupplierName());
+        }
+
+        return trackings.stream()
+                .map(tracking -> convertToSummaryDTO(tracking,
+                        suppliersByPartNumber.getOrDefault(tracking.getPartNumber(), List.of()),
+                        stockSums.getOrDefault(tracking.getPartNumber(), 0)))
+                .toList();
+    }
+
+    /**
+     * Records that the counters of a part number were changed by a delta UPDATE in the current transaction.
+     * The UPDATE bypasses the persistence context, so a tracking row loaded earlier in the transaction keeps
+     * its old counters until refreshIfChanged reloads it.
+     */
+    @SuppressWarnings("unchecked")
+    private void markChanged(String partNumber) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<String> changed = (Set<String>) TransactionSynchronizationManager.getResource(CHANGED_PART_NUMBERS_KEY);
+        if (changed == null) {
+            changed = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(CHANGED_PART_NUMBERS_KEY, changed);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CHANGED_PART_NUMBERS_KEY);
+                }
+            });
+        }
+        changed.add(partNumber);
+    }
+
+    /**
+     * Reloads a managed tracking row whose counters were changed by a delta UPDATE in this transaction.
+     * Rows no delta touched are returned as they are, without a query.
+     */
+    @SuppressWarnings("unchecked")
+    private PartNumberStockTrackingEntity refreshIfChanged(PartNumberStockTrackingEntity tracking) {
+        Set<String> changed = (Set<String>) TransactionSynchronizationManager.getResource(CHANGED_PART_NUMBERS_KEY);
+        if (changed != null && (changed.contains(ANY_PART_NUMBER) || changed.contains(tracking.getPartNumber()))
+                && entityManager.contains(tracking)) {
+            entityManager.refresh(tracking);
+        }
+        return tracking;
+    }
+
     /**
      * Converts entity to DTO with calculated fields
      */
-    private PartNumberStockSummaryDTO convertToSummaryDTO(PartNumberStockTrackingEntity tracking) {
+    private PartNumberStockSummaryDTO convertToSummaryDTO(PartNumberStockTrackingEntity tracking,
+                                                          List<String> suppliers, int stockSum) {
         PartNumberStockSummaryDTO dto = new PartNumberStockSummaryDTO();
         
         // Basic fields
@@ -245,19 +500,7 @@ public class PartNumberStockTrackingService {
         dto.setTotalPartsCount(tracking.getTotalPartsCount());
         dto.setPriorityLevel(tracking.getPriorityLevel());
         dto.setLastStockUpdate(tracking.getLastStockUpdate());
-        
-        // Calculate suppliers count and category from parts data
-        List<PartEntity> parts = partRepository.findAllByPartNumber(tracking.getPartNumber())
-                .stream()
-                .filter(part -> part.getIsDeleted() == null || !part.getIsDeleted())
-                .toList();
-
-        long uniqueSuppliers = parts.stream()
-                .map(PartEntity::getSupplierName)
-                .filter(supplier -> supplier != null && !supplier.trim().isEmpty())
-                .distinct()
-                .count();
-        dto.setSuppliersCount((int) uniqueSuppliers);
+        dto.setSuppliersCount(suppliers.size());
         
         // Category field removed from entity
         dto.setNotes(tracking.getNotes());
@@ -267,25 +510,25 @@ public class PartNumberStockTrackingService {
         dto.setAlertLevel(calculateAlertLevel(tracking));
         // Manual inventory management - no auto-reorder functionality
         
-        // Get available suppliers from the already calculated parts data
-        List<String> suppliers = parts.stream()
-                .map(PartEntity::getSupplierName)
-                .filter(supplier -> supplier != null && !supplier.trim().isEmpty())
-                .distinct()
-                .toList();
         dto.setAvailableSuppliers(suppliers);
         
         // Add sum of currentStock fields for reference
-        int stockSum = parts.stream().mapToInt(PartEntity::getCurrentStock).sum();
         dto.setTotalStockSum(stockSum);
         
         return dto;
     }
     
     private String calculateStockStatus(PartNumberStockTrackingEntity tracking) {
-        if (tracking.getCurrentAvailableStock() == 0) return "CRITICAL";
-        if (tracking.getCurrentAvailableStock() <= tracking.getLowStockThreshold()) return "LOW";
-        if (tracking.getCurrentAvailableStock() <= tracking.getLowStockThreshold() * 2) return "NORMAL";
+        return calculateStockStatus(tracking.getCurrentAvailableStock(), tracking.getLowStockThreshold());
+    }
+
+    /**
+     * Stock status for an available stock level and threshold, for callers that read them without the entity.
+     */
+    public static String calculateStockStatus(int currentAvailableStock, int lowStockThreshold) {
+        if (currentAvailableStock == 0) return "CRITICAL";
+        if (currentAvailableStock <= lowStockThreshold) return "LOW";
+        if (currentAvailableStock <= lowStockThreshold * 2) return "NORMAL";
         return "GOOD";
     }
     
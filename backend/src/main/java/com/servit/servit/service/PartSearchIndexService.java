@@ -0,0 +1,369 @@
+package com.servit.servit.service;
+
+import com.servit.servit.entity.PartEntity;
+import com.servit.servit.repository.PartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over the searchable columns of active parts
+ * (part number, serial number, name, brand, model and description).
+ * Built at startup, kept current from PartService mutations and rebuilt periodically
+ * so changes made by other instances are picked up.
+ * Matches keep the substring semantics of PartRepository.searchParts but are ranked.
+ */
+@Service
+public class PartSearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartSearchIndexService.class);
+
+    private static final int GRAM_SIZE = 3;
+
+    // Field order matches IndexedPart.fields; higher weight ranks first
+    private static final int[] FIELD_WEIGHTS = {6, 6, 4, 2, 2, 1};
+    private static final int PART_NUMBER_FIELD = 0;
+    private static final int NAME_FIELD = 2;
+
+    private final PartRepository partRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, IndexedPart> documents = new HashMap<>();
+    private Map<String, Set<Long>> postings = new HashMap<>();
+    private volatile boolean ready = false;
+    // Updates committed while a rebuild reads the database, replayed onto the rebuilt maps; null outside a rebuild
+    private List<IndexedUpdate> updatesDuringRebuild;
+
+    @Autowired
+    public PartSearchIndexService(PartRepository partRepository) {
+        this.partRepository = partRepository;
+    }
+
+    /**
+     * Whether the index has been built and can serve searches.
+     * Callers fall back to the database query until it is.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the whole index from the database.
+     * Runs on a fixed delay to reconcile with changes made outside this instance.
+     * Parts indexed or removed while the database is read are applied to both the current and the new maps.
+     */
+    @Scheduled(initialDelayString = "${part.search.index.rebuild-interval-ms:900000}",
+               fixedDelayString = "${part.search.index.rebuild-interval-ms:900000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            updatesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Map<Long, IndexedPart> newDocuments = new HashMap<>();
+            Map<String, Set<Long>> newPostings = new HashMap<>();
+            for (PartRepository.PartSearchFields fields : partRepository.findSearchFieldsOfActiveParts()) {
+                IndexedPart doc = new IndexedPart(fields.getPartId(), fields.getPartNumber(), fields.getSerialNumber(),
+                        fields.getName(), fields.getBrand(), fields.getModel(), fields.getDescription());
+                newDocuments.put(doc.partId, doc);
+                addPostings(newPostings, doc);
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (IndexedUpdate update : updatesDuringRebuild) {
+                    apply(newDocuments, newPostings, update.partId, update.doc);
+                }
+                documents = newDocuments;
+                postings = newPostings;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Part search index built: {} parts, {} grams in {} ms",
+                    newDocuments.size(), newPostings.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to build part search index: {}", e.getMessage(), e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                updatesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces a part in the index once the surrounding transaction commits.
+     * Deleted parts are removed instead.
+     */
+    public void indexPart(PartEntity part) {
+        if (part == null || part.getPartId() == null) {
+            return;
+        }
+        if (Boolean.TRUE.equals(part.getIsDeleted())) {
+            removePart(part.getPartId());
+            return;
+        }
+        IndexedPart doc = new IndexedPart(part.getPartId(), part.getPartNumber(), part.getSerialNumber(),
+                part.getName(), part.getBrand(), part.getModel(), part.getDescription());
+        afterCommit(() -> update(doc.partId, doc));
+    }
+
+    /**
+     * Removes a part from the index once the surrounding transaction commits.
+     */
+    public void removePart(Long partId) {
+        afterCommit(() -> update(partId, null));
+    }
+
+    /**
+     * Finds active parts whose indexed fields contain the search term, best matches first.
+     * Exact field matches rank above prefix matches, which rank above plain substring matches;
+     * part number and serial number outweigh name, which outweighs brand, model and description.
+     * @param searchTerm The term to search for
+     * @return Matching part IDs in rank order
+     */
+    public List<Long> searchPartIds(String searchTerm) {
+        String term = normalize(searchTerm);
+        if (term.isEmpty()) {
+            return List.of();
+        }
+
+        List<long[]> scored = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (IndexedPart doc : candidates(term)) {
+                int score = score(doc, term, 0, FIELD_WEIGHTS.length);
+                if (score > 0) {
+                    scored.add(new long[] {doc.partId, score});
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        scored.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+        List<Long> ids = new ArrayList<>(scored.size());
+        for (long[] entry : scored) {
+            ids.add(entry[0]);
+        }
+        return ids;
+    }
+
+    /**
+     * Finds part numbers whose part number or part name contains the search term, best matches first.
+     * @param searchTerm The term to search for
+     * @return Distinct matching part numbers in rank order
+     */
+    public List<String> searchPartNumbers(String searchTerm) {
+        String term = normalize(searchTerm);
+        if (term.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Integer> bestScores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (IndexedPart doc : candidates(term)) {
+                int score = score(doc, term, PART_NUMBER_FIELD, PART_NUMBER_FIELD + 1)
+                        + score(doc, term, NAME_FIELD, NAME_FIELD + 1);
+                if (score > 0 && doc.partNumber != null) {
+                    bestScores.merge(doc.partNumber, score, Math::max);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<String> partNumbers = new ArrayList<>(bestScores.keySet());
+        partNumbers.sort((a, b) -> {
+            int byScore = Integer.compare(bestScores.get(b), bestScores.get(a));
+            return byScore != 0 ? byScore : a.compareTo(b);
+        });
+        return partNumbers;
+    }
+
+    // ================ Helper Methods ================
+
+    /**
+     * Replaces (or, with a null document, removes) a part in the live index, and records the change
+     * for the rebuild in progress if there is one.
+     */
+    private void update(Long partId, IndexedPart doc) {
+        lock.writeLock().lock();
+        try {
+            apply(documents, postings, partId, doc);
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(new IndexedUpdate(partId, doc));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Map<Long, IndexedPart> documents, Map<String, Set<Long>> postings,
+                              Long partId, IndexedPart doc) {
+        IndexedPart previous = doc != null ? documents.put(partId, doc) : documents.remove(partId);
+        if (previous != null) {
+            removePostings(postings, previous);
+        }
+        if (doc != null) {
+            addPostings(postings, doc);
+        }
+    }
+
+    /**
+     * Narrows the documents to those containing every gram of the term.
+     * Terms shorter than a gram cannot use the postings and are checked against every document.
+     * Must be called under the read lock.
+     */
+    private Collection<IndexedPart> candidates(String term) {
+        if (term.length() < GRAM_SIZE) {
+            return documents.values();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(term)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<IndexedPart> result = new ArrayList<>();
+        for (Long id : lists.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            if (inAll) {
+                result.add(documents.get(id));
+            }
+        }
+        return result;
+    }
+
+    private int score(IndexedPart doc, String term, int fromField, int toField) {
+        int score = 0;
+        for (int i = fromField; i < toField; i++) {
+            String value = doc.fields[i];
+            if (value == null || !value.contains(term)) {
+                continue;
+            }
+            if (value.equals(term)) {
+                score += FIELD_WEIGHTS[i] * 3;
+            } else if (value.startsWith(term)) {
+                score += FIELD_WEIGHTS[i] * 2;
+            } else {
+                score += FIELD_WEIGHTS[i];
+            }
+        }
+        return score;
+    }
+
+    private static void addPostings(Map<String, Set<Long>> postings, IndexedPart doc) {
+        for (String gram : doc.grams()) {
+            postings.computeIfAbsent(gram, k -> new HashSet<>()).add(doc.partId);
+        }
+    }
+
+    private static void removePostings(Map<String, Set<Long>> postings, IndexedPart doc) {
+        for (String gram : doc.grams()) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(doc.partId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class IndexedUpdate {
+        private final Long partId;
+        // null for a removal
+        private final IndexedPart doc;
+
+        private IndexedUpdate(Long partId, IndexedPart doc) {
+            this.partId = partId;
+            this.doc = doc;
+        }
+    }
+
+    private static final class IndexedPart {
+        private final Long partId;
+        private final String partNumber;
+        // part number, serial number, name, brand, model, description - lower-cased
+        private final String[] fields;
+
+        private IndexedPart(Long partId, String partNumber, String serialNumber, String name,
+                            String brand, String model, String description) {
+            this.partId = partId;
+            this.partNumber = partNumber;
+            this.fields = new String[] {
+                    lower(partNumber), lower(serialNumber), lower(name), lower(brand), lower(model), lower(description)
+            };
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            for (String field : fields) {
+                if (field != null) {
+                    grams.addAll(PartSearchIndexService.grams(field));
+                }
+            }
+            return grams;
+        }
+
+        private static String lower(String value) {
+            return value == null ? null : value.toLowerCase(Locale.ROOT);
+        }
+    }
+}
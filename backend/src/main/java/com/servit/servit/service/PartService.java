@@ -2,7 +2,10 @@ package com.servit.servit.service;
 
 import com.servit.servit.entity.PartEntity;
 import com.servit.servit.repository.PartRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -16,6 +19,8 @@ import com.servit.servit.dto.part.UpdatePartNumberStockTrackingDTO;
 import com.servit.servit.dto.part.BulkAddPartRequestDTO;
 import com.servit.servit.dto.part.ReservePartRequestDTO;
 import com.servit.servit.dto.part.PartNumberStockSummaryDTO;
+import com.servit.servit.dto.part.PartCursorPageDTO;
+import com.servit.servit.dto.part.BatchReservationResultDTO;
 import com.servit.servit.enumeration.PartEnum;
 import com.servit.servit.repository.UserRepository;
 import com.servit.servit.entity.UserEntity;
@@ -23,7 +28,9 @@ import com.servit.servit.util.FileUtil;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.time.temporal.ChronoUnit;
 
 import org.slf4j.Logger;
@@ -45,17 +52,29 @@ public class PartService {
     private final UserRepository userRepository;
     private final FileUtil fileUtil;
     private final S3Service s3Service;
+    private final PartSearchIndexService searchIndexService;
+    private final SerialNumberRegistryService serialNumberRegistry;
+    private final PartCompatibilityIndexService compatibilityIndex;
 
     private static final Logger logger = LoggerFactory.getLogger(PartService.class);
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
-    public PartService(PartRepository partRepository, AlertService alertService, PartNumberStockTrackingService stockTrackingService, UserRepository userRepository, FileUtil fileUtil, S3Service s3Service) {
+    public PartService(PartRepository partRepository, AlertService alertService, PartNumberStockTrackingService stockTrackingService, UserRepository userRepository, FileUtil fileUtil, S3Service s3Service, PartSearchIndexService searchIndexService, SerialNumberRegistryService serialNumberRegistry, PartCompatibilityIndexService compatibilityIndex) {
         this.partRepository = partRepository;
         this.alertService = alertService;
         this.stockTrackingService = stockTrackingService;
         this.userRepository = userRepository;
         this.fileUtil = fileUtil;
         this.s3Service = s3Service;
+        this.searchIndexService = searchIndexService;
+        this.serialNumberRegistry = serialNumberRegistry;
+        this.compatibilityIndex = compatibilityIndex;
     }
 
     // ================ CRUD Operations ================
@@ -71,7 +90,7 @@ public class PartService {
         logger.info("Adding part: {}", req);
 
         // Check if serial number already exists
-        if (partRepository.findBySerialNumber(req.getSerialNumber()).isPresent()) {
+        if (serialNumberRegistry.exists(req.getSerialNumber())) {
             throw new IllegalArgumentException("Serial number already exists: " + req.getSerialNumber());
         }
 
@@ -83,33 +102,17 @@ public class PartService {
 
         // If adding to existing part number, copy the details from an existing part
         if (Boolean.TRUE.equals(req.getAddToExisting())) {
-            List<PartEntity> existingParts = partRepository.findAllByPartNumber(req.getPartNumber())
-                    .stream()
-                    .filter(p -> !p.getIsDeleted())
-                    .toList();
-
-            if (existingParts.isEmpty()) {
-                throw new IllegalArgumentException("No active parts found with part number: " + req.getPartNumber());
-            }
-
             // Use the first non-deleted part to get the common details
-            PartEntity existingPart = existingParts.get(0);
-            String sharedPhotoUrl = existingParts.stream()
-                    .map(PartEntity::getPartPhotoUrl)
-                    .filter(this::hasValidPhotoUrl)
-                    .findFirst()
-                    .orElse(null);
+            PartEntity existingPart = partRepository.findFirstByPartNumberAndIsDeletedFalseOrderByPartIdAsc(req.getPartNumber())
+                    .orElseThrow(() -> new IllegalArgumentException("No active parts found with part number: " + req.getPartNumber()));
             part.setName(existingPart.getName());
             part.setDescription(existingPart.getDescription());
             part.setUnitCost(existingPart.getUnitCost());
             part.setPartType(existingPart.getPartType());
             part.setBrand(existingPart.getBrand());
             part.setModel(existingPart.getModel());
-            if (sharedPhotoUrl != null) {
-                part.setPartPhotoUrl(sharedPhotoUrl);
-            }
 
-            logger.info("Found {} existing parts with part number: {}", existingParts.size(), req.getPartNumber());
+            logger.info("Copying details from existing part {} with part number: {}", existingPart.getPartId(), req.getPartNumber());
         } else {
             // Set new part details
             part.setName(req.getName());
@@ -137,7 +140,10 @@ public class PartService {
             logger.info("Successfully added part with ID: {}", savedPart.getPartId());
 
             // Update stock tracking for this part number
-            stockTrackingService.updateStockTracking(req.getPartNumber());
+            stockTrackingService.applyStockDelta(req.getPartNumber(), 1, 0);
+            searchIndexService.indexPart(savedPart);
+            compatibilityIndex.indexPart(savedPart);
+            serialNumberRegistry.register(savedPart.getSerialNumber());
 
             return convertToDto(savedPart);
         } catch (Exception e) {
@@ -159,7 +165,7 @@ public class PartService {
         logger.info("Adding part with optional file: {}", req);
 
         // Validate serial number uniqueness
-        if (partRepository.findBySerialNumber(req.getSerialNumber()).isPresent()) {
+        if (serialNumberRegistry.exists(req.getSerialNumber())) {
             throw new IllegalArgumentException("Serial number already exists: " + req.getSerialNumber());
         }
 
@@ -169,30 +175,14 @@ public class PartService {
         part.setAddedBy(getCurrentUserEmail());
 
         if (Boolean.TRUE.equals(req.getAddToExisting())) {
-            List<PartEntity> existingParts = partRepository.findAllByPartNumber(req.getPartNumber())
-                    .stream()
-                    .filter(p -> !p.getIsDeleted())
-                    .toList();
-
-            if (existingParts.isEmpty()) {
-                throw new IllegalArgumentException("No active parts found with part number: " + req.getPartNumber());
-            }
-
-            PartEntity existingPart = existingParts.get(0);
-            String sharedPhotoUrl = existingParts.stream()
-                    .map(PartEntity::getPartPhotoUrl)
-                    .filter(this::hasValidPhotoUrl)
-                    .findFirst()
-                    .orElse(null);
+            PartEntity existingPart = partRepository.findFirstByPartNumberAndIsDeletedFalseOrderByPartIdAsc(req.getPartNumber())
+                    .orElseThrow(() -> new IllegalArgumentException("No active parts found with part number: " + req.getPartNumber()));
             part.setName(existingPart.getName());
             part.setDescription(existingPart.getDescription());
             part.setUnitCost(existingPart.getUnitCost());
             part.setPartType(existingPart.getPartType());
             part.setBrand(existingPart.getBrand());
             part.setModel(existingPart.getModel());
-            if (sharedPhotoUrl != null) {
-                part.setPartPhotoUrl(sharedPhotoUrl);
-            }
         } else {
             part.setName(req.getName());
             part.setDescription(req.getDescription());
@@ -233,7 +223,10 @@ public class PartService {
             }
 
             // Update stock tracking for this part number
-            stockTrackingService.updateStockTracking(req.getPartNumber());
+            stockTrackingService.applyStockDelta(req.getPartNumber(), 1, 0);
+            searchIndexService.indexPart(savedPart);
+            compatibilityIndex.indexPart(savedPart);
+            serialNumberRegistry.register(savedPart.getSerialNumber());
 
             return convertToDto(savedPart);
         } catch (IOException e) {
@@ -267,30 +260,13 @@ public class PartService {
 
         // If adding to existing part number, fetch and copy the details
         PartEntity existingPart = null;
-        String sharedPhotoUrl = null;
         if (Boolean.TRUE.equals(bulkDto.getAddToExisting())) {
-            // There may be many parts with the same part number, so fetch the list and
-            // use the first active (non-deleted) entry instead of expecting a unique result.
-            List<PartEntity> existingParts = partRepository.findAllByPartNumber(partNumber)
-                    .stream()
-                    .filter(p -> !Boolean.TRUE.equals(p.getIsDeleted()))
-                    .toList();
-
-            if (existingParts.isEmpty()) {
-                throw new IllegalArgumentException("Part number does not exist: " + partNumber);
-            }
-
-            existingPart = existingParts.get(0);
-            sharedPhotoUrl = existingParts.stream()
-                    .map(PartEntity::getPartPhotoUrl)
-                    .filter(this::hasValidPhotoUrl)
-                    .findFirst()
-                    .orElse(null);
+            // There may be many parts with the same part number; use the first active (non-deleted) one
+            existingPart = partRepository.findFirstByPartNumberAndIsDeletedFalseOrderByPartIdAsc(partNumber)
+                    .orElseThrow(() -> new IllegalArgumentException("Part number does not exist: " + partNumber));
         }
 
-        if (sharedPhotoUrl == null) {
-            sharedPhotoUrl = resolveSharedPhotoUrl(partNumber);
-        }
+        String sharedPhotoUrl = resolveSharedPhotoUrl(partNumber);
 
         // First, check for duplicates within the request itself
         Set<String> serialNumbersInRequest = new HashSet<>();
@@ -307,14 +283,8 @@ public class PartService {
                     String.join(", ", duplicatesInRequest));
         }
 
-        // Then check for duplicates against the database
-        List<String> conflictingSerialNumbers = new ArrayList<>();
-
-        for (String serialNumber : bulkDto.getSerialNumbers()) {
-            if (partRepository.findBySerialNumber(serialNumber).isPresent()) {
-                conflictingSerialNumbers.add(serialNumber);
-            }
-        }
+        // Then check for duplicates against the database (filtered set lookup, not one query per serial)
+        Set<String> conflictingSerialNumbers = serialNumberRegistry.findExisting(bulkDto.getSerialNumbers());
 
         if (!conflictingSerialNumbers.isEmpty()) {
             throw new IllegalArgumentException("Serial number(s) already exist in database: " +
@@ -369,7 +339,10 @@ public class PartService {
         List<PartEntity> savedParts = partRepository.saveAll(partsToSave);
 
         // Update stock tracking for the part number
-        stockTrackingService.updateStockTracking(partNumber);
+        stockTrackingService.applyStockDelta(partNumber, savedParts.size(), 0);
+        savedParts.forEach(searchIndexService::indexPart);
+        savedParts.forEach(compatibilityIndex::indexPart);
+        serialNumberRegistry.register(bulkDto.getSerialNumbers());
 
         // If low stock threshold was provided, update the tracking entity
         if (bulkDto.getLowStockThreshold() != null) {
@@ -397,6 +370,7 @@ public class PartService {
 
         PartEntity part = partRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Part not found with id: " + id));
+        String previousPartNumber = part.getPartNumber();
 
         // Update basic fields
         if (partDto.getPartNumber() != null) part.setPartNumber(partDto.getPartNumber());
@@ -440,6 +414,16 @@ public class PartService {
         try {
             PartEntity updatedPart = partRepository.save(part);
             logger.info("Successfully updated part with ID: {}", id);
+
+            // Move the part's counters to its new part number
+            if (!Boolean.TRUE.equals(updatedPart.getIsDeleted()) && !Objects.equals(previousPartNumber, updatedPart.getPartNumber())) {
+                int reserved = updatedPart.getReservedQuantity() != null ? updatedPart.getReservedQuantity() : 0;
+                stockTrackingService.applyStockDelta(previousPartNumber, -1, -reserved);
+                stockTrackingService.applyStockDelta(updatedPart.getPartNumber(), 1, reserved);
+            }
+            searchIndexService.indexPart(updatedPart);
+            compatibilityIndex.indexPart(updatedPart);
+            serialNumberRegistry.register(updatedPart.getSerialNumber());
             return convertToDto(updatedPart);
         } catch (Exception e) {
             logger.error("Error updating part: {}", e.getMessage(), e);
@@ -470,6 +454,11 @@ public class PartService {
         partEntity.setIsDeleted(true);
         partEntity.setModifiedBy(getCurrentUserEmail());
         partRepository.save(partEntity);
+
+        int reserved = partEntity.getReservedQuantity() != null ? partEntity.getReservedQuantity() : 0;
+        stockTrackingService.applyStockDelta(partEntity.getPartNumber(), -1, -reserved);
+        searchIndexService.removePart(partId);
+        compatibilityIndex.removePart(partId);
     }
 
     // ================ Search Operations ================
@@ -509,13 +498,32 @@ public class PartService {
 
     /**
      * Searches for parts based on a search term. All authenticated users can search parts.
+     * Served from the in-memory search index (ranked) once it is built; falls back to the LIKE query before that.
      * @param searchTerm The term to search for
      * @return List of matching parts as DTOs
      */
     @Transactional(readOnly = true)
     public List<PartResponseDTO> searchParts(String searchTerm) {
         logger.info("Searching parts with term: {}", searchTerm);
-        return partRepository.searchParts(searchTerm).stream().map(this::convertToDto).toList();
+        if (!searchIndexService.isReady()) {
+            return partRepository.searchParts(searchTerm).stream().map(this::convertToDto).toList();
+        }
+
+        List<Long> rankedIds = searchIndexService.searchPartIds(searchTerm);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PartEntity> partsById = partRepository.findAllById(rankedIds).stream()
+                .filter(part -> !Boolean.TRUE.equals(part.getIsDeleted()))
+                .collect(Collectors.toMap(PartEntity::getPartId, part -> part));
+        Map<String, PartNumberStockSummaryDTO> stockSummaryMap = stockTrackingService.getStockSummariesMap(
+                partsById.values().stream().map(PartEntity::getPartNumber).collect(Collectors.toSet()));
+
+        return rankedIds.stream()
+                .map(partsById::get)
+                .filter(Objects::nonNull)
+                .map(part -> convertToDto(part, stockSummaryMap))
+                .toList();
     }
 
     // ================ List Operations ================
@@ -527,11 +535,7 @@ public class PartService {
     @Transactional(readOnly = true)
     public List<PartResponseDTO> getAllParts() {
         logger.info("Retrieving all parts");
-        Map<String, PartNumberStockSummaryDTO> stockSummaryMap = stockTrackingService.getAllStockSummariesMap();
-
-        return partRepository.findByIsDeletedFalse().stream()
-                .map(part -> convertToDto(part, stockSummaryMap))
-                .toList();
+        return partRepository.findActivePartRows().stream().map(this::convertToDto).toList();
     }
 
     /**
@@ -541,18 +545,7 @@ public class PartService {
     @Transactional(readOnly = true)
     public List<PartResponseDTO> getAvailableParts() {
         logger.info("Retrieving all parts with available stock at part number level");
-
-        // Pre-fetch stock summaries to avoid N+1 query problem
-        Map<String, PartNumberStockSummaryDTO> stockSummaryMap = stockTrackingService.getAllStockSummariesMap();
-
-        // Get all active parts and filter by available stock
-        return partRepository.findByIsDeletedFalse().stream()
-                .filter(part -> {
-                    PartNumberStockSummaryDTO stockSummary = stockSummaryMap.get(part.getPartNumber());
-                    return stockSummary != null && stockSummary.getCurrentAvailableStock() > 0;
-                })
-                .map(part -> convertToDto(part, stockSummaryMap))
-                .toList();
+        return partRepository.findAvailablePartRows().stream().map(this::convertToDto).toList();
     }
 
     /**
@@ -562,25 +555,68 @@ public class PartService {
     @Transactional(readOnly = true)
     public List<PartResponseDTO> getLowStockParts() {
         logger.info("Retrieving all parts with low stock at part number level");
+        return partRepository.findLowStockPartRows().stream().map(this::convertToDto).toList();
+    }
 
-        // Pre-fetch stock summaries to avoid N+1 query problem
-        Map<String, PartNumberStockSummaryDTO> stockSummaryMap = stockTrackingService.getAllStockSummariesMap();
+    /**
+     * Retrieves one page of active parts ordered by ID, starting after the given cursor.
+     * Uses keyset pagination so deep pages cost the same as the first one.
+     * All authenticated users can view parts.
+     * @param cursor partId of the last item of the previous page, or null for the first page
+     * @param size Page size (capped at MAX_PAGE_SIZE)
+     * @param partType Optional part type filter
+     * @param availableOnly Only include parts whose part number has available stock
+     * @param brand Optional brand filter (case-insensitive exact match)
+     * @return The page with the cursor for the next one
+     */
+    @Transactional(readOnly = true)
+    public PartCursorPageDTO getPartsPage(Long cursor, Integer size, PartEnum partType, boolean availableOnly, String brand) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        logger.info("Retrieving parts page after cursor: {}, size: {}", cursor, pageSize);
+
+        // Fetch one extra row to know whether another page exists
+        List<PartEntity> parts = partRepository.findActivePartsAfter(cursor != null ? cursor : 0L, partType,
+                normalizeFilter(brand), availableOnly, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = parts.size() > pageSize;
+        if (hasMore) {
+            parts = parts.subList(0, pageSize);
+        }
 
-        // Get low stock part numbers
-        Set<String> lowStockPartNumbers = stockSummaryMap.values().stream()
-                .filter(summary -> summary.getCurrentAvailableStock() <= summary.getLowStockThreshold())
-                .map(PartNumberStockSummaryDTO::getPartNumber)
-                .collect(Collectors.toSet());
+        Map<String, PartNumberStockSummaryDTO> stockSummaryMap = stockTrackingService.getStockSummariesMap(
+                parts.stream().map(PartEntity::getPartNumber).collect(Collectors.toSet()));
 
-        if (lowStockPartNumbers.isEmpty()) {
-            return new ArrayList<>();
-        }
+        PartCursorPageDTO page = new PartCursorPageDTO();
+        page.setItems(parts.stream().map(part -> convertToDto(part, stockSummaryMap)).toList());
+        page.setSize(page.getItems().size());
+        page.setHasMore(hasMore);
+        page.setNextCursor(parts.isEmpty() ? null : parts.get(parts.size() - 1).getPartId());
+        return page;
+    }
 
-        // Get all active parts and filter by low stock part numbers
-        return partRepository.findByIsDeletedFalse().stream()
-                .filter(part -> lowStockPartNumbers.contains(part.getPartNumber()))
-                .map(part -> convertToDto(part, stockSummaryMap))
-                .toList();
+    /**
+     * Streams every active part matching the filters to the given consumer, one row at a time.
+     * Rows come off a forward-only result set as flat projections with their stock tracking columns,
+     * so the full list is never held in memory and nothing else is queried while the cursor is open.
+     * All authenticated users can view parts.
+     * @param partType Optional part type filter
+     * @param availableOnly Only include parts whose part number has available stock
+     * @param brand Optional brand filter (case-insensitive exact match)
+     * @param consumer Receives each converted part
+     * @return Number of parts streamed
+     */
+    @Transactional(readOnly = true)
+    public long streamParts(PartEnum partType, boolean availableOnly, String brand, Consumer<PartResponseDTO> consumer) {
+        logger.info("Streaming parts - type: {}, availableOnly: {}, brand: {}", partType, availableOnly, brand);
+        long count = 0;
+        try (Stream<PartRepository.PartRow> rows = partRepository.streamActiveParts(partType, normalizeFilter(brand), availableOnly)) {
+            Iterator<PartRepository.PartRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(convertToDto(iterator.next()));
+                count++;
+            }
+        }
+        logger.info("Streamed {} parts", count);
+        return count;
     }
 
     /**
@@ -591,12 +627,7 @@ public class PartService {
     @Transactional(readOnly = true)
     public List<PartResponseDTO> getAllPartsForQuotation() {
         try {
-            // Pre-fetch stock summaries to avoid N+1 query problem
-            Map<String, PartNumberStockSummaryDTO> stockSummaryMap = stockTrackingService.getAllStockSummariesMap();
-            List<PartEntity> parts = partRepository.findEligiblePartsForQuotation();
-            return parts.stream()
-                    .map(part -> convertToDto(part, stockSummaryMap))
-                    .toList();
+            return partRepository.findEligiblePartRowsForQuotation().stream().map(this::convertToDto).toList();
         } catch (Exception e) {
             logger.error("Error retrieving parts for quotation: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to retrieve parts for quotation", e);
@@ -626,7 +657,6 @@ public class PartService {
         partEntity.setCurrentStock(newStock);
         partEntity.setModifiedBy(getCurrentUserEmail());
         partRepository.save(partEntity);
-        checkAndTriggerLowStockAlert(partId); // Check low stock after updating stock
     }
 
     /**
@@ -660,13 +690,14 @@ public class PartService {
 
         partEntity.setModifiedBy(getCurrentUserEmail());
         partRepository.save(partEntity);
-        checkAndTriggerLowStockAlert(partId); // Check low stock after adjusting stock
     }
 
     // ================ Reservation Management ================
 
     /**
      * Reserves parts for a specific ticket/quotation. Only ADMIN and TECHNICIAN roles can reserve parts.
+     * The availability check and the increment happen in one conditional UPDATE, so concurrent
+     * reservations of the same part cannot oversell it and never fail with optimistic-lock errors.
      * @param reserveRequest The reservation request details
      * @throws EntityNotFoundException if part not found
      * @throws IllegalArgumentException if insufficient available stock
@@ -674,25 +705,148 @@ public class PartService {
     @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
     public void reservePart(ReservePartRequestDTO reserveRequest) {
         logger.info("Reserving parts for ticket/quotation with id: {}", reserveRequest.getReservedForTicketId());
-        PartEntity partEntity = partRepository.findById(reserveRequest.getPartId())
-                .orElseThrow(() -> new EntityNotFoundException("Part not found with id: " + reserveRequest.getPartId()));
+        int quantity = reserveRequest.getQuantity();
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity to reserve must not be negative");
+        }
 
-        int availableStock = partEntity.getCurrentStock() - partEntity.getReservedQuantity();
-        if (availableStock < reserveRequest.getQuantity()) {
+        int updated = partRepository.reserveIfAvailable(reserveRequest.getPartId(), quantity,
+                reserveRequest.getReservedForTicketId(), getCurrentUserEmail(), LocalDateTime.now());
+        if (updated == 0) {
+            // Only the failure path reads the part, to explain why
+            PartEntity partEntity = partRepository.findById(reserveRequest.getPartId())
+                    .orElseThrow(() -> new EntityNotFoundException("Part not found with id: " + reserveRequest.getPartId()));
+            if (Boolean.TRUE.equals(partEntity.getIsDeleted())) {
+                throw new IllegalArgumentException("Cannot reserve deleted part: " + partEntity.getPartNumber());
+            }
+            int availableStock = partEntity.getCurrentStock() - partEntity.getReservedQuantity();
             throw new IllegalArgumentException("Insufficient available stock for part: " + partEntity.getPartNumber() +
-                    ". Available: " + availableStock + ", Requested: " + reserveRequest.getQuantity());
+                    ". Available: " + availableStock + ", Requested: " + quantity);
         }
 
-        partEntity.setIsReserved(true);
-        partEntity.setReservedQuantity(partEntity.getReservedQuantity() + reserveRequest.getQuantity());
-        partEntity.setReservedForTicketId(reserveRequest.getReservedForTicketId());
-        partEntity.setModifiedBy(getCurrentUserEmail());
+        refreshIfLoaded(reserveRequest.getPartId());
+        stockTrackingService.applyStockDeltaForPart(reserveRequest.getPartId(), 0, quantity);
+    }
 
-        partRepository.save(partEntity);
+    /**
+     * Reserves one unit of each listed part for a ticket, all or nothing. A part listed more than once
+     * is reserved once per occurrence. The parts are locked and checked first; if any of them cannot be
+     * reserved, nothing is and every failing part is reported. Otherwise the reservations are applied
+     * with one bulk conditional UPDATE per distinct quantity (normally just one).
+     * @param partIds The parts to reserve
+     * @param ticketId The ticket to reserve them for
+     * @return The reserved parts with their before/after reserved counts, or the per-part failures
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+    public BatchReservationResultDTO reserveParts(List<Long> partIds, String ticketId) {
+        logger.info("Reserving {} parts for ticket/quotation with id: {}", partIds.size(), ticketId);
+        BatchReservationResultDTO result = new BatchReservationResultDTO();
+        result.setRepairTicketId(ticketId);
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (Long partId : partIds) {
+            quantities.merge(partId, 1, Integer::sum);
+        }
+        if (quantities.isEmpty()) {
+            result.setReserved(true);
+            return result;
+        }
+
+        Map<Long, PartEntity> lockedParts = partRepository.findAllByIdForUpdate(quantities.keySet()).stream()
+                .collect(Collectors.toMap(PartEntity::getPartId, p -> p));
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            PartEntity part = lockedParts.get(entry.getKey());
+            String reason = null;
+            if (part == null) {
+                reason = "Part not found with id: " + entry.getKey();
+            } else if (Boolean.TRUE.equals(part.getIsDeleted())) {
+                reason = "Cannot reserve deleted part: " + part.getPartNumber();
+            } else {
+                int availableStock = part.getCurrentStock() - part.getReservedQuantity();
+                if (availableStock < entry.getValue()) {
+                    reason = "Insufficient available stock for part: " + part.getPartNumber() +
+                            ". Available: " + availableStock + ", Requested: " + entry.getValue();
+                }
+            }
+            if (reason != null) {
+                BatchReservationResultDTO.PartFailureDTO failure = new BatchReservationResultDTO.PartFailureDTO();
+                failure.setPartId(entry.getKey());
+                failure.setReason(reason);
+                result.getFailures().add(failure);
+            }
+        }
+        if (!result.getFailures().isEmpty()) {
+            result.setReserved(false);
+            return result;
+        }
+
+        // Snapshot the locked rows; the bulk update does not change the loaded instances
+        Map<String, Integer> reservedByPartNumber = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            PartEntity part = lockedParts.get(entry.getKey());
+            BatchReservationResultDTO.ReservedPartDTO reservedPart = new BatchReservationResultDTO.ReservedPartDTO();
+            reservedPart.setPartId(part.getPartId());
+            reservedPart.setPartNumber(part.getPartNumber());
+            reservedPart.setQuantity(entry.getValue());
+            reservedPart.setCurrentStock(part.getCurrentStock());
+            reservedPart.setPreviousReserved(part.getReservedQuantity());
+            reservedPart.setNewReserved(part.getReservedQuantity() + entry.getValue());
+            result.getReservedParts().add(reservedPart);
+            reservedByPartNumber.merge(part.getPartNumber(), entry.getValue(), Integer::sum);
+        }
+
+        Map<Integer, List<Long>> idsByQuantity = quantities.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        String modifiedBy = getCurrentUserEmail();
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Integer, List<Long>> group : idsByQuantity.entrySet()) {
+            int updated = partRepository.reserveAllIfAvailable(group.getValue(), group.getKey(), ticketId, modifiedBy, now);
+            if (updated != group.getValue().size()) {
+                // The rows are locked, so this means the data changed underneath us; roll everything back
+                throw new IllegalStateException("Batch reservation for ticket " + ticketId + " reserved " + updated +
+                        " of " + group.getValue().size() + " parts");
+            }
+        }
+        // The locked instances now hold the old reservation; detach them so a later read in this
+        // transaction loads the updated rows instead of refreshing every part here
+        lockedParts.values().forEach(entityManager::detach);
+
+        reservedByPartNumber.forEach((partNumber, quantity) -> stockTrackingService.applyStockDelta(partNumber, 0, quantity));
+        result.setReserved(true);
+        return result;
+    }
+
+    /**
+     * Claims one free STANDARD unit with the given name and reserves it for a ticket.
+     * The candidate row is locked with FOR UPDATE SKIP LOCKED, so concurrent claims pick different units
+     * instead of racing for the same one, and the reservation is applied while the lock is held.
+     * @param partName The part name the replacement must match
+     * @param ticketId The ticket to reserve the unit for
+     * @return The ID of the reserved part, or empty if no unit is free
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+    public Optional<Long> claimReplacementPart(String partName, String ticketId) {
+        Optional<Long> candidateId = partRepository.lockReplacementCandidate(partName);
+        if (candidateId.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Long partId = candidateId.get();
+        int updated = partRepository.reserveIfAvailable(partId, 1, ticketId, getCurrentUserEmail(), LocalDateTime.now());
+        if (updated == 0) {
+            // Cannot happen while the row lock is held, but never report a claim that did not apply
+            return Optional.empty();
+        }
+        refreshIfLoaded(partId);
+        stockTrackingService.applyStockDeltaForPart(partId, 0, 1);
+        logger.info("Claimed replacement part {} for ticket {}", partId, ticketId);
+        return Optional.of(partId);
     }
 
     /**
      * Releases previously reserved stock back into available stock. Only ADMIN and TECHNICIAN roles can release stock.
+     * Uses a single conditional UPDATE; the part is only read when the release is rejected.
      * @param partId The ID of the part
      * @param quantity The quantity to release
      * @throws EntityNotFoundException if part not found
@@ -701,57 +855,52 @@ public class PartService {
     @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
     public void releaseReservedStock(Long partId, int quantity) {
         logger.info("Releasing reserved stock for part with id: {}, quantity: {}", partId, quantity);
-        PartEntity partEntity = partRepository.findById(partId)
-                .orElseThrow(() -> new EntityNotFoundException("Part not found with id: " + partId));
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity to release must not be negative");
+        }
 
-        if (quantity > partEntity.getReservedQuantity()) {
+        int updated = partRepository.releaseIfReserved(partId, quantity, getCurrentUserEmail(), LocalDateTime.now());
+        if (updated == 0) {
+            PartEntity partEntity = partRepository.findById(partId)
+                    .orElseThrow(() -> new EntityNotFoundException("Part not found with id: " + partId));
             throw new IllegalArgumentException("Cannot release more than reserved quantity. Reserved: " +
                     partEntity.getReservedQuantity() + ", Requested: " + quantity);
         }
 
-        partEntity.setReservedQuantity(partEntity.getReservedQuantity() - quantity);
-        if (partEntity.getReservedQuantity() == 0) {
-            partEntity.setIsReserved(false);
-            partEntity.setReservedForTicketId(null);
-        }
-        partEntity.setModifiedBy(getCurrentUserEmail());
-
-        partRepository.save(partEntity);
-        checkAndTriggerLowStockAlert(partId); // Check low stock after releasing stock
+        refreshIfLoaded(partId);
+        stockTrackingService.applyStockDeltaForPart(partId, 0, -quantity);
     }
 
     /**
      * Confirms the use of reserved parts (removes from both current stock and reserved quantity).
      * Only ADMIN and TECHNICIAN roles can confirm part usage.
+     * Uses a single conditional UPDATE; the part is only read when the confirmation is rejected.
      * @param partId The ID of the part
      * @param quantity The quantity to confirm as used
      */
     @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
     public void confirmPartUsage(Long partId, int quantity) {
         logger.info("Confirming part usage for part with id: {}, quantity: {}", partId, quantity);
-        PartEntity partEntity = partRepository.findById(partId)
-                .orElseThrow(() -> new EntityNotFoundException("Part not found with id: " + partId));
-
-        if (quantity > partEntity.getReservedQuantity()) {
-            throw new IllegalArgumentException("Cannot confirm more than reserved quantity");
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity to confirm must not be negative");
         }
 
-        partEntity.setCurrentStock(partEntity.getCurrentStock() - quantity);
-        partEntity.setReservedQuantity(partEntity.getReservedQuantity() - quantity);
-
-        if (partEntity.getReservedQuantity() == 0) {
-            partEntity.setIsReserved(false);
-            partEntity.setReservedForTicketId(null);
+        int updated = partRepository.confirmUsageIfReserved(partId, quantity, getCurrentUserEmail(), LocalDateTime.now());
+        if (updated == 0) {
+            partRepository.findById(partId)
+                    .orElseThrow(() -> new EntityNotFoundException("Part not found with id: " + partId));
+            throw new IllegalArgumentException("Cannot confirm more than reserved quantity");
         }
+        refreshIfLoaded(partId);
 
-        partEntity.setModifiedBy(getCurrentUserEmail());
-        partRepository.save(partEntity);
-        checkAndTriggerLowStockAlert(partId);
+        // Total stock counts parts, so only the reserved share of the part number changes
+        stockTrackingService.applyStockDeltaForPart(partId, 0, -quantity);
     }
 
     /**
      * Checks if a part number's stock is low and triggers an alert if necessary.
-     * Uses part number level aggregated stock data.
+     * Uses part number level aggregated stock data. This is the on-demand check; threshold crossings
+     * caused by stock changes are alerted by LowStockAlertService.
      * @param partId The ID of the part to check (will check its part number)
      * @throws EntityNotFoundException if part not found
      */
@@ -781,6 +930,18 @@ public class PartService {
 
     // ================ Helper Methods ================
 
+    /**
+     * Reloads a part changed by a conditional UPDATE if this transaction already holds it. The UPDATE
+     * bypasses the persistence context, so the held instance would otherwise be read back with the old
+     * values, or fail its version check if saved. Parts the transaction has not loaded cost no query.
+     */
+    private void refreshIfLoaded(Long partId) {
+        PartEntity part = entityManager.getReference(PartEntity.class, partId);
+        if (entityManager.getEntityManagerFactory().getPersistenceUnitUtil().isLoaded(part)) {
+            entityManager.refresh(part);
+        }
+    }
+
     /**
      * Gets the current authenticated user email from the security context.
      * @return The email of the currently authenticated user
@@ -809,6 +970,59 @@ public class PartService {
         return "system";
     }
 
+    /**
+     * Converts a projected part row (see PartRepository.PART_ROW_SELECT) to the same DTO convertToDto builds
+     * from an entity, using the stock tracking columns joined into the row.
+     */
+    private PartResponseDTO convertToDto(PartRepository.PartRow row) {
+        PartResponseDTO dto = new PartResponseDTO();
+        dto.setId(row.getPartId());
+        dto.setPartNumber(row.getPartNumber());
+        dto.setName(row.getName());
+        dto.setDescription(row.getDescription());
+        dto.setUnitCost(row.getUnitCost());
+        dto.setCurrentStock(1); // Each individual part represents 1 item
+        dto.setSerialNumber(row.getSerialNumber());
+        dto.setPartType(row.getPartType());
+        dto.setIsDeleted(row.getIsDeleted() != null ? row.getIsDeleted() : false);
+        dto.setDateAdded(row.getDateAdded());
+        dto.setDateModified(row.getDateModified());
+        dto.setDatePurchasedByCustomer(row.getDatePurchasedByCustomer());
+        dto.setWarrantyExpiration(row.getWarrantyExpiration());
+        dto.setIsCustomerPurchased(row.getIsCustomerPurchased());
+        dto.setAddedBy(row.getAddedBy());
+        dto.setModifiedBy(row.getModifiedBy());
+        dto.setQuotationPart(row.getQuotationPart());
+        dto.setIsReserved(row.getIsReserved());
+        dto.setReservedQuantity(row.getReservedQuantity());
+        dto.setReservedForTicketId(row.getReservedForTicketId());
+        dto.setSupplierName(row.getSupplierName());
+        dto.setSupplierPartNumber(row.getSupplierPartNumber());
+        dto.setSupplierOrderDate(row.getSupplierOrderDate());
+        dto.setSupplierExpectedDelivery(row.getSupplierExpectedDelivery());
+        dto.setSupplierActualDelivery(row.getSupplierActualDelivery());
+        dto.setAvailableStock(1); // Individual part represents 1 item
+
+        if (row.getLowStockThreshold() != null && row.getCurrentAvailableStock() != null) {
+            dto.setLowStockThreshold(row.getLowStockThreshold());
+            dto.setAvailabilityStatus(PartNumberStockTrackingService.calculateStockStatus(
+                    row.getCurrentAvailableStock(), row.getLowStockThreshold()));
+        } else {
+            dto.setLowStockThreshold(10); // Default threshold
+            dto.setAvailabilityStatus("UNKNOWN");
+        }
+
+        dto.setVersion(row.getVersion());
+        dto.setBrand(row.getBrand());
+        dto.setModel(row.getModel());
+        dto.setCustomerFirstName(row.getCustomerFirstName());
+        dto.setCustomerLastName(row.getCustomerLastName());
+        dto.setCustomerPhone(row.getCustomerPhone());
+        dto.setCustomerEmail(row.getCustomerEmail());
+        dto.setPartPhotoUrl(row.getPartPhotoUrl());
+        return dto;
+    }
+
     /**
      * Helper method to convert Part entity to PartResponseDTO with all calculated fields.
      * @param partEntity The entity to convert
@@ -822,7 +1036,6 @@ public class PartService {
      * Variant that can leverage a pre-fetched stock summary map to avoid N+1 lookups.
      */
     private PartResponseDTO convertToDto(PartEntity partEntity, Map<String, PartNumberStockSummaryDTO> stockSummaryMap) {
-        logger.debug("Converting part entity to DTO: {}", partEntity);
         PartResponseDTO dto = new PartResponseDTO();
         dto.setId(partEntity.getPartId());
         dto.setPartNumber(partEntity.getPartNumber());
@@ -1004,55 +1217,37 @@ public class PartService {
         logger.info("Part photo removed successfully for id: {}", partId);
     }
 
+    private String normalizeFilter(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
     private boolean hasValidPhotoUrl(String url) {
         return url != null && !url.isBlank() && !"0".equals(url);
     }
 
+    /**
+     * Finds the photo shared by a part number: the first active part's valid photo URL, read as a single column.
+     */
     private String resolveSharedPhotoUrl(String partNumber) {
         if (partNumber == null || partNumber.isBlank()) {
             return null;
         }
 
-        return partRepository.findAllByPartNumber(partNumber).stream()
-                .filter(part -> !Boolean.TRUE.equals(part.getIsDeleted()))
-                .map(PartEntity::getPartPhotoUrl)
-                .filter(this::hasValidPhotoUrl)
-                .findFirst()
-                .orElse(null);
+        List<String> urls = partRepository.findSharedPhotoUrls(partNumber, PageRequest.of(0, 1));
+        return urls.isEmpty() ? null : urls.get(0);
     }
 
+    /**
+     * Gives the photo to every active sibling that has none, with one bulk UPDATE instead of loading the group.
+     */
     private void propagatePhotoUrlToSiblings(String partNumber, String photoUrl, Long sourcePartId) {
-        if (!hasValidPhotoUrl(photoUrl)) {
+        if (!hasValidPhotoUrl(photoUrl) || partNumber == null) {
             return;
         }
 
-        List<PartEntity> siblings = partRepository.findAllByPartNumber(partNumber);
-        if (siblings.isEmpty()) {
-            return;
-        }
-
-        String currentUser = getCurrentUserEmail();
-        LocalDateTime now = LocalDateTime.now();
-        boolean updated = false;
-
-        for (PartEntity sibling : siblings) {
-            if (Boolean.TRUE.equals(sibling.getIsDeleted())) {
-                continue;
-            }
-            if (Objects.equals(sibling.getPartId(), sourcePartId)) {
-                continue;
-            }
-            if (!hasValidPhotoUrl(sibling.getPartPhotoUrl())) {
-                sibling.setPartPhotoUrl(photoUrl);
-                sibling.setModifiedBy(currentUser);
-                sibling.setDateModified(now);
-                updated = true;
-            }
-        }
-
-        if (updated) {
-            partRepository.saveAll(siblings);
-        }
+        int updated = partRepository.fillMissingPhotoUrl(partNumber, photoUrl, sourcePartId,
+                getCurrentUserEmail(), LocalDateTime.now());
+        logger.debug("Propagated photo of part number {} to {} sibling parts", partNumber, updated);
     }
 
     public Map<String, Object> verifyWarranty(Long partId) {
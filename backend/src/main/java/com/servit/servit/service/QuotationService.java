@@ -63,6 +63,9 @@ public class QuotationService {
     @Lazy
     private RepairTicketService repairTicketService;
 
+    @Autowired
+    private CustomerActivityService customerActivityService;
+
     public QuotationDTO addQuotation(QuotationDTO dto) {
         try {
             if (dto.getPartIds() == null || dto.getPartIds().isEmpty()) {
@@ -99,7 +102,7 @@ public class QuotationService {
             for (QuotationEntity prior : existingForTicket) {
                 if (!"ARCHIVED".equalsIgnoreCase(prior.getStatus())) {
                     prior.setStatus("ARCHIVED");
-                    quotationRepository.save(prior);
+                    customerActivityService.recordQuotation(quotationRepository.save(prior));
                 }
             }
 
@@ -172,6 +175,7 @@ public class QuotationService {
             entity.setApprovalSummarySentAt(null);
 
             QuotationEntity saved = quotationRepository.save(entity);
+            customerActivityService.recordQuotation(saved);
             logger.info("Quotation created id {} for ticket {}", saved.getQuotationId(), saved.getRepairTicketNumber());
             try {
                 publishAwaitingApprovalEmail(saved.getRepairTicketNumber());
@@ -233,7 +237,7 @@ public class QuotationService {
                     });
             entity.setStatus("REJECTED");
             entity.setRespondedAt(LocalDateTime.now());
-            quotationRepository.save(entity);
+            customerActivityService.recordQuotation(quotationRepository.save(entity));
             logger.info("Quotation denied: {}", quotationId);
             return toDTO(entity);
         } catch (Exception e) {
@@ -249,6 +253,7 @@ public class QuotationService {
                 throw new IllegalArgumentException("Quotation not found");
             }
             quotationRepository.deleteById(quotationId);
+            customerActivityService.removeQuotation(quotationId);
             logger.info("Quotation deleted: {}", quotationId);
         } catch (Exception e) {
             logger.error("Error deleting quotation {}: {}", quotationId, e.getMessage(), e);
@@ -558,6 +563,7 @@ public class QuotationService {
             if (dto.getLastReminderSentAt() != null) entity.setLastReminderSentAt(dto.getLastReminderSentAt());
 
             QuotationEntity saved = quotationRepository.save(entity);
+            customerActivityService.recordQuotation(saved);
             logger.info("Quotation updated: {}", saved.getQuotationId());
             return toDTO(saved);
         } catch (Exception e) {
@@ -591,6 +597,7 @@ public class QuotationService {
         entity.setReminderSendCount(null);
 
         QuotationEntity saved = quotationRepository.save(entity);
+        customerActivityService.recordQuotation(saved);
         notifyTechnicianOfApproval(saved);
         logger.info("Quotation approved: {}", saved.getQuotationId());
         
@@ -0,0 +1,256 @@
+package com.servit.servit.service;
+
+import com.servit.servit.entity.RepairTicketEntity;
+import com.servit.servit.repository.RepairTicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Ranked repair ticket search backed by a MySQL FULLTEXT index over the ticket number, customer name and
+ * email, device serial number, model and brand, and reported issue.
+ * Each word of the search term must match the start of a word in one of those columns (boolean mode,
+ * prefix operator), so "IORT-0001" finds IORT-000123. Words shorter than innodb_ft_min_token_size are not
+ * in the index and are left out, as is the IORT of a ticket number, which every ticket has.
+ * A term that looks like a ticket or serial number (one word containing a digit), or that has no word the
+ * index can answer, also finds tickets whose ticket or serial number starts with it, through the B-tree
+ * indexes on those columns; the ticket IDs of the lookups are merged with UNION.
+ * A number alone is read as a ticket number, so "123" finds IORT-000123. Nothing matches in the middle of
+ * a word: every lookup is an index range, so a search reads the matching tickets only.
+ * Results are ranked by relevance, with tickets whose ticket or serial number starts with the term
+ * first. The page and its total are read in one query over the same lookups.
+ * <p>
+ * The index is created at startup if missing. Until it exists, and for blank terms, the substring LIKE
+ * queries of RepairTicketRepository are used. With repair.ticket.search.like-fallback-on-empty a search
+ * with no hits also falls back to LIKE, to find matches in the middle of words at the cost of a full scan.
+ */
+@Service
+public class RepairTicketSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepairTicketSearchService.class);
+
+    private static final String INDEX_NAME = "ft_repair_ticket_search";
+    private static final String INDEXED_COLUMNS = "ticket_number, customer_first_name, customer_last_name, customer_email, " +
+            "device_serial_number, device_model, device_brand, reported_issue";
+    private static final String MATCH = "MATCH(" + INDEXED_COLUMNS + ") AGAINST(? IN BOOLEAN MODE)";
+
+    // Added to the relevance of tickets whose ticket or serial number starts with the term
+    private static final int IDENTIFIER_PREFIX_BOOST = 100;
+
+    // The letters of every ticket number; as a search word it would match the whole table
+    private static final String TICKET_NUMBER_WORD =
+            DocumentNumberService.REPAIR_TICKET_PREFIX.replaceAll("[^\\p{L}\\p{N}]", "").toLowerCase(Locale.ROOT);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RepairTicketRepository repairTicketRepository;
+
+    @Value("${repair.ticket.search.fulltext.enabled:true}")
+    private boolean fullTextEnabled;
+
+    @Value("${repair.ticket.search.like-fallback-on-empty:false}")
+    private boolean likeFallbackOnEmpty;
+
+    private volatile boolean indexAvailable = false;
+    private volatile int minTokenSize = 3;
+
+    @Autowired
+    public RepairTicketSearchService(JdbcTemplate jdbcTemplate, RepairTicketRepository repairTicketRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.repairTicketRepository = repairTicketRepository;
+    }
+
+    /**
+     * Creates the FULLTEXT index if it does not exist yet. The first creation rebuilds repair_ticket,
+     * which takes a while on a large table; searches use LIKE until it is done.
+     * When several instances start together only one ALTER TABLE succeeds; the others find the index
+     * it created and use it as well.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        if (!fullTextEnabled) {
+            logger.info("Repair ticket full-text search disabled, using LIKE search");
+            return;
+        }
+        try {
+            if (!indexExists()) {
+                long start = System.currentTimeMillis();
+                try {
+                    jdbcTemplate.execute("ALTER TABLE repair_ticket ADD FULLTEXT INDEX " + INDEX_NAME + " (" + INDEXED_COLUMNS + ")");
+                    logger.info("Created repair ticket full-text index in {} ms", System.currentTimeMillis() - start);
+                } catch (DataAccessException e) {
+                    // Another instance starting at the same time may have created it first
+                    if (!indexExists()) {
+                        throw e;
+                    }
+                    logger.info("Repair ticket full-text index was created by another instance");
+                }
+            }
+            Integer tokenSize = jdbcTemplate.queryForObject("SELECT @@innodb_ft_min_token_size", Integer.class);
+            if (tokenSize != null) {
+                minTokenSize = tokenSize;
+            }
+            indexAvailable = true;
+        } catch (Exception e) {
+            logger.error("Repair ticket full-text index unavailable, using LIKE search: {}", e.getMessage(), e);
+        }
+    }
+
+    public Page<RepairTicketEntity> search(String searchTerm, Pageable pageable) {
+        return search(searchTerm, null, null, pageable,
+                () -> repairTicketRepository.searchRepairTickets(searchTerm, pageable));
+    }
+
+    /**
+     * @param normalizedEmail Customer email as produced by RepairTicketEntity.normalizeEmail
+     */
+    public Page<RepairTicketEntity> searchByCustomerEmail(String normalizedEmail, String searchTerm, Pageable pageable) {
+        return search(searchTerm, "r.customer_email_normalized = ?", normalizedEmail, pageable,
+                () -> repairTicketRepository.searchRepairTicketsByEmail(normalizedEmail, searchTerm, pageable));
+    }
+
+    public Page<RepairTicketEntity> searchByTechnicianEmail(String technicianEmail, String searchTerm, Pageable pageable) {
+        return search(searchTerm, "r.technician_email = ?", technicianEmail, pageable,
+                () -> repairTicketRepository.searchRepairTicketsByTechnicianEmail(technicianEmail, searchTerm, pageable));
+    }
+
+    // ================ Helper Methods ================
+
+    private Page<RepairTicketEntity> search(String searchTerm, String filter, String filterValue, Pageable pageable,
+                                            Supplier<Page<RepairTicketEntity>> likeSearch) {
+        if (!indexAvailable || searchTerm == null || searchTerm.isBlank()) {
+            return likeSearch.get();
+        }
+        String term = searchTerm.trim();
+        boolean identifier = isIdentifier(term);
+        String booleanQuery = toBooleanQuery(term, identifier);
+
+        String scope = filter != null ? " AND " + filter : "";
+        List<String> lookups = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (booleanQuery != null) {
+            lookups.add("SELECT r.repair_ticket_id, " + MATCH + " AS relevance, 0 AS boost FROM repair_ticket r WHERE " + MATCH + scope);
+            args.add(booleanQuery);
+            addLookup(args, booleanQuery, filter, filterValue);
+        }
+        if (identifier || booleanQuery == null) {
+            lookups.add(prefixLookup("r.ticket_number", scope));
+            addLookup(args, escapeLike(toTicketNumber(term)) + "%", filter, filterValue);
+            lookups.add(prefixLookup("r.device_serial_number", scope));
+            addLookup(args, escapeLike(term) + "%", filter, filterValue);
+        }
+        // One row per ticket, scored by relevance plus the boost of a prefix lookup that found it
+        String ranked = "SELECT c.repair_ticket_id, SUM(c.relevance) + MAX(c.boost) AS score FROM (" +
+                String.join(" UNION ALL ", lookups) + ") c GROUP BY c.repair_ticket_id";
+
+        // The total comes with the page, as every match is scored to rank the page anyway
+        List<Long> ids = new ArrayList<>();
+        long[] total = {0};
+        List<Object> pageArgs = new ArrayList<>(args);
+        pageArgs.add(pageable.getPageSize());
+        pageArgs.add(pageable.getOffset());
+        jdbcTemplate.query("SELECT t.repair_ticket_id, COUNT(*) OVER () FROM (" + ranked + ") t" +
+                        " ORDER BY t.score DESC, t.repair_ticket_id DESC LIMIT ? OFFSET ?",
+                (RowCallbackHandler) rs -> {
+                    ids.add(rs.getLong(1));
+                    total[0] = rs.getLong(2);
+                }, pageArgs.toArray());
+        if (ids.isEmpty() && pageable.getOffset() > 0) {
+            // Past the last page
+            Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (" + ranked + ") t", Long.class, args.toArray());
+            total[0] = count != null ? count : 0;
+        }
+        if (total[0] == 0) {
+            return likeFallbackOnEmpty ? likeSearch.get() : Page.empty(pageable);
+        }
+        return new PageImpl<>(loadInOrder(ids), pageable, total[0]);
+    }
+
+    private static String prefixLookup(String column, String scope) {
+        return "SELECT r.repair_ticket_id, 0 AS relevance, " + IDENTIFIER_PREFIX_BOOST + " AS boost FROM repair_ticket r WHERE " +
+                column + " LIKE ?" + scope;
+    }
+
+    private static void addLookup(List<Object> args, String value, String filter, String filterValue) {
+        args.add(value);
+        if (filter != null) {
+            args.add(filterValue);
+        }
+    }
+
+    private boolean indexExists() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = 'repair_ticket' AND index_name = ?",
+                Integer.class, INDEX_NAME);
+        return existing != null && existing > 0;
+    }
+
+    /**
+     * A single word with a digit in it, such as a ticket number ("IORT-000123", "123") or a serial number.
+     */
+    private static boolean isIdentifier(String term) {
+        return term.chars().noneMatch(Character::isWhitespace) && term.chars().anyMatch(Character::isDigit);
+    }
+
+    /**
+     * A number alone is the numeric part of a ticket number ("123" is IORT-000123); other terms are used as typed.
+     */
+    private static String toTicketNumber(String term) {
+        if (term.chars().allMatch(Character::isDigit) && term.length() <= 6) {
+            return DocumentNumberService.REPAIR_TICKET_PREFIX + String.format("%06d", Integer.parseInt(term));
+        }
+        return term;
+    }
+
+    private List<RepairTicketEntity> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, RepairTicketEntity> byId = new HashMap<>();
+        for (RepairTicketEntity ticket : repairTicketRepository.findByRepairTicketIdIn(ids)) {
+            byId.put(ticket.getRepairTicketId(), ticket);
+        }
+        List<RepairTicketEntity> tickets = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            RepairTicketEntity ticket = byId.get(id);
+            if (ticket != null) {
+                tickets.add(ticket);
+            }
+        }
+        return tickets;
+    }
+
+    /**
+     * Turns the search term into a boolean-mode query requiring every word as a prefix ("+cracked* +scree*").
+     * Words shorter than the index tokens are left out, as requiring them would never match; so is the IORT
+     * of an identifier, whose ticket number lookup already covers it.
+     * @return The query, or null if no word of the term is in the index
+     */
+    private String toBooleanQuery(String searchTerm, boolean identifier) {
+        StringBuilder query = new StringBuilder();
+        for (String word : searchTerm.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() < minTokenSize || (identifier && word.equals(TICKET_NUMBER_WORD))) {
+                continue;
+            }
+            query.append(query.length() > 0 ? " +" : "+").append(word).append('*');
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
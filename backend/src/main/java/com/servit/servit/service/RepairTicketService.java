@@ -5,11 +5,14 @@ import com.servit.servit.dto.repairticket.*;
 import com.servit.servit.entity.*;
 import com.servit.servit.enumeration.RepairStatusEnum;
 import com.servit.servit.enumeration.RepairTicketDeviceType;
+import com.servit.servit.enumeration.MediaStatusEnum;
 import com.servit.servit.repository.RepairTicketRepository;
 import com.servit.servit.repository.RepairStatusHistoryRepository;
 import com.servit.servit.repository.UserRepository;
 import com.servit.servit.util.FileUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import jakarta.persistence.EntityNotFoundException;
@@ -19,7 +22,6 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -29,15 +31,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.PageImpl;
 
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import com.servit.servit.dto.repairticket.UpdateRepairStatusWithPhotosRequestDTO;
 import com.servit.servit.entity.AfterRepairPhotoEntity;
-import com.servit.servit.repository.QuotationRepository;
-import com.servit.servit.entity.QuotationEntity;
 
 @Service
 public class RepairTicketService {
@@ -67,15 +71,46 @@ public class RepairTicketService {
     private QuotationService quotationService;
 
     @Autowired
-    private QuotationRepository quotationRepository;
+    private DocumentNumberService documentNumberService;
+
+    @Autowired
+    private MediaUploadService mediaUploadService;
+
+    @Autowired
+    private RepairTicketSearchService repairTicketSearchService;
+
+    @Autowired
+    private CustomerActivityService customerActivityService;
+
+    @Autowired
+    private MediaProcessingService mediaProcessingService;
 
     private static final Logger logger = LoggerFactory.getLogger(RepairTicketService.class);
 
+    // Ticket ids per photo URL lookup when mapping unpaged listings
+    private static final int PHOTO_LOOKUP_CHUNK_SIZE = 500;
+
     public RepairTicketService(RepairTicketRepository repairTicketRepository, UserRepository userRepository) {
         this.repairTicketRepository = repairTicketRepository;
         this.userRepository = userRepository;
     }
 
+    /**
+     * Fills customer_email_normalized for tickets created before the column existed, so customer
+     * lookups find them. Only rows still NULL are touched, so later startups are a no-op.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillNormalizedCustomerEmails() {
+        try {
+            int updated = repairTicketRepository.backfillCustomerEmailNormalized();
+            if (updated > 0) {
+                logger.info("Normalized customer email of {} repair tickets", updated);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to backfill normalized customer emails: {}", e.getMessage(), e);
+        }
+    }
+
     public GetRepairTicketResponseDTO getRepairTicket(String ticketNumber) {
         logger.info("Fetching repair ticket with ticketNumber: {}", ticketNumber);
         try {
@@ -141,50 +176,69 @@ public class RepairTicketService {
             repairTicket.setCheckInDate(LocalDateTime.now());
             repairTicket.setTicketNumber(req.getTicketNumber());
 
-            AtomicInteger counter = new AtomicInteger(1);
             if (req.getRepairPhotos() != null && !req.getRepairPhotos().isEmpty()) {
-                List<RepairPhotoEntity> photoEntities = new java.util.ArrayList<>();
+                List<MultipartFile> validPhotos = new java.util.ArrayList<>();
                 for (MultipartFile photo : req.getRepairPhotos()) {
-                    if (photo == null || photo.isEmpty()) {
+                    if (photo == null || photo.isEmpty() || photo.getSize() == 0) {
                         logger.warn("Skipping null or empty photo for ticket: {}", req.getTicketNumber());
                         continue;
                     }
-                    try {
-                        if (photo.getSize() == 0) {
-                            logger.warn("Skipping empty photo (size 0) for ticket: {}", req.getTicketNumber());
-                            continue;
-                        }
-                        int photoIndex = counter.getAndIncrement();
-                        String path = fileUtil.saveRepairPhoto(photo, repairTicket.getTicketNumber(), photoIndex);
+                    validPhotos.add(photo);
+                }
+                if (validPhotos.isEmpty()) {
+                    logger.warn("No valid photos were processed for ticket: {}", req.getTicketNumber());
+                    throw new IllegalArgumentException("At least one valid repair photo is required");
+                }
+
+                // Photos are only spooled here; compression and upload run after commit (see MediaProcessingService)
+                List<RepairPhotoEntity> photoEntities = new java.util.ArrayList<>();
+                LocalDateTime spooledAt = LocalDateTime.now();
+                try {
+                    for (int i = 0; i < validPhotos.size(); i++) {
+                        int photoIndex = i + 1;
                         RepairPhotoEntity rp = new RepairPhotoEntity();
-                        rp.setPhotoUrl(path);
+                        rp.setPhotoIndex(photoIndex);
+                        rp.setSpoolPath(mediaProcessingService.spool(validPhotos.get(i), repairTicket.getTicketNumber(), photoIndex));
+                        rp.setSpoolContentType(validPhotos.get(i).getContentType());
+                        rp.setPhotoStatus(MediaStatusEnum.PENDING);
+                        rp.setProcessingAttempts(0);
+                        rp.setNextAttemptAt(spooledAt);
                         rp.setRepairTicket(repairTicket);
                         photoEntities.add(rp);
-                        logger.info("Successfully saved repair photo {} for ticket: {}", photoIndex, req.getTicketNumber());
-                    } catch (IllegalArgumentException e) {
-                        logger.error("Invalid photo format for ticket {}: {}", req.getTicketNumber(), e.getMessage());
-                        throw new IllegalArgumentException("Invalid photo format: " + e.getMessage(), e);
-                    } catch (IOException e) {
-                        logger.error("IO error saving repair photo for ticket {}: {}", req.getTicketNumber(), e.getMessage(), e);
-                        throw new RuntimeException("Failed to save repair photo: " + e.getMessage(), e);
-                    } catch (Exception e) {
-                        logger.error("Unexpected error saving repair photo for ticket {}: {}", req.getTicketNumber(), e.getMessage(), e);
-                        throw new RuntimeException("Failed to save repair photo: " + e.getMessage(), e);
                     }
+                } catch (IllegalArgumentException e) {
+                    logger.error("Invalid photo format for ticket {}: {}", req.getTicketNumber(), e.getMessage());
+                    mediaProcessingService.discardSpooled(photoEntities);
+                    throw new IllegalArgumentException("Invalid photo format: " + e.getMessage(), e);
+                } catch (IOException e) {
+                    logger.error("IO error spooling repair photos for ticket {}: {}", req.getTicketNumber(), e.getMessage(), e);
+                    mediaProcessingService.discardSpooled(photoEntities);
+                    throw new RuntimeException("Failed to save repair photo: " + e.getMessage(), e);
                 }
-                if (photoEntities.isEmpty()) {
-                    logger.warn("No valid photos were processed for ticket: {}", req.getTicketNumber());
-                    throw new IllegalArgumentException("At least one valid repair photo is required");
-                }
+                logger.info("Spooled {} repair photos for ticket: {}", photoEntities.size(), req.getTicketNumber());
                 repairTicket.setRepairPhotos(photoEntities);
             }
 
-            RepairTicketEntity saved = repairTicketRepository.save(repairTicket);
+            RepairTicketEntity saved;
+            try {
+                saved = repairTicketRepository.save(repairTicket);
+            } catch (RuntimeException e) {
+                if (repairTicket.getRepairPhotos() != null) {
+                    mediaProcessingService.discardSpooled(repairTicket.getRepairPhotos());
+                }
+                throw e;
+            }
+            customerActivityService.recordCheckIn(saved);
+            if (saved.getRepairPhotos() != null) {
+                mediaProcessingService.processAfterCommit(saved.getRepairPhotos().stream()
+                        .map(RepairPhotoEntity::getRepairPhotoId)
+                        .toList());
+            }
             try {
                 RepairStatusHistoryEntity initHistory = new RepairStatusHistoryEntity();
                 initHistory.setRepairTicket(saved);
                 initHistory.setRepairStatusEnum(RepairStatusEnum.RECEIVED);
-                repairStatusHistoryRepository.save(initHistory);
+                customerActivityService.recordStatusChange(repairStatusHistoryRepository.save(initHistory));
             } catch (Exception ex) {
                 logger.error("Failed to persist initial history for ticket {}", repairTicket.getTicketNumber(), ex);
             }
@@ -198,24 +252,7 @@ public class RepairTicketService {
     }
 
     public String generateRepairTicketNumber() {
-        logger.info("Generating new repair ticket number.");
-        String lastTicketNumber = repairTicketRepository.findLastTicketNumber();
-        int nextId = 1;
-
-        if (lastTicketNumber != null && lastTicketNumber.startsWith("IORT-")) {
-            try {
-                String numericPart = lastTicketNumber.substring(5);
-                nextId = Integer.parseInt(numericPart) + 1;
-                logger.info("Last ticket number found: {}. Next ticket number will be: IORT-{}", lastTicketNumber, String.format("%06d", nextId));
-            } catch (NumberFormatException e) {
-                logger.error("Failed to parse numeric part of last ticket number: {}", lastTicketNumber, e);
-                throw new RuntimeException("Invalid last ticket number format: " + lastTicketNumber, e);
-            }
-        } else {
-            logger.info("No previous ticket number found. Starting from IORT-000001.");
-        }
-
-        String newTicketNumber = "IORT-" + String.format("%06d", nextId);
+        String newTicketNumber = documentNumberService.nextRepairTicketNumber();
         logger.info("Generated new ticket number: {}", newTicketNumber);
         return newTicketNumber;
     }
@@ -287,11 +324,8 @@ public class RepairTicketService {
     public List<GetRepairTicketResponseDTO> getAllRepairTickets() {
         logger.info("Fetching all repair tickets.");
         try {
-            List<GetRepairTicketResponseDTO> tickets = repairTicketRepository
-                .findAll(Sort.by(Sort.Direction.DESC, "repairTicketId"))
-                .stream()
-                .map(this::mapToGetRepairTicketResponseDTO)
-                .collect(Collectors.toList());
+            List<GetRepairTicketResponseDTO> tickets = mapToGetRepairTicketResponseDTOs(repairTicketRepository
+                .findAll(Sort.by(Sort.Direction.DESC, "repairTicketId")));
             logger.info("Fetched {} repair tickets.", tickets.size());
             return tickets;
         } catch (Exception e) {
@@ -310,9 +344,8 @@ public class RepairTicketService {
                 Sort.by(Sort.Direction.DESC, "repairTicketId")
             );
             
-            Page<GetRepairTicketResponseDTO> tickets = repairTicketRepository
-                .findAll(pageableWithSort)
-                .map(this::mapToGetRepairTicketResponseDTO);
+            Page<GetRepairTicketResponseDTO> tickets = mapToGetRepairTicketResponseDTOs(repairTicketRepository
+                .findAll(pageableWithSort));
             logger.info("Fetched {} repair tickets (page {} of {}).", 
                 tickets.getContent().size(), pageable.getPageNumber(), tickets.getTotalPages());
             return tickets;
@@ -325,12 +358,8 @@ public class RepairTicketService {
     public List<GetRepairTicketResponseDTO> getAllRepairTicketsByCustomer(String email) {
         logger.info("Fetching repair tickets for customer email: {}", email);
         try {
-            List<GetRepairTicketResponseDTO> tickets = repairTicketRepository
-                .findAll(org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC, "repairTicketId"))
-                .stream()
-                .filter(ticket -> email.equalsIgnoreCase(ticket.getCustomerEmail()))
-                .map(this::mapToGetRepairTicketResponseDTO)
-                .collect(Collectors.toList());
+            List<GetRepairTicketResponseDTO> tickets = mapToGetRepairTicketResponseDTOs(repairTicketRepository
+                .findByCustomerEmailNormalizedOrderByRepairTicketIdDesc(RepairTicketEntity.normalizeEmail(email)));
             logger.info("Fetched {} repair tickets for customer email: {}", tickets.size(), email);
             return tickets;
         } catch (Exception e) {
@@ -347,8 +376,8 @@ public class RepairTicketService {
                 pageable.getPageSize(),
                 Sort.by(Sort.Direction.DESC, "repairTicketId")
             );
-            Page<GetRepairTicketResponseDTO> tickets = repairTicketRepository.findByCustomerEmail(email, pageableWithSort)
-                    .map(this::mapToGetRepairTicketResponseDTO);
+            Page<GetRepairTicketResponseDTO> tickets = mapToGetRepairTicketResponseDTOs(
+                    repairTicketRepository.findByCustomerEmailNormalized(RepairTicketEntity.normalizeEmail(email), pageableWithSort));
             logger.info("Fetched {} repair tickets for customer email: {} (page {} of {})", tickets.getContent().size(), email, pageable.getPageNumber(), tickets.getTotalPages());
             return tickets;
         } catch (Exception e) {
@@ -360,8 +389,8 @@ public class RepairTicketService {
     public Page<GetRepairTicketResponseDTO> searchRepairTickets(String searchTerm, Pageable pageable) {
         logger.info("Searching repair tickets with searchTerm: {}", searchTerm);
         try {
-            Page<GetRepairTicketResponseDTO> result = repairTicketRepository.searchRepairTickets(searchTerm, pageable)
-                    .map(this::mapToGetRepairTicketResponseDTO);
+            Page<GetRepairTicketResponseDTO> result = mapToGetRepairTicketResponseDTOs(
+                    repairTicketSearchService.search(searchTerm, pageable));
             logger.info("Found {} repair tickets for searchTerm: {}", result.getTotalElements(), searchTerm);
             return result;
         } catch (Exception e) {
@@ -373,8 +402,8 @@ public class RepairTicketService {
     public Page<GetRepairTicketResponseDTO> searchRepairTicketsByCustomerEmail(String email, String searchTerm, Pageable pageable) {
         logger.info("Searching repair tickets for email: {} with searchTerm: {}", email, searchTerm);
         try {
-            Page<GetRepairTicketResponseDTO> result = repairTicketRepository.searchRepairTicketsByEmail(email, searchTerm, pageable)
-                    .map(this::mapToGetRepairTicketResponseDTO);
+            Page<GetRepairTicketResponseDTO> result = mapToGetRepairTicketResponseDTOs(
+                    repairTicketSearchService.searchByCustomerEmail(RepairTicketEntity.normalizeEmail(email), searchTerm, pageable));
             logger.info("Found {} repair tickets for email: {} and searchTerm: {}", result.getTotalElements(), email, searchTerm);
             return result;
         } catch (Exception e) {
@@ -386,8 +415,8 @@ public class RepairTicketService {
     public Page<GetRepairTicketResponseDTO> searchRepairTicketsByTechnicianEmail(String email, String searchTerm, Pageable pageable) {
         logger.info("Searching repair tickets assigned to technician: {} with searchTerm: {}", email, searchTerm);
         try {
-            Page<GetRepairTicketResponseDTO> result = repairTicketRepository.searchRepairTicketsByTechnicianEmail(email, searchTerm, pageable)
-                    .map(this::mapToGetRepairTicketResponseDTO);
+            Page<GetRepairTicketResponseDTO> result = mapToGetRepairTicketResponseDTOs(
+                    repairTicketSearchService.searchByTechnicianEmail(email, searchTerm, pageable));
             logger.info("Found {} repair tickets for technician email: {} and searchTerm: {}", result.getTotalElements(), email, searchTerm);
             return result;
         } catch (Exception e) {
@@ -474,6 +503,9 @@ public class RepairTicketService {
 
         // Save the updated repair ticket
         RepairTicketEntity savedTicket = repairTicketRepository.save(repairTicket);
+        // The merge put the saved copy of the new history row last
+        List<RepairStatusHistoryEntity> savedHistory = savedTicket.getRepairStatusHistory();
+        customerActivityService.recordStatusChange(savedHistory.get(savedHistory.size() - 1));
 
         // Broadcast repair ticket update to all connected clients via WebSocket
         try {
@@ -549,18 +581,19 @@ public class RepairTicketService {
                 });
 
         // Save photos
-        AtomicInteger counter = new AtomicInteger(1);
-        List<AfterRepairPhotoEntity> afterPhotos = photos.stream().map(photo -> {
-            try {
-                String photoPath = fileUtil.saveAfterRepairPhoto(photo, repairTicket.getTicketNumber(), counter.getAndIncrement());
-                AfterRepairPhotoEntity entity = new AfterRepairPhotoEntity();
-                entity.setPhotoUrl(photoPath);
-                entity.setRepairTicket(repairTicket);
-                return entity;
-            } catch (IOException e) {
-                logger.error("Failed to save after-repair photo for ticket: {}", repairTicket.getTicketNumber(), e);
-                throw new RuntimeException("Failed to save after-repair photo. Please retry.", e);
-            }
+        List<String> photoPaths;
+        try {
+            photoPaths = mediaUploadService.saveAll(photos,
+                    (photo, index) -> fileUtil.saveAfterRepairPhoto(photo, repairTicket.getTicketNumber(), index));
+        } catch (IOException e) {
+            logger.error("Failed to save after-repair photo for ticket: {}", repairTicket.getTicketNumber(), e);
+            throw new RuntimeException("Failed to save after-repair photo. Please retry.", e);
+        }
+        List<AfterRepairPhotoEntity> afterPhotos = photoPaths.stream().map(photoPath -> {
+            AfterRepairPhotoEntity entity = new AfterRepairPhotoEntity();
+            entity.setPhotoUrl(photoPath);
+            entity.setRepairTicket(repairTicket);
+            return entity;
         }).collect(Collectors.toList());
 
         // Attach to ticket
@@ -608,8 +641,8 @@ public class RepairTicketService {
     public Page<GetRepairTicketResponseDTO> getActiveRepairTickets(Pageable pageable) {
         logger.info("Fetching active repair tickets");
         try {
-            Page<GetRepairTicketResponseDTO> activeTickets = repairTicketRepository.findActiveRepairTickets(pageable)
-                    .map(this::mapToGetRepairTicketResponseDTO);
+            Page<GetRepairTicketResponseDTO> activeTickets = mapToGetRepairTicketResponseDTOs(
+                    repairTicketRepository.findActiveRepairTickets(pageable));
             logger.info("Found {} active repair tickets", activeTickets.getTotalElements());
             return activeTickets;
         } catch (Exception e) {
@@ -632,10 +665,7 @@ public class RepairTicketService {
 
     public List<GetRepairTicketResponseDTO> getRepairTicketsByStatus(String status) {
         RepairStatusEnum repairStatus = RepairStatusEnum.valueOf(status);
-        return repairTicketRepository.findByRepairStatus(repairStatus)
-                .stream()
-                .map(this::mapToGetRepairTicketResponseDTO)
-                .collect(Collectors.toList());
+        return mapToGetRepairTicketResponseDTOs(repairTicketRepository.findByRepairStatus(repairStatus));
     }
 
     public Page<GetRepairTicketResponseDTO> getRepairTicketsByStatusPageable(String status, Pageable pageable) {
@@ -645,8 +675,7 @@ public class RepairTicketService {
             pageable.getPageSize(),
             Sort.by(Sort.Direction.DESC, "repairTicketId")
         );
-        return repairTicketRepository.findByRepairStatus(repairStatus, pageableWithSort)
-                .map(this::mapToGetRepairTicketResponseDTO);
+        return mapToGetRepairTicketResponseDTOs(repairTicketRepository.findByRepairStatus(repairStatus, pageableWithSort));
     }
 
     public Page<GetRepairTicketResponseDTO> getRepairTicketsByStatusPageableAssignedToTech(String status, String email, Pageable pageable) {
@@ -656,11 +685,55 @@ public class RepairTicketService {
             pageable.getPageSize(),
             Sort.by(Sort.Direction.DESC, "repairTicketId")
         );
-        return repairTicketRepository.findByRepairStatusAndTechnicianEmail_Email(repairStatus, email, pageableWithSort)
-                .map(this::mapToGetRepairTicketResponseDTO);
+        return mapToGetRepairTicketResponseDTOs(
+                repairTicketRepository.findByRepairStatusAndTechnicianEmail_Email(repairStatus, email, pageableWithSort));
+    }
+
+    private Page<GetRepairTicketResponseDTO> mapToGetRepairTicketResponseDTOs(Page<RepairTicketEntity> tickets) {
+        return new PageImpl<>(mapToGetRepairTicketResponseDTOs(tickets.getContent()), tickets.getPageable(), tickets.getTotalElements());
+    }
+
+    /**
+     * Maps a listing of tickets. The technician comes with the tickets (repository entity graph), and the
+     * photo URLs of all tickets are loaded with one IN query per photo table, so a page costs the same
+     * number of queries whatever its size instead of two lazy collection loads per ticket.
+     */
+    private List<GetRepairTicketResponseDTO> mapToGetRepairTicketResponseDTOs(List<RepairTicketEntity> tickets) {
+        Map<Long, List<String>> repairPhotoUrls = new HashMap<>();
+        Map<Long, List<String>> afterRepairPhotoUrls = new HashMap<>();
+        List<Long> ticketIds = tickets.stream().map(RepairTicketEntity::getRepairTicketId).toList();
+        for (int from = 0; from < ticketIds.size(); from += PHOTO_LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = ticketIds.subList(from, Math.min(from + PHOTO_LOOKUP_CHUNK_SIZE, ticketIds.size()));
+            groupPhotoUrls(repairTicketRepository.findRepairPhotoUrlsByTicketIds(chunk), repairPhotoUrls);
+            groupPhotoUrls(repairTicketRepository.findAfterRepairPhotoUrlsByTicketIds(chunk), afterRepairPhotoUrls);
+        }
+        return tickets.stream()
+                .map(ticket -> mapToGetRepairTicketResponseDTO(ticket,
+                        repairPhotoUrls.getOrDefault(ticket.getRepairTicketId(), new ArrayList<>()),
+                        afterRepairPhotoUrls.getOrDefault(ticket.getRepairTicketId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    private void groupPhotoUrls(List<Object[]> rows, Map<Long, List<String>> urlsByTicket) {
+        for (Object[] row : rows) {
+            urlsByTicket.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
     }
 
     private GetRepairTicketResponseDTO mapToGetRepairTicketResponseDTO(RepairTicketEntity repairTicket) {
+        return mapToGetRepairTicketResponseDTO(repairTicket,
+                repairTicket.getRepairPhotos().stream()
+                        .map(RepairPhotoEntity::getPhotoUrl)
+                        .filter(Objects::nonNull) // Photos still being processed have no URL yet
+                        .collect(Collectors.toList()),
+                repairTicket.getAfterRepairPhotos() != null ? repairTicket.getAfterRepairPhotos().stream()
+                        .map(AfterRepairPhotoEntity::getPhotoUrl)
+                        .collect(Collectors.toList()) : null);
+    }
+
+    private GetRepairTicketResponseDTO mapToGetRepairTicketResponseDTO(RepairTicketEntity repairTicket,
+                                                                       List<String> repairPhotoUrls,
+                                                                       List<String> afterRepairPhotoUrls) {
         GetRepairTicketResponseDTO dto = new GetRepairTicketResponseDTO();
         dto.setTicketNumber(repairTicket.getTicketNumber());
         dto.setCustomerFirstName(repairTicket.getCustomerFirstName());
@@ -680,12 +753,8 @@ public class RepairTicketService {
         dto.setReportedIssue(repairTicket.getReportedIssue());
         dto.setRepairStatus(repairTicket.getRepairStatus().name());
         dto.setCheckInDate(LocalDate.from(repairTicket.getCheckInDate()));
-        dto.setRepairPhotosUrls(repairTicket.getRepairPhotos().stream()
-                .map(RepairPhotoEntity::getPhotoUrl)
-                .collect(Collectors.toList()));
-        dto.setAfterRepairPhotosUrls(repairTicket.getAfterRepairPhotos() != null ? repairTicket.getAfterRepairPhotos().stream()
-                .map(AfterRepairPhotoEntity::getPhotoUrl)
-                .collect(Collectors.toList()) : null);
+        dto.setRepairPhotosUrls(repairPhotoUrls);
+        dto.setAfterRepairPhotosUrls(afterRepairPhotoUrls);
         dto.setRepairTicketId(repairTicket.getRepairTicketId());
         return dto;
     }
@@ -719,118 +788,20 @@ public class RepairTicketService {
     public Page<RecentUpdateDTO> getRecentUpdatesForCustomer(String email, Pageable pageable) {
         logger.info("Fetching recent updates for customer: {}", email);
         try {
-            List<RecentUpdateDTO> allUpdates = new java.util.ArrayList<>();
-
-            // 1. Get ticket creation events
-            List<RepairTicketEntity> customerTickets = repairTicketRepository.findByCustomerEmail(email);
-            for (RepairTicketEntity ticket : customerTickets) {
-                if (ticket.getCheckInDate() != null) {
-                    RecentUpdateDTO update = new RecentUpdateDTO();
-                    update.setEventType("TICKET_CREATED");
-                    update.setTicketNumber(ticket.getTicketNumber());
-                    update.setMessage("Ticket created");
-                    update.setTimestamp(ticket.getCheckInDate());
-                    update.setStatus(ticket.getRepairStatus() != null ? ticket.getRepairStatus().name() : null);
-                    update.setUpdatedBy(ticket.getTechnicianName());
-                    allUpdates.add(update);
-                }
-            }
-
-            // 2. Get status change events
-            List<RepairStatusHistoryEntity> statusHistory = repairStatusHistoryRepository
-                    .findByRepairTicketCustomerEmailOrderByTimestampDesc(email);
-            for (RepairStatusHistoryEntity history : statusHistory) {
-                RecentUpdateDTO update = new RecentUpdateDTO();
-                update.setEventType("STATUS_CHANGED");
-                update.setTicketNumber(history.getRepairTicket().getTicketNumber());
-                String statusName = history.getRepairStatusEnum() != null ? history.getRepairStatusEnum().name() : "";
-                String message = getStatusChangeMessage(statusName);
-                update.setMessage(message);
-                update.setTimestamp(history.getTimestamp());
-                update.setStatus(statusName);
-                update.setUpdatedBy(history.getRepairTicket().getTechnicianName());
-                allUpdates.add(update);
-            }
-
-            // 3. Get quotation events
-            for (RepairTicketEntity ticket : customerTickets) {
-                List<QuotationEntity> quotations = quotationRepository.findByRepairTicketNumber(ticket.getTicketNumber());
-                for (QuotationEntity quotation : quotations) {
-                    RecentUpdateDTO update = new RecentUpdateDTO();
-                    update.setTicketNumber(ticket.getTicketNumber());
-                    LocalDateTime quoteTimestamp = quotation.getCreatedAt();
-                    
-                    if ("APPROVED".equalsIgnoreCase(quotation.getStatus()) || "DENIED".equalsIgnoreCase(quotation.getStatus())) {
-                        // For approved/denied, use respondedAt if available, otherwise createdAt
-                        if (quotation.getRespondedAt() != null) {
-                            quoteTimestamp = quotation.getRespondedAt();
-                        }
-                    }
-                    
-                    if (quoteTimestamp == null) {
-                        quoteTimestamp = LocalDateTime.now();
-                    }
-                    
-                    if ("PENDING".equalsIgnoreCase(quotation.getStatus())) {
-                        update.setEventType("QUOTATION_CREATED");
-                        update.setMessage("Quotation created");
-                    } else if ("APPROVED".equalsIgnoreCase(quotation.getStatus())) {
-                        update.setEventType("QUOTATION_APPROVED");
-                        update.setMessage("Quotation approved");
-                    } else if ("DENIED".equalsIgnoreCase(quotation.getStatus())) {
-                        update.setEventType("QUOTATION_DENIED");
-                        update.setMessage("Quotation denied");
-                    } else {
-                        update.setEventType("QUOTATION_UPDATED");
-                        update.setMessage("Quotation updated");
-                    }
-                    update.setTimestamp(quoteTimestamp);
-                    update.setStatus(quotation.getStatus());
-                    allUpdates.add(update);
-                }
-            }
-
-            // Sort all updates by timestamp (most recent first)
-            allUpdates.sort((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()));
-
-            // Apply pagination manually
-            int start = (int) pageable.getOffset();
-            int end = Math.min(start + pageable.getPageSize(), allUpdates.size());
-            List<RecentUpdateDTO> pagedUpdates = allUpdates.subList(start, end);
-
-            // Create a Page object
-            Page<RecentUpdateDTO> result = new org.springframework.data.domain.PageImpl<>(
-                    pagedUpdates, 
-                    pageable, 
-                    allUpdates.size()
-            );
-
-            logger.info("Found {} recent updates for customer: {}", allUpdates.size(), email);
-            return result;
+            return customerActivityService.getActivity(email, pageable);
         } catch (Exception e) {
             logger.error("Error fetching recent updates for customer: {}", email, e);
             throw new RuntimeException("Failed to fetch recent updates", e);
         }
     }
 
-    private String getStatusChangeMessage(String status) {
-        switch (status.toUpperCase()) {
-            case "RECEIVED":
-                return "Ticket received";
-            case "DIAGNOSING":
-            case "DIAGNOSED":
-                return "Diagnosis complete";
-            case "AWAITING_PARTS":
-                return "Awaiting parts";
-            case "REPAIRING":
-                return "Repair in progress";
-            case "READY_FOR_PICKUP":
-                return "Ready for pickup";
-            case "COMPLETED":
-            case "COMPLETE":
-                return "Ticket completed";
-            default:
-                return "Status updated to " + status.replace("_", " ").toLowerCase();
+    public CustomerActivityPageDTO getRecentUpdatesPageForCustomer(String email, LocalDateTime beforeTimestamp, String beforeId, Integer size) {
+        logger.info("Fetching recent updates page for customer: {}", email);
+        try {
+            return customerActivityService.getActivityPage(email, beforeTimestamp, beforeId, size);
+        } catch (Exception e) {
+            logger.error("Error fetching recent updates page for customer: {}", email, e);
+            throw new RuntimeException("Failed to fetch recent updates", e);
         }
     }
 
@@ -45,12 +45,20 @@ public class RestoreService {
     private final JdbcTemplate jdbcTemplate;
     private final Environment environment;
     private final ConfigurationService configurationService;
+    private final IdGeneratorService idGeneratorService;
+    private final DocumentNumberService documentNumberService;
+    private final CustomerActivityService customerActivityService;
 
     @Autowired
-    public RestoreService(JdbcTemplate jdbcTemplate, Environment environment, ConfigurationService configurationService) {
+    public RestoreService(JdbcTemplate jdbcTemplate, Environment environment, ConfigurationService configurationService,
+                          IdGeneratorService idGeneratorService, DocumentNumberService documentNumberService,
+                          CustomerActivityService customerActivityService) {
         this.jdbcTemplate = jdbcTemplate;
         this.environment = environment;
         this.configurationService = configurationService;
+        this.idGeneratorService = idGeneratorService;
+        this.documentNumberService = documentNumberService;
+        this.customerActivityService = customerActivityService;
     }
 
     private static class ParsedDbUrl {
@@ -181,6 +189,11 @@ public class RestoreService {
             Process process = processBuilder.start();
             int exitCode = process.waitFor();
             if (exitCode == 0) {
+                // Restored rows carry their original ids and numbers, so allocation must start above them again,
+                // and the activity feed is derived from the restored tickets and quotations
+                idGeneratorService.seedFromCurrentIds();
+                documentNumberService.seedFromExistingNumbers();
+                customerActivityService.rebuild();
                 return "Restore completed successfully from: " + backupIdentifier;
             } else {
                 String errors = new String(process.getErrorStream().readAllBytes());
@@ -23,6 +23,7 @@ public class ScheduledQuotationService implements SchedulingConfigurer {
     private final QuotationRepository quotationRepository;
     private final ConfigurationService configurationService;
     private final QuotationService quotationService;
+    private final CustomerActivityService customerActivityService;
 
     private ScheduledTaskRegistrar taskRegistrar;
     private ScheduledFuture<?> scheduledTask;
@@ -30,10 +31,12 @@ public class ScheduledQuotationService implements SchedulingConfigurer {
     @Autowired
     public ScheduledQuotationService(QuotationRepository quotationRepository,
                                      ConfigurationService configurationService,
-                                     QuotationService quotationService) {
+                                     QuotationService quotationService,
+                                     CustomerActivityService customerActivityService) {
         this.quotationRepository = quotationRepository;
         this.configurationService = configurationService;
         this.quotationService = quotationService;
+        this.customerActivityService = customerActivityService;
     }
 
     @Override
@@ -87,11 +90,11 @@ public class ScheduledQuotationService implements SchedulingConfigurer {
                         logger.warn("Skipping stale expiry for quotation {} - expiryAt {} is more than {} hours old", 
                             q.getQuotationId(), expiry, MAX_REMINDER_AGE_HOURS);
                         q.setStatus("EXPIRED");
-                        quotationRepository.save(q);
+                        customerActivityService.recordQuotation(quotationRepository.save(q));
                         continue;
                     }
                     q.setStatus("EXPIRED");
-                    quotationRepository.save(q);
+                    customerActivityService.recordQuotation(quotationRepository.save(q));
                     logger.info("Quotation {} expired", q.getQuotationId());
                 }
             }
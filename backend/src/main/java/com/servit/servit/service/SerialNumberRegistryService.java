@@ -0,0 +1,176 @@
+package com.servit.servit.service;
+
+import com.servit.servit.repository.PartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Detects serial number conflicts for new parts with set-based lookups.
+ * An in-memory Bloom filter of every serial number in the part table screens out serials that
+ * certainly do not exist; only the possible matches are checked against the database,
+ * in chunked IN (...) queries.
+ * Soft-deleted parts keep their serial (the unique constraint still applies), so nothing is
+ * removed from the filter on delete. It is rebuilt periodically to pick up serials added by other instances.
+ */
+@Service
+public class SerialNumberRegistryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SerialNumberRegistryService.class);
+
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+    private static final int MIN_EXPECTED_SERIALS = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final PartRepository partRepository;
+
+    private volatile BloomFilter filter;
+
+    @Autowired
+    public SerialNumberRegistryService(PartRepository partRepository) {
+        this.partRepository = partRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the filter from every serial number in the part table.
+     */
+    @Scheduled(initialDelayString = "${part.serial.filter.rebuild-interval-ms:900000}",
+               fixedDelayString = "${part.serial.filter.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            List<String> serials = partRepository.findAllSerialNumbers();
+            // Leave room for growth so the false positive rate holds until the next rebuild
+            BloomFilter newFilter = new BloomFilter(Math.max(serials.size() * 2, MIN_EXPECTED_SERIALS), FALSE_POSITIVE_RATE);
+            for (String serial : serials) {
+                newFilter.put(normalize(serial));
+            }
+            filter = newFilter;
+            logger.info("Serial number filter built with {} serials in {} ms", serials.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to build serial number filter: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Records serial numbers that were just saved so later conflict checks see them.
+     */
+    public void register(Collection<String> serialNumbers) {
+        BloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        for (String serial : serialNumbers) {
+            if (serial != null) {
+                current.put(normalize(serial));
+            }
+        }
+    }
+
+    public void register(String serialNumber) {
+        register(Collections.singletonList(serialNumber));
+    }
+
+    /**
+     * Returns which of the given serial numbers already exist in the part table.
+     * @param serialNumbers Serial numbers to check
+     * @return The requested serial numbers that already exist, in request order
+     */
+    public Set<String> findExisting(Collection<String> serialNumbers) {
+        BloomFilter current = filter;
+        List<String> candidates = new ArrayList<>();
+        for (String serial : serialNumbers) {
+            // Without a filter yet, every serial has to be checked
+            if (serial != null && (current == null || current.mightContain(normalize(serial)))) {
+                candidates.add(serial);
+            }
+        }
+
+        Set<String> stored = new HashSet<>();
+        for (int i = 0; i < candidates.size(); i += LOOKUP_CHUNK_SIZE) {
+            for (String serial : partRepository.findExistingSerialNumbers(
+                    candidates.subList(i, Math.min(i + LOOKUP_CHUNK_SIZE, candidates.size())))) {
+                stored.add(normalize(serial));
+            }
+        }
+
+        Set<String> existing = new LinkedHashSet<>();
+        for (String serial : candidates) {
+            if (stored.contains(normalize(serial))) {
+                existing.add(serial);
+            }
+        }
+        logger.debug("Serial conflict check: {} requested, {} checked in database, {} existing",
+                serialNumbers.size(), candidates.size(), existing.size());
+        return existing;
+    }
+
+    public boolean exists(String serialNumber) {
+        return !findExisting(Collections.singletonList(serialNumber)).isEmpty();
+    }
+
+    // The column uses a case-insensitive collation, so the filter must ignore case too
+    private static String normalize(String serial) {
+        return serial.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Fixed-size Bloom filter using double hashing over two 32-bit hashes of the string.
+     */
+    private static final class BloomFilter {
+        private final BitSet bits;
+        private final int bitCount;
+        private final int hashCount;
+
+        private BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = (int) Math.min(Integer.MAX_VALUE - 1, Math.max(64, m));
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+            this.bits = new BitSet(bitCount);
+        }
+
+        private synchronized void put(String value) {
+            int h1 = value.hashCode();
+            int h2 = secondaryHash(value);
+            for (int i = 0; i < hashCount; i++) {
+                bits.set(index(h1, h2, i));
+            }
+        }
+
+        private synchronized boolean mightContain(String value) {
+            int h1 = value.hashCode();
+            int h2 = secondaryHash(value);
+            for (int i = 0; i < hashCount; i++) {
+                if (!bits.get(index(h1, h2, i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int index(int h1, int h2, int i) {
+            return (int) (((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount);
+        }
+
+        // FNV-1a, independent enough from String.hashCode for double hashing
+        private static int secondaryHash(String value) {
+            int hash = 0x811c9dc5;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x01000193;
+            }
+            return hash | 1;
+        }
+    }
+}
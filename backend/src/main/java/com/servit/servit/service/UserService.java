@@ -17,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
@@ -743,8 +744,7 @@ public class UserService {
     public List<GetUserResponseDTO> getAllTechnicians() {
         try {
             logger.info("Fetching all technicians");
-            List<GetUserResponseDTO> technicians = userRepo.findAll().stream()
-                    .filter(user -> user.getRole() == UserRoleEnum.TECHNICIAN)
+            List<GetUserResponseDTO> technicians = userRepo.findByRoleOrderByUserIdAsc(UserRoleEnum.TECHNICIAN).stream()
                     .map(user -> new GetUserResponseDTO(
                             user.getUserId(), user.getFirstName(), user.getLastName(), user.getUsername(),
                             user.getEmail(), user.getRole().name(), user.getPhoneNumber(),
@@ -811,10 +811,8 @@ public class UserService {
             LocalDateTime startOfWeek = now.with(java.time.DayOfWeek.MONDAY).withHour(0).withMinute(0).withSecond(0).withNano(0);
             LocalDateTime endOfWeek = startOfWeek.plusDays(7);
 
-            List<GetUserResponseDTO> weeklyUsers = userRepo.findAll().stream()
-                    .filter(user -> user.getCreatedAt() != null &&
-                            user.getCreatedAt().isAfter(startOfWeek) &&
-                            user.getCreatedAt().isBefore(endOfWeek))
+            List<GetUserResponseDTO> weeklyUsers = userRepo
+                    .findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByUserIdAsc(startOfWeek, endOfWeek).stream()
                     .map(user -> new GetUserResponseDTO(
                             user.getUserId(), user.getFirstName(), user.getLastName(), user.getUsername(),
                             user.getEmail(), user.getRole().name(), user.getPhoneNumber(),
@@ -840,19 +838,8 @@ public class UserService {
 
             final String needle = normalize(query);
 
-            List<GetUserResponseDTO> result = userRepo.findAll().stream()
-                    .filter(u -> u.getRole() == UserRoleEnum.TECHNICIAN)
-                    .filter(u -> {
-                        String f = normalize(u.getFirstName());
-                        String l = normalize(u.getLastName());
-                        String full = (f + " " + l).trim();
-                        String fullNoSpace = (f + l).trim();
-                        return (!f.isEmpty() && f.contains(needle))
-                                || (!l.isEmpty() && l.contains(needle))
-                                || (!full.isEmpty() && full.contains(needle))
-                                || (!fullNoSpace.isEmpty() && fullNoSpace.contains(needle));
-                    })
-                    .limit(3)
+            List<GetUserResponseDTO> result = userRepo
+                    .searchByRoleAndName(UserRoleEnum.TECHNICIAN, needle, PageRequest.of(0, 3)).stream()
                     .map(u -> new GetUserResponseDTO(
                             u.getUserId(), u.getFirstName(), u.getLastName(), u.getUsername(),
                             u.getEmail(), u.getRole().name(), u.getPhoneNumber(),
@@ -24,7 +24,6 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static java.util.Locale.filter;
@@ -49,6 +48,10 @@ public class WarrantyService {
     private FileUtil fileUtil;
     @Autowired
     private PartNumberStockTrackingService partNumberStockTrackingService;
+    @Autowired
+    private DocumentNumberService documentNumberService;
+    @Autowired
+    private MediaUploadService mediaUploadService;
 
     @Autowired
     public WarrantyService(WarrantyRepository warrantyRepository, PartRepository partRepository, EmailService emailService, RepairTicketService repairTicketService, UserRepository userRepository) {
@@ -210,25 +213,8 @@ public class WarrantyService {
 
 
     public String generateWarrantyNumber() {
-        String lastWarrantyNumber = warrantyRepository.findLastWarrantyNumber();
-        int nextId = 1;
-
-        if (lastWarrantyNumber != null && lastWarrantyNumber.startsWith("IORMA-")) {
-            try {
-                String numericPart = lastWarrantyNumber.substring(6);
-                nextId = Integer.parseInt(numericPart) + 1;
-                logger.info("Last warranty number found: {}. Next warranty number will be: IORMA-{}", lastWarrantyNumber, String.format("%06d", nextId));
-            } catch (NumberFormatException e) {
-                logger.error("Failed to parse numeric part of last warranty number: {}", lastWarrantyNumber, e);
-                throw new RuntimeException("Invalid last warranty number format: " + lastWarrantyNumber, e);
-            }
-        } else {
-            logger.info("No previous ticket number found. Starting from IORMA-000001.");
-        }
-
-        String newWarrantyNumber = "IORMA-" + String.format("%06d", nextId);
-        logger.info("Generated new ticket number: {}", newWarrantyNumber);
-
+        String newWarrantyNumber = documentNumberService.nextWarrantyNumber();
+        logger.info("Generated new warranty number: {}", newWarrantyNumber);
         return newWarrantyNumber;
     }
 
@@ -270,22 +256,23 @@ public class WarrantyService {
                         return new IllegalArgumentException("Technician not found" + request.getTechnicianEmail());
                     });
 
-            AtomicInteger counter = new AtomicInteger(1);
             try {
                 // ⚠️ DO NOT REPLACE COLLECTION — clear and add instead
-                List<WarrantyPhotoEntity> newPhotos = request.getWarrantyPhotosUrls().stream()
-                        .map(photo -> {
-                            try {
-                                String photoPath = fileUtil.saveWarrantyPhoto(photo, warranty.getWarrantyNumber(), counter.getAndIncrement());
-                                WarrantyPhotoEntity warrantyPhoto = new WarrantyPhotoEntity();
-                                warrantyPhoto.setPhotoUrl(photoPath);
-                                warrantyPhoto.setWarranty(warranty);
-                                logger.info("Saved repair photo for ticket: {} at {}", warranty.getWarrantyNumber(), photoPath);
-                                return warrantyPhoto;
-                            } catch (IOException e) {
-                                logger.error("Failed to save repair photo for ticket: {}", warranty.getWarrantyNumber(), e);
-                                throw new RuntimeException("Failed to save repair photo. Please retry.", e);
-                            }
+                List<String> photoPaths;
+                try {
+                    photoPaths = mediaUploadService.saveAll(request.getWarrantyPhotosUrls(),
+                            (photo, index) -> fileUtil.saveWarrantyPhoto(photo, warranty.getWarrantyNumber(), index));
+                } catch (IOException e) {
+                    logger.error("Failed to save repair photo for ticket: {}", warranty.getWarrantyNumber(), e);
+                    throw new RuntimeException("Failed to save repair photo. Please retry.", e);
+                }
+                List<WarrantyPhotoEntity> newPhotos = photoPaths.stream()
+                        .map(photoPath -> {
+                            WarrantyPhotoEntity warrantyPhoto = new WarrantyPhotoEntity();
+                            warrantyPhoto.setPhotoUrl(photoPath);
+                            warrantyPhoto.setWarranty(warranty);
+                            logger.info("Saved repair photo for ticket: {} at {}", warranty.getWarrantyNumber(), photoPath);
+                            return warrantyPhoto;
                         })
                         .collect(Collectors.toList());
 
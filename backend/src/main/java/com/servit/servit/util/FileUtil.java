@@ -71,7 +71,7 @@ public class FileUtil {
         return s3Service.uploadFile(file, "documents/claim_forms/" + fileName);
     }
 
-    private void validatePhoto(MultipartFile file) {
+    public void validatePhoto(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("Photo must not be null or empty");
         }
@@ -93,7 +93,7 @@ public class FileUtil {
         }
     }
 
-    private String getFileExtension(MultipartFile file) {
+    public String getFileExtension(MultipartFile file) {
         String originalFilename = file.getOriginalFilename();
         if (originalFilename == null || originalFilename.isEmpty()) {
             String contentType = file.getContentType();
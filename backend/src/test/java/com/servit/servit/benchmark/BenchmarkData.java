@@ -0,0 +1,96 @@
+package com.servit.servit.benchmark;
+
+import com.servit.servit.entity.PartEntity;
+import com.servit.servit.entity.PartNumberStockTrackingEntity;
+import com.servit.servit.enumeration.PartEnum;
+import jakarta.persistence.EntityManager;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Synthetic data for the benchmarks, generated from a fixed seed so runs are comparable.
+ */
+final class BenchmarkData {
+
+    static final String[] PART_NAMES = {"LCD Screen", "Battery", "Keyboard", "Touchpad", "SSD", "RAM Module",
+            "Charger", "Cooling Fan", "Hinge Set", "Motherboard", "Webcam", "Speaker", "Wi-Fi Card", "DC Jack"};
+    static final String[] BRANDS = {"Lenovo", "Dell", "HP", "Asus", "Acer", "Apple", "MSI"};
+    static final String[] MODELS = {"ThinkPad X1", "ThinkPad T14", "XPS 13", "Latitude 5420", "Pavilion 15",
+            "EliteBook 840", "ZenBook 14", "VivoBook 15", "Aspire 5", "MacBook Air", "Modern 14"};
+
+    // Parts sharing a part number, as units of the same stock item do
+    static final int UNITS_PER_PART_NUMBER = 5;
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private BenchmarkData() {
+    }
+
+    static String partNumber(int index) {
+        return String.format("PN-%05d", index / UNITS_PER_PART_NUMBER);
+    }
+
+    /**
+     * A unique, random-looking serial number per index (multiplying by an odd constant is a bijection).
+     */
+    static String serialNumber(int index) {
+        return String.format("SN-%08X", index * 0x9E3779B1);
+    }
+
+    static PartEntity part(int index, Random random) {
+        String brand = BRANDS[(index / UNITS_PER_PART_NUMBER) % BRANDS.length];
+        String model = MODELS[(index / UNITS_PER_PART_NUMBER) % MODELS.length];
+        String name = PART_NAMES[(index / UNITS_PER_PART_NUMBER) % PART_NAMES.length];
+        PartEntity part = new PartEntity();
+        part.setPartNumber(partNumber(index));
+        part.setSerialNumber(serialNumber(index));
+        part.setName(name + " " + model);
+        part.setBrand(brand);
+        part.setModel(model);
+        part.setDescription("Replacement " + name.toLowerCase() + " for " + brand + " " + model + " laptops");
+        part.setUnitCost(BigDecimal.valueOf(200 + random.nextInt(15_000), 2));
+        part.setCurrentStock(1);
+        part.setPartType(PartEnum.STANDARD);
+        part.setAddedBy("admin@servit.com");
+        return part;
+    }
+
+    /**
+     * Makes the part table hold exactly the parts generated for 0 .. count - 1, with a stock tracking row per
+     * part number. Left as is when it already does, so a kept MySQL schema is not seeded twice.
+     */
+    static void seedParts(BenchmarkDatabase db, int count) {
+        EntityManager entityManager = db.entityManager();
+        Long existing = entityManager.createQuery("SELECT COUNT(p) FROM PartEntity p", Long.class).getSingleResult();
+        if (existing == count) {
+            return;
+        }
+        db.inTransaction(() -> {
+            entityManager.createQuery("DELETE FROM PartEntity").executeUpdate();
+            entityManager.createQuery("DELETE FROM PartNumberStockTrackingEntity").executeUpdate();
+        });
+
+        Random random = new Random(42);
+        db.inTransaction(() -> {
+            for (int i = 0; i < count; i++) {
+                entityManager.persist(part(i, random));
+                if (i % UNITS_PER_PART_NUMBER == 0) {
+                    PartNumberStockTrackingEntity tracking = new PartNumberStockTrackingEntity();
+                    tracking.setPartNumber(partNumber(i));
+                    tracking.setPartName(PART_NAMES[(i / UNITS_PER_PART_NUMBER) % PART_NAMES.length]);
+                    tracking.setLowStockThreshold(5);
+                    tracking.setCurrentTotalStock(UNITS_PER_PART_NUMBER);
+                    tracking.setCurrentAvailableStock(random.nextInt(UNITS_PER_PART_NUMBER + 1));
+                    tracking.setTotalPartsCount(UNITS_PER_PART_NUMBER);
+                    entityManager.persist(tracking);
+                }
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,176 @@
+package com.servit.servit.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+/**
+ * Database a benchmark runs against. The schema is generated from the entities, as ddl-auto does for the
+ * application, with the Hibernate settings of application.properties and application-azure.properties,
+ * and the application's Spring Data repositories are built on one application-managed EntityManager.
+ * <p>
+ * By default this is an in-memory H2 database in MySQL mode. To measure MySQL instead, set
+ * BENCHMARK_JDBC_URL to a server URL without a database (for example
+ * jdbc:mysql://localhost:3306/?rewriteBatchedStatements=true), plus BENCHMARK_JDBC_USERNAME and
+ * BENCHMARK_JDBC_PASSWORD. Each benchmark then uses its own schema, servit_bench_&lt;name&gt;, which is kept
+ * between runs so large datasets are only seeded once.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final String JDBC_URL = System.getenv("BENCHMARK_JDBC_URL");
+    private static final String JDBC_USERNAME = System.getenv("BENCHMARK_JDBC_USERNAME");
+    private static final String JDBC_PASSWORD = System.getenv("BENCHMARK_JDBC_PASSWORD");
+
+    static {
+        // Without Spring Boot's logging setup Logback logs everything at DEBUG
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    private final String schema;
+    private final HikariDataSource dataSource;
+    private final LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private final EntityManager entityManager;
+    private final JpaRepositoryFactory repositoryFactory;
+
+    private BenchmarkDatabase(String name, String[] mappingResources) {
+        schema = "servit_bench_" + name;
+        dataSource = new HikariDataSource();
+        dataSource.setPoolName(schema);
+        if (isMySql()) {
+            createSchema(schema);
+            dataSource.setJdbcUrl(JDBC_URL);
+            dataSource.setUsername(JDBC_USERNAME);
+            dataSource.setPassword(JDBC_PASSWORD);
+            dataSource.setCatalog(schema);
+        } else {
+            dataSource.setJdbcUrl("jdbc:h2:mem:" + schema + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1");
+        }
+
+        Map<String, Object> properties = applicationJpaProperties();
+        properties.put("hibernate.hbm2ddl.auto", isMySql() ? "update" : "create");
+        properties.put("hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName());
+        properties.put("hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName());
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setPersistenceUnitName(schema);
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.servit.servit.entity");
+        entityManagerFactoryBean.setMappingResources(mappingResources);
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(properties);
+        entityManagerFactoryBean.afterPropertiesSet();
+
+        entityManager = entityManagerFactory().createEntityManager();
+        repositoryFactory = new JpaRepositoryFactory(entityManager);
+    }
+
+    /**
+     * @param name Distinguishes the database (or MySQL schema) from those of other benchmarks
+     * @param mappingResources orm.xml files overriding the entity annotations
+     */
+    static BenchmarkDatabase open(String name, String... mappingResources) {
+        return new BenchmarkDatabase(name, mappingResources);
+    }
+
+    static boolean isMySql() {
+        return JDBC_URL != null && !JDBC_URL.isBlank();
+    }
+
+    EntityManagerFactory entityManagerFactory() {
+        return entityManagerFactoryBean.getObject();
+    }
+
+    EntityManager entityManager() {
+        return entityManager;
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource);
+    }
+
+    <R> R repository(Class<R> repositoryInterface) {
+        return repositoryFactory.getRepository(repositoryInterface);
+    }
+
+    void inTransaction(Runnable work) {
+        inTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    <T> T inTransaction(Supplier<T> work) {
+        EntityTransaction transaction = entityManager.getTransaction();
+        transaction.begin();
+        try {
+            T result = work.get();
+            transaction.commit();
+            return result;
+        } finally {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        entityManager.close();
+        entityManagerFactoryBean.destroy();
+        dataSource.close();
+    }
+
+    // ================ Helper Methods ================
+
+    private static void createSchema(String schema) {
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USERNAME, JDBC_PASSWORD);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE IF NOT EXISTS " + schema);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create benchmark schema " + schema, e);
+        }
+    }
+
+    /**
+     * The spring.jpa.properties.* settings of the application, with the profile's values winning.
+     */
+    private static Map<String, Object> applicationJpaProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        for (String file : new String[] {"application.properties", "application-azure.properties"}) {
+            try {
+                Properties loaded = PropertiesLoaderUtils.loadProperties(new ClassPathResource(file));
+                for (String key : loaded.stringPropertyNames()) {
+                    if (key.startsWith("spring.jpa.properties.")) {
+                        properties.put(key.substring("spring.jpa.properties.".length()), loaded.getProperty(key));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return properties;
+    }
+}
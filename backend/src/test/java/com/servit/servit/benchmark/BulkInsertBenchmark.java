@@ -0,0 +1,87 @@
+package com.servit.servit.benchmark;
+
+import com.servit.servit.entity.PartEntity;
+import com.servit.servit.repository.PartRepository;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentityGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk part inserts as addBulkParts runs them, partRepository.saveAll of a batch in one transaction,
+ * with part ids from the id_generator table (partIds = table, the current mapping) against IDENTITY
+ * (partIds = identity, the mapping before, restored by benchmark/identity-part-ids.orm.xml).
+ * With IDENTITY Hibernate executes every INSERT on its own to read the generated key, so
+ * hibernate.jdbc.batch_size has no effect; with the table generator the inserts go out in JDBC batches.
+ * The gap is widest against MySQL (see BenchmarkDatabase), where each statement is a round trip;
+ * give the URL rewriteBatchedStatements=true as the application's does.
+ * Scores are parts inserted per second:
+ * mvn -P benchmark test -DskipTests -Dbenchmark=BulkInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BulkInsertBenchmark.PARTS_PER_SAVE)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BulkInsertBenchmark {
+
+    static final int PARTS_PER_SAVE = 500;
+
+    @Param({"table", "identity"})
+    private String partIds;
+
+    private BenchmarkDatabase db;
+    private PartRepository partRepository;
+    private Random random;
+    private int nextIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean identity = partIds.equals("identity");
+        db = identity
+                ? BenchmarkDatabase.open("bulk_insert_identity", "benchmark/identity-part-ids.orm.xml")
+                : BenchmarkDatabase.open("bulk_insert_table");
+        boolean mappedAsIdentity = db.entityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel().getEntityDescriptor(PartEntity.class).getGenerator() instanceof IdentityGenerator;
+        if (mappedAsIdentity != identity) {
+            throw new IllegalStateException("PartEntity ids are not generated as partIds = " + partIds + " expects");
+        }
+        partRepository = db.repository(PartRepository.class);
+        random = new Random(42);
+    }
+
+    /**
+     * Starts every iteration from an empty part table so index maintenance costs the same throughout.
+     */
+    @Setup(Level.Iteration)
+    public void emptyPartTable() {
+        db.inTransaction(() -> {
+            db.entityManager().createQuery("DELETE FROM PartEntity").executeUpdate();
+        });
+        nextIndex = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public List<PartEntity> saveAll() {
+        List<PartEntity> parts = new ArrayList<>(PARTS_PER_SAVE);
+        for (int i = 0; i < PARTS_PER_SAVE; i++) {
+            parts.add(BenchmarkData.part(nextIndex++, random));
+        }
+        try {
+            return db.inTransaction(() -> partRepository.saveAll(parts));
+        } finally {
+            db.entityManager().clear();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.servit.servit.benchmark;
+
+import com.servit.servit.dto.part.PartNumberStockSummaryDTO;
+import com.servit.servit.dto.part.PartResponseDTO;
+import com.servit.servit.entity.PartEntity;
+import com.servit.servit.repository.PartNumberStockTrackingRepository;
+import com.servit.servit.repository.PartRepository;
+import com.servit.servit.repository.UserRepository;
+import com.servit.servit.service.*;
+import com.servit.servit.util.FileUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Listing every part, 50k synthetic parts in 10k part numbers, through the two read paths of PartService:
+ * <ul>
+ *     <li>projection: getAllParts, which selects PartRepository.PartRow with the stock tracking columns joined in</li>
+ *     <li>entities: the path getAllParts took before, loading managed PartEntity objects with findByIsDeletedFalse,
+ *     the stock summary map of every part number, then convertToDto(PartEntity, Map) per part</li>
+ * </ul>
+ * Add -prof gc for the heap side; gc.alloc.rate.norm is the memory allocated per listing:
+ * mvn -P benchmark test -DskipTests -Dbenchmark="PartListingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PartListingBenchmark {
+
+    @Param("50000")
+    private int parts;
+
+    private BenchmarkDatabase db;
+    private PartRepository partRepository;
+    private PartNumberStockTrackingService stockTrackingService;
+    private PartService partService;
+    private Method convertEntity;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = BenchmarkDatabase.open("part_listing");
+        BenchmarkData.seedParts(db, parts);
+        partRepository = db.repository(PartRepository.class);
+        stockTrackingService = new PartNumberStockTrackingService(db.repository(PartNumberStockTrackingRepository.class),
+                partRepository, db.jdbcTemplate(), mock(PartSearchIndexService.class), mock(LowStockAlertService.class));
+        ReflectionTestUtils.setField(stockTrackingService, "entityManager", db.entityManager());
+        partService = new PartService(partRepository, mock(AlertService.class), stockTrackingService,
+                mock(UserRepository.class), mock(FileUtil.class), mock(S3Service.class),
+                mock(PartSearchIndexService.class), mock(SerialNumberRegistryService.class),
+                mock(PartCompatibilityIndexService.class));
+        convertEntity = ReflectionUtils.findMethod(PartService.class, "convertToDto", PartEntity.class, Map.class);
+        ReflectionUtils.makeAccessible(convertEntity);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public List<PartResponseDTO> projection() {
+        try {
+            return partService.getAllParts();
+        } finally {
+            db.entityManager().clear();
+        }
+    }
+
+    @Benchmark
+    public List<PartResponseDTO> entities() throws ReflectiveOperationException {
+        try {
+            Map<String, PartNumberStockSummaryDTO> stockSummaryMap = stockTrackingService.getAllStockSummariesMap();
+            List<PartEntity> entities = partRepository.findByIsDeletedFalse();
+            List<PartResponseDTO> dtos = new ArrayList<>(entities.size());
+            for (PartEntity part : entities) {
+                dtos.add((PartResponseDTO) convertEntity.invoke(partService, part, stockSummaryMap));
+            }
+            return dtos;
+        } finally {
+            db.entityManager().clear();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.servit.servit.benchmark;
+
+import com.servit.servit.entity.PartEntity;
+import com.servit.servit.repository.PartRepository;
+import com.servit.servit.service.PartSearchIndexService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Part search through the in-memory trigram index (PartSearchIndexService) against the LIKE query it
+ * replaced (PartRepository.searchParts), on 100k synthetic parts.
+ * <ul>
+ *     <li>likeQuery: the LIKE query /part/searchParts ran before, loading the matching parts</li>
+ *     <li>indexLookup: the ranked part IDs from the index</li>
+ *     <li>indexLookupAndLoad: the index lookup plus loading the matching parts by ID, as PartService.searchParts does</li>
+ * </ul>
+ * Run with: mvn -P benchmark test -DskipTests -Dbenchmark=PartSearchBenchmark
+ * (see BenchmarkDatabase for running the LIKE side against MySQL).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PartSearchBenchmark {
+
+    @Param("100000")
+    private int parts;
+
+    // A part number, a brand and model, a common word and a term nothing contains
+    @Param({"PN-01234", "ThinkPad X1", "hinge", "no-such-part"})
+    private String term;
+
+    private BenchmarkDatabase db;
+    private PartRepository partRepository;
+    private PartSearchIndexService searchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = BenchmarkDatabase.open("parts");
+        BenchmarkData.seedParts(db, parts);
+        partRepository = db.repository(PartRepository.class);
+        searchIndex = new PartSearchIndexService(partRepository);
+        searchIndex.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public List<PartEntity> likeQuery() {
+        try {
+            return partRepository.searchParts(term);
+        } finally {
+            db.entityManager().clear();
+        }
+    }
+
+    @Benchmark
+    public List<Long> indexLookup() {
+        return searchIndex.searchPartIds(term);
+    }
+
+    @Benchmark
+    public List<PartEntity> indexLookupAndLoad() {
+        try {
+            List<Long> ids = searchIndex.searchPartIds(term);
+            return ids.isEmpty() ? List.of() : partRepository.findAllById(ids);
+        } finally {
+            db.entityManager().clear();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.servit.servit.benchmark;
+
+import com.servit.servit.entity.RepairTicketEntity;
+import com.servit.servit.repository.RepairTicketRepository;
+import com.servit.servit.service.RepairTicketSearchService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searching 500k synthetic repair tickets for one page of 20, the way /repairTicket/searchRepairTickets does:
+ * <ul>
+ *     <li>likeQuery: the substring LIKE query of RepairTicketRepository, which scans every ticket</li>
+ *     <li>indexSearch: RepairTicketSearchService, FULLTEXT and ticket/serial number prefix lookups</li>
+ * </ul>
+ * MySQL only, as the search relies on MATCH ... AGAINST; set BENCHMARK_JDBC_URL (see BenchmarkDatabase).
+ * Seeding and the first FULLTEXT index build take several minutes; both are kept for later runs:
+ * mvn -P benchmark test -DskipTests -Dbenchmark=RepairTicketSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RepairTicketSearchBenchmark {
+
+    private static final String TECHNICIAN = "bench.tech@servit.com";
+    private static final int INSERT_BATCH = 5000;
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    @Param("500000")
+    private int tickets;
+
+    // A ticket number, its number alone, a serial number prefix, words of the model and issue, a term nothing contains
+    @Param({"IORT-123456", "123456", "SN-0A1B", "thinkpad hinge", "no-such-ticket"})
+    private String term;
+
+    private BenchmarkDatabase db;
+    private RepairTicketRepository repairTicketRepository;
+    private RepairTicketSearchService searchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (!BenchmarkDatabase.isMySql()) {
+            throw new IllegalStateException("RepairTicketSearchBenchmark needs MySQL; set BENCHMARK_JDBC_URL");
+        }
+        db = BenchmarkDatabase.open("ticket_search");
+        seedTickets(db.jdbcTemplate(), tickets);
+        repairTicketRepository = db.repository(RepairTicketRepository.class);
+        searchService = new RepairTicketSearchService(db.jdbcTemplate(), repairTicketRepository);
+        ReflectionTestUtils.setField(searchService, "fullTextEnabled", true);
+        searchService.ensureIndex();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public Page<RepairTicketEntity> likeQuery() {
+        try {
+            return repairTicketRepository.searchRepairTickets(term, PAGE);
+        } finally {
+            db.entityManager().clear();
+        }
+    }
+
+    @Benchmark
+    public Page<RepairTicketEntity> indexSearch() {
+        try {
+            return searchService.search(term, PAGE);
+        } finally {
+            db.entityManager().clear();
+        }
+    }
+
+    // ================ Helper Methods ================
+
+    /**
+     * Inserts the tickets with JDBC batches; reseeds only when the ticket count differs.
+     */
+    private static void seedTickets(JdbcTemplate jdbcTemplate, int count) {
+        jdbcTemplate.update("INSERT INTO user (username, password, email, first_name, last_name, role, phone_number, " +
+                "is_verified, status, created_at) VALUES ('benchtech', 'secret', ?, 'Bench', 'Tech', 'TECHNICIAN', " +
+                "'09170000000', 1, 'Active', NOW()) ON DUPLICATE KEY UPDATE created_at = VALUES(created_at)",
+                TECHNICIAN);
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM repair_ticket", Long.class);
+        if (existing != null && existing == count) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM repair_ticket");
+
+        String sql = "INSERT INTO repair_ticket (ticket_number, customer_first_name, customer_last_name, customer_email, " +
+                "customer_email_normalized, customer_phone_number, device_type, device_color, device_serial_number, " +
+                "device_model, device_brand, reported_issue, technician_email, technician_name, status, check_in_date, " +
+                "repair_status, created_at) VALUES (?, ?, ?, ?, ?, '09181234567', 'LAPTOP', 'Silver', ?, ?, ?, ?, ?, " +
+                "'Bench Tech', 'ACTIVE', ?, 'RECEIVED', ?)";
+        String[] issues = {"Cracked screen", "Broken hinge", "Battery not charging", "Keyboard keys stuck",
+                "No display", "Overheating and fan noise", "Water damage", "Will not power on"};
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 9, 0);
+        for (int from = 0; from < count; from += INSERT_BATCH) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            for (int i = from; i < Math.min(from + INSERT_BATCH, count); i++) {
+                String email = "customer" + (i % 50_000) + "@example.com";
+                Timestamp checkIn = Timestamp.valueOf(start.plusMinutes(i * 5L));
+                rows.add(new Object[]{
+                        String.format("IORT-%06d", i + 1), "Customer", "No" + (i % 50_000), email, email,
+                        BenchmarkData.serialNumber(i),
+                        BenchmarkData.MODELS[random.nextInt(BenchmarkData.MODELS.length)],
+                        BenchmarkData.BRANDS[random.nextInt(BenchmarkData.BRANDS.length)],
+                        issues[random.nextInt(issues.length)], TECHNICIAN, checkIn, checkIn});
+            }
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.servit.servit.service;
+
+import com.servit.servit.dto.repairticket.CustomerActivityPageDTO;
+import com.servit.servit.dto.repairticket.RecentUpdateDTO;
+import com.servit.servit.entity.QuotationEntity;
+import com.servit.servit.entity.RepairStatusHistoryEntity;
+import com.servit.servit.entity.RepairTicketEntity;
+import com.servit.servit.entity.UserEntity;
+import com.servit.servit.enumeration.RepairStatusEnum;
+import com.servit.servit.enumeration.RepairTicketDeviceType;
+import com.servit.servit.enumeration.UserRoleEnum;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:customer_activity;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CustomerActivityServiceTest {
+
+    private static final String CUSTOMER = "Customer@Example.com";
+    private static final LocalDateTime CHECK_IN = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private CustomerActivityService customerActivityService;
+    private UserEntity technician;
+
+    private static TimeZone defaultTimeZone;
+
+    // The JVM runs in hibernate.jdbc.time_zone, as ServitApplication sets it, so timestamps bound through
+    // JDBC and through Hibernate are stored alike
+    @BeforeAll
+    static void useApplicationTimeZone() {
+        defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Manila"));
+    }
+
+    @AfterAll
+    static void restoreTimeZone() {
+        TimeZone.setDefault(defaultTimeZone);
+    }
+
+    @BeforeEach
+    void setUp() {
+        customerActivityService = new CustomerActivityService(new NamedParameterJdbcTemplate(jdbcTemplate));
+        technician = entityManager.merge(technician());
+    }
+
+    @Test
+    void recordedEventsArePagedNewestFirstByCursor() {
+        for (int t = 0; t < 3; t++) {
+            recordTicketWithHistory(CUSTOMER, t);
+        }
+        recordTicketWithHistory("someone.else@example.com", 9);
+
+        List<RecentUpdateDTO> all = customerActivityService.getActivityPage(CUSTOMER, null, null, 100).getItems();
+        // 3 check-ins, 3 x 3 status changes, 3 quotations
+        assertThat(all).hasSize(15);
+        assertThat(all).isSortedAccordingTo(Comparator.comparing(RecentUpdateDTO::getTimestamp)
+                .thenComparing(RecentUpdateDTO::getEventId).reversed());
+        assertThat(all).extracting(RecentUpdateDTO::getTicketNumber).allMatch(n -> !n.endsWith("9"));
+
+        List<RecentUpdateDTO> paged = new ArrayList<>();
+        CustomerActivityPageDTO page = customerActivityService.getActivityPage(CUSTOMER, null, null, 4);
+        paged.addAll(page.getItems());
+        while (page.getHasMore()) {
+            page = customerActivityService.getActivityPage(CUSTOMER, page.getNextCursorTimestamp(), page.getNextCursorId(), 4);
+            paged.addAll(page.getItems());
+        }
+        assertThat(paged).extracting(RecentUpdateDTO::getEventId)
+                .containsExactlyElementsOf(all.stream().map(RecentUpdateDTO::getEventId).toList());
+
+        assertThat(customerActivityService.getActivity(CUSTOMER, PageRequest.of(1, 4)).getContent())
+                .extracting(RecentUpdateDTO::getEventId)
+                .containsExactlyElementsOf(all.subList(4, 8).stream().map(RecentUpdateDTO::getEventId).toList());
+        assertThat(customerActivityService.getActivity(CUSTOMER, PageRequest.of(0, 4)).getTotalElements()).isEqualTo(15);
+    }
+
+    @Test
+    void answeringQuotationMovesItsEventToTheResponse() {
+        RepairTicketEntity ticket = persistTicket(CUSTOMER, 0);
+        QuotationEntity quotation = persistQuotation(ticket);
+        customerActivityService.recordQuotation(quotation);
+
+        LocalDateTime respondedAt = CHECK_IN.plusDays(5);
+        quotation.setStatus("APPROVED");
+        quotation.setRespondedAt(respondedAt);
+        customerActivityService.recordQuotation(quotation);
+
+        List<RecentUpdateDTO> items = customerActivityService.getActivityPage(CUSTOMER, null, null, 10).getItems();
+        assertThat(items).singleElement().satisfies(update -> {
+            assertThat(update.getEventType()).isEqualTo("QUOTATION_APPROVED");
+            assertThat(update.getTimestamp()).isEqualTo(respondedAt);
+        });
+
+        customerActivityService.removeQuotation(quotation.getQuotationId());
+        assertThat(customerActivityService.getActivityPage(CUSTOMER, null, null, 10).getItems()).isEmpty();
+    }
+
+    @Test
+    void rebuildFromSourceTablesMatchesRecordedEvents() {
+        for (int t = 0; t < 2; t++) {
+            recordTicketWithHistory(CUSTOMER, t);
+        }
+        List<RecentUpdateDTO> recorded = customerActivityService.getActivityPage(CUSTOMER, null, null, 100).getItems();
+
+        customerActivityService.rebuild();
+
+        assertThat(customerActivityService.getActivityPage(CUSTOMER, null, null, 100).getItems())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(recorded);
+    }
+
+    private void recordTicketWithHistory(String email, int index) {
+        RepairTicketEntity ticket = persistTicket(email, index);
+        customerActivityService.recordCheckIn(ticket);
+        for (RepairStatusEnum status : List.of(RepairStatusEnum.RECEIVED, RepairStatusEnum.DIAGNOSING, RepairStatusEnum.REPAIRING)) {
+            RepairStatusHistoryEntity history = new RepairStatusHistoryEntity();
+            history.setRepairTicket(ticket);
+            history.setRepairStatusEnum(status);
+            entityManager.persist(history);
+            entityManager.flush();
+            customerActivityService.recordStatusChange(history);
+        }
+        customerActivityService.recordQuotation(persistQuotation(ticket));
+    }
+
+    private QuotationEntity persistQuotation(RepairTicketEntity ticket) {
+        QuotationEntity quotation = new QuotationEntity();
+        quotation.setRepairTicketNumber(ticket.getTicketNumber());
+        quotation.setLaborCost(500.0);
+        quotation.setTotalCost(1500.0);
+        quotation.setStatus("PENDING");
+        entityManager.persist(quotation);
+        entityManager.flush();
+        return quotation;
+    }
+
+    private RepairTicketEntity persistTicket(String email, int index) {
+        RepairTicketEntity ticket = new RepairTicketEntity();
+        ticket.setTicketNumber(String.format("IORT-%06d", index + 1));
+        ticket.setCustomerFirstName("Customer");
+        ticket.setCustomerLastName(String.valueOf(index));
+        ticket.setCustomerEmail(email);
+        ticket.setCustomerPhoneNumber("09181234567");
+        ticket.setDeviceType(RepairTicketDeviceType.LAPTOP);
+        ticket.setDeviceColor("Silver");
+        ticket.setDeviceSerialNumber("SN-" + index);
+        ticket.setDeviceModel("MacBook Air");
+        ticket.setDeviceBrand("Apple");
+        ticket.setReportedIssue("Cracked screen");
+        ticket.setTechnicianEmail(technician);
+        ticket.setTechnicianName("Tech One");
+        ticket.setStatus("ACTIVE");
+        ticket.setRepairStatus(RepairStatusEnum.RECEIVED);
+        ticket.setCheckInDate(CHECK_IN.plusHours(index));
+        entityManager.persist(ticket);
+        entityManager.flush();
+        return ticket;
+    }
+
+    private static UserEntity technician() {
+        UserEntity user = new UserEntity();
+        user.setUsername("tech1");
+        user.setPassword("secret");
+        user.setEmail("tech1@servit.com");
+        user.setFirstName("Tech");
+        user.setLastName("One");
+        user.setRole(UserRoleEnum.TECHNICIAN);
+        user.setPhoneNumber("09170000000");
+        user.setIsVerified(true);
+        user.setStatus("Active");
+        return user;
+    }
+}
@@ -0,0 +1,96 @@
+package com.servit.servit.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentNumberServiceTest {
+
+    private static final int BLOCK_SIZE = 10;
+
+    private IdGeneratorTableStub table;
+
+    @BeforeEach
+    void setUp() {
+        table = new IdGeneratorTableStub();
+        table.setRow(DocumentNumberService.REPAIR_TICKET_PREFIX, 124);
+        table.setRow(DocumentNumberService.WARRANTY_PREFIX, 1);
+    }
+
+    @Test
+    void issuesConsecutiveNumbersFromTheClaimedBlock() {
+        DocumentNumberService numbers = node();
+
+        assertThat(numbers.nextRepairTicketNumber()).isEqualTo("IORT-000124");
+        assertThat(numbers.nextRepairTicketNumber()).isEqualTo("IORT-000125");
+        assertThat(numbers.nextWarrantyNumber()).isEqualTo("IORMA-000001");
+        assertThat(table.row(DocumentNumberService.REPAIR_TICKET_PREFIX)).isEqualTo(124 + BLOCK_SIZE);
+        assertThat(table.lockedReads()).isEqualTo(2);
+    }
+
+    @Test
+    void claimsTheNextBlockOnlyWhenTheCurrentOneIsUsedUp() {
+        DocumentNumberService numbers = node();
+
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            numbers.nextWarrantyNumber();
+        }
+        assertThat(table.lockedReads()).isEqualTo(1);
+
+        assertThat(numbers.nextWarrantyNumber()).isEqualTo("IORMA-000011");
+        assertThat(table.lockedReads()).isEqualTo(2);
+    }
+
+    @Test
+    void nodesDrawingConcurrentlyNeverIssueTheSameNumber() throws Exception {
+        List<DocumentNumberService> nodes = List.of(node(), node(), node());
+        int perThread = 250;
+        int threads = 12;
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        List<String> duplicates = new CopyOnWriteArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            DocumentNumberService node = nodes.get(t % nodes.size());
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    String number = node.nextRepairTicketNumber();
+                    if (!issued.add(number)) {
+                        duplicates.add(number);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int total = perThread * threads;
+        assertThat(duplicates).isEmpty();
+        assertThat(issued).hasSize(total);
+        // Each node leaves at most one partly used block, and only exhausted blocks trigger a claim
+        assertThat(table.lockedReads()).isBetween(total / BLOCK_SIZE, total / BLOCK_SIZE + nodes.size());
+    }
+
+    private DocumentNumberService node() {
+        DocumentNumberService numbers = new DocumentNumberService(table.jdbcTemplate(), table.transactionManager());
+        ReflectionTestUtils.setField(numbers, "blockSize", BLOCK_SIZE);
+        return numbers;
+    }
+}
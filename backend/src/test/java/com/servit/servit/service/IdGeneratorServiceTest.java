@@ -0,0 +1,88 @@
+package com.servit.servit.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdGeneratorServiceTest {
+
+    private static final int ALLOCATION_SIZE = IdGeneratorService.ALLOCATION_SIZE;
+
+    private IdGeneratorTableStub table;
+    private IdGeneratorService idGenerator;
+
+    @BeforeEach
+    void setUp() {
+        table = new IdGeneratorTableStub();
+        table.setRow(IdGeneratorService.PART, 1000 + ALLOCATION_SIZE);
+        idGenerator = new IdGeneratorService(table.jdbcTemplate(), table.transactionManager());
+    }
+
+    @Test
+    void blockStartsWhereThePooledOptimizerWouldAndMovesTheRowByItsSize() {
+        long first = idGenerator.allocateBlock(IdGeneratorService.PART, 120);
+
+        assertThat(first).isEqualTo(1001);
+        assertThat(table.row(IdGeneratorService.PART)).isEqualTo(1000 + ALLOCATION_SIZE + 120);
+    }
+
+    @Test
+    void rejectsEmptyBlocks() {
+        assertThatThrownBy(() -> idGenerator.allocateBlock(IdGeneratorService.PART, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void blocksNeverOverlapWithPooledOptimizerAllocations() throws Exception {
+        // A second node sharing the table
+        IdGeneratorService otherNode = new IdGeneratorService(table.jdbcTemplate(), table.transactionManager());
+        Set<Long> issued = ConcurrentHashMap.newKeySet();
+        List<Long> duplicates = new CopyOnWriteArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(12);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                long from;
+                long to;
+                if (index % 3 == 0) {
+                    // Hibernate inserting entities
+                    to = table.claimPooled(IdGeneratorService.PART, ALLOCATION_SIZE);
+                    from = to - ALLOCATION_SIZE + 1;
+                } else {
+                    // JDBC batch inserts on either node, in blocks smaller and larger than the allocation size
+                    int count = 1 + (index * 37) % 130;
+                    from = (index % 2 == 0 ? idGenerator : otherNode).allocateBlock(IdGeneratorService.PART, count);
+                    to = from + count - 1;
+                }
+                for (long id = from; id <= to; id++) {
+                    if (!issued.add(id)) {
+                        duplicates.add(id);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(duplicates).isEmpty();
+        assertThat(issued).allMatch(id -> id > 1000);
+    }
+}
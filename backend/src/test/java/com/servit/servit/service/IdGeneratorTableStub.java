@@ -0,0 +1,87 @@
+package com.servit.servit.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * In-memory id_generator table behind mocked JdbcTemplate and PlatformTransactionManager instances.
+ * SELECT ... FOR UPDATE takes a lock that is held until the transaction commits or rolls back,
+ * as the row lock is in the database. Each jdbcTemplate()/transactionManager() pair acts as one node.
+ */
+class IdGeneratorTableStub {
+
+    private final Map<String, Long> rows = new ConcurrentHashMap<>();
+    private final ReentrantLock rowLock = new ReentrantLock();
+    private final AtomicInteger lockedReads = new AtomicInteger();
+
+    void setRow(String sequence, long nextVal) {
+        rows.put(sequence, nextVal);
+    }
+
+    long row(String sequence) {
+        return rows.get(sequence);
+    }
+
+    int lockedReads() {
+        return lockedReads.get();
+    }
+
+    /**
+     * Claims a block the way Hibernate's pooled optimizer does: reading N hands out N - allocationSize + 1 .. N
+     * and moves the row to N + allocationSize.
+     * @return The highest id of the block
+     */
+    long claimPooled(String sequence, int allocationSize) {
+        rowLock.lock();
+        try {
+            long next = rows.get(sequence);
+            rows.put(sequence, next + allocationSize);
+            return next;
+        } finally {
+            rowLock.unlock();
+        }
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT next_val FROM id_generator"), eq(Long.class), anyString()))
+                .thenAnswer(invocation -> {
+                    rowLock.lock();
+                    lockedReads.incrementAndGet();
+                    return rows.get(invocation.<String>getArgument(2));
+                });
+        when(jdbcTemplate.update(startsWith("UPDATE id_generator SET next_val"), anyLong(), anyString()))
+                .thenAnswer(invocation -> {
+                    if (!rowLock.isHeldByCurrentThread()) {
+                        throw new IllegalStateException("id_generator updated without holding the row lock");
+                    }
+                    rows.put(invocation.getArgument(2), invocation.<Long>getArgument(1));
+                    return 1;
+                });
+        return jdbcTemplate;
+    }
+
+    PlatformTransactionManager transactionManager() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> mock(TransactionStatus.class));
+        doAnswer(invocation -> releaseLock()).when(transactionManager).commit(any());
+        doAnswer(invocation -> releaseLock()).when(transactionManager).rollback(any());
+        return transactionManager;
+    }
+
+    private Object releaseLock() {
+        while (rowLock.isHeldByCurrentThread()) {
+            rowLock.unlock();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.servit.servit.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MediaUploadServiceTest {
+
+    private MediaUploadService uploads;
+
+    @BeforeEach
+    void setUp() {
+        uploads = new MediaUploadService();
+        ReflectionTestUtils.setField(uploads, "threads", 4);
+        ReflectionTestUtils.setField(uploads, "queueCapacity", 100);
+        ReflectionTestUtils.setField(uploads, "timeoutMs", 5_000L);
+        uploads.startExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploads.stopExecutor();
+    }
+
+    @Test
+    void pathsKeepRequestOrderWhateverOrderUploadsFinishIn() throws Exception {
+        List<String> paths = uploads.saveAll(photos(6), (photo, index) -> {
+            // Later photos finish first
+            pause((7 - index) * 20L);
+            return "photo-" + index + "-" + photo.getOriginalFilename();
+        });
+
+        assertThat(paths).containsExactly("photo-1-1.jpg", "photo-2-2.jpg", "photo-3-3.jpg",
+                "photo-4-4.jpg", "photo-5-5.jpg", "photo-6-6.jpg");
+    }
+
+    @Test
+    void firstFailureIsRethrownAndCancelsTheUploadsStillRunning() {
+        CountDownLatch siblingsStarted = new CountDownLatch(3);
+        CountDownLatch siblingsInterrupted = new CountDownLatch(3);
+        CountDownLatch never = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> uploads.saveAll(photos(4), (photo, index) -> {
+            if (index == 4) {
+                await(siblingsStarted, null);
+                throw new IllegalArgumentException("Invalid file type");
+            }
+            siblingsStarted.countDown();
+            await(never, siblingsInterrupted);
+            return "unreachable";
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid file type");
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5_000);
+        assertThat(awaitQuietly(siblingsInterrupted)).isTrue();
+    }
+
+    @Test
+    void ioFailuresAreRethrownUnwrapped() {
+        assertThatThrownBy(() -> uploads.saveAll(photos(2), (photo, index) -> {
+            throw new IOException("S3 unavailable");
+        })).isInstanceOf(IOException.class).hasMessage("S3 unavailable");
+    }
+
+    @Test
+    void timeoutCancelsTheRemainingUploads() {
+        ReflectionTestUtils.setField(uploads, "timeoutMs", 100L);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        CountDownLatch never = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> uploads.saveAll(photos(2), (photo, index) -> {
+            await(never, interrupted);
+            return "unreachable";
+        })).isInstanceOf(IOException.class).hasMessageContaining("Timed out");
+
+        assertThat(awaitQuietly(interrupted)).isTrue();
+    }
+
+    @Test
+    void noPhotosNeedNoUploads() throws Exception {
+        assertThat(uploads.saveAll(List.of(), (photo, index) -> {
+            throw new AssertionError("No upload expected");
+        })).isEmpty();
+        assertThat(uploads.saveAll(null, (photo, index) -> "unused")).isEmpty();
+    }
+
+    /**
+     * Blocks like an upload waiting on the network; an interrupt surfaces as InterruptedIOException
+     * and is counted on the given latch.
+     */
+    private static void await(CountDownLatch latch, CountDownLatch onInterrupt) throws InterruptedIOException {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            if (onInterrupt != null) {
+                onInterrupt.countDown();
+            }
+            throw new InterruptedIOException("Upload interrupted");
+        }
+    }
+
+    private static void pause(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Upload interrupted");
+        }
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static List<MultipartFile> photos(int count) {
+        List<MultipartFile> photos = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            photos.add(new MockMultipartFile("photos", i + ".jpg", "image/jpeg", new byte[] {1, 2, 3}));
+        }
+        return photos;
+    }
+}
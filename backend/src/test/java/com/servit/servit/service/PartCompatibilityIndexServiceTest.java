@@ -0,0 +1,79 @@
+package com.servit.servit.service;
+
+import com.servit.servit.entity.PartEntity;
+import com.servit.servit.repository.PartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PartCompatibilityIndexServiceTest {
+
+    private PartRepository partRepository;
+    private PartCompatibilityIndexService index;
+
+    @BeforeEach
+    void setUp() {
+        partRepository = mock(PartRepository.class);
+        index = new PartCompatibilityIndexService(partRepository);
+    }
+
+    @Test
+    void matchesModelOrBrandTokensCheapestFirst() {
+        when(partRepository.findSearchFieldsOfActiveParts()).thenReturn(List.of(
+                fields(1L, "45.00", "Screen for ThinkPad X1", "Lenovo"),
+                fields(2L, "12.50", "Battery ThinkPad X1 Carbon", null),
+                fields(3L, "30.00", "Keyboard", "Lenovo"),
+                fields(4L, "5.00", "Cable", "Dell")));
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.findCompatiblePartIds("ThinkPad X1", "Lenovo")).containsExactly(2L, 3L, 1L);
+        assertThat(index.findCompatiblePartIds("XPS 13", "HP")).isEmpty();
+    }
+
+    @Test
+    void updatesMadeWhileRebuildingSurviveTheSwap() {
+        when(partRepository.findSearchFieldsOfActiveParts()).thenReturn(List.of(
+                fields(1L, "10.00", "Fan", "Asus"),
+                fields(2L, "20.00", "Fan", "Asus")));
+        index.rebuild();
+
+        // The snapshot was read before part 3 was added and part 2 was deleted
+        when(partRepository.findSearchFieldsOfActiveParts()).thenAnswer(invocation -> {
+            index.indexPart(part(3L, "1.00", "Fan", "Asus"));
+            index.removePart(2L);
+            return List.of(fields(1L, "10.00", "Fan", "Asus"), fields(2L, "20.00", "Fan", "Asus"));
+        });
+        index.rebuild();
+
+        assertThat(index.findCompatiblePartIds(null, "asus")).containsExactly(3L, 1L);
+    }
+
+    private static PartEntity part(Long id, String unitCost, String name, String brand) {
+        PartEntity part = new PartEntity();
+        part.setPartId(id);
+        part.setUnitCost(new BigDecimal(unitCost));
+        part.setName(name);
+        part.setBrand(brand);
+        part.setIsDeleted(false);
+        return part;
+    }
+
+    private static PartRepository.PartSearchFields fields(Long id, String unitCost, String name, String brand) {
+        return new PartRepository.PartSearchFields() {
+            public Long getPartId() { return id; }
+            public String getPartNumber() { return "PN-" + id; }
+            public String getSerialNumber() { return null; }
+            public String getName() { return name; }
+            public String getBrand() { return brand; }
+            public String getModel() { return null; }
+            public String getDescription() { return null; }
+            public BigDecimal getUnitCost() { return new BigDecimal(unitCost); }
+        };
+    }
+}
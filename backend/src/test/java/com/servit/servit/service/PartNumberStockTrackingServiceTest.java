@@ -0,0 +1,104 @@
+package com.servit.servit.service;
+
+import com.servit.servit.dto.part.PartNumberStockSummaryDTO;
+import com.servit.servit.entity.PartNumberStockTrackingEntity;
+import com.servit.servit.repository.PartNumberStockTrackingRepository;
+import com.servit.servit.repository.PartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PartNumberStockTrackingServiceTest {
+
+    private PartNumberStockTrackingRepository trackingRepository;
+    private PartRepository partRepository;
+    private PartNumberStockTrackingService service;
+
+    @BeforeEach
+    void setUp() {
+        trackingRepository = mock(PartNumberStockTrackingRepository.class);
+        partRepository = mock(PartRepository.class);
+        service = new PartNumberStockTrackingService(trackingRepository, partRepository, mock(JdbcTemplate.class),
+                mock(PartSearchIndexService.class), mock(LowStockAlertService.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 2000})
+    void allSummariesCostThreeQueriesWhateverTheNumberOfPartNumbers(int partNumbers) {
+        List<PartNumberStockTrackingEntity> trackings = new ArrayList<>();
+        List<PartRepository.PartNumberStockSum> sums = new ArrayList<>();
+        List<PartRepository.PartNumberSupplier> suppliers = new ArrayList<>();
+        for (int i = 0; i < partNumbers; i++) {
+            String partNumber = "PN-" + i;
+            trackings.add(tracking(partNumber, 10, 8));
+            sums.add(stockSum(partNumber, 10L));
+            suppliers.add(supplier(partNumber, "Supplier A"));
+            suppliers.add(supplier(partNumber, "Supplier B"));
+        }
+        when(trackingRepository.findAll()).thenReturn(trackings);
+        when(partRepository.sumCurrentStockGroupedByPartNumber()).thenReturn(sums);
+        when(partRepository.findDistinctSuppliersGroupedByPartNumber()).thenReturn(suppliers);
+
+        Map<String, PartNumberStockSummaryDTO> summaries = service.getAllStockSummariesMap();
+
+        assertThat(summaries).hasSize(partNumbers);
+        verify(trackingRepository, times(1)).findAll();
+        verify(partRepository, times(1)).sumCurrentStockGroupedByPartNumber();
+        verify(partRepository, times(1)).findDistinctSuppliersGroupedByPartNumber();
+        verifyNoMoreInteractions(trackingRepository, partRepository);
+    }
+
+    @Test
+    void summaryCombinesTrackingSumsAndSuppliers() {
+        when(trackingRepository.findAll()).thenReturn(List.of(tracking("PN-1", 10, 2), tracking("PN-2", 3, 3)));
+        when(partRepository.sumCurrentStockGroupedByPartNumber()).thenReturn(List.of(stockSum("PN-1", 10L)));
+        when(partRepository.findDistinctSuppliersGroupedByPartNumber())
+                .thenReturn(List.of(supplier("PN-1", "Supplier A"), supplier("PN-1", "Supplier B")));
+
+        Map<String, PartNumberStockSummaryDTO> summaries = service.getAllStockSummariesMap();
+
+        PartNumberStockSummaryDTO first = summaries.get("PN-1");
+        assertThat(first.getTotalStockSum()).isEqualTo(10);
+        assertThat(first.getSuppliersCount()).isEqualTo(2);
+        assertThat(first.getAvailableSuppliers()).containsExactly("Supplier A", "Supplier B");
+        assertThat(first.getReservedStock()).isEqualTo(8);
+        assertThat(first.getStockStatus()).isEqualTo("LOW");
+
+        PartNumberStockSummaryDTO second = summaries.get("PN-2");
+        assertThat(second.getTotalStockSum()).isZero();
+        assertThat(second.getSuppliersCount()).isZero();
+        assertThat(second.getStockStatus()).isEqualTo("LOW");
+    }
+
+    private static PartNumberStockTrackingEntity tracking(String partNumber, int total, int available) {
+        PartNumberStockTrackingEntity tracking = new PartNumberStockTrackingEntity();
+        tracking.setPartNumber(partNumber);
+        tracking.setCurrentTotalStock(total);
+        tracking.setCurrentAvailableStock(available);
+        tracking.setTotalPartsCount(total);
+        return tracking;
+    }
+
+    private static PartRepository.PartNumberStockSum stockSum(String partNumber, Long sum) {
+        return new PartRepository.PartNumberStockSum() {
+            public String getPartNumber() { return partNumber; }
+            public Long getStockSum() { return sum; }
+        };
+    }
+
+    private static PartRepository.PartNumberSupplier supplier(String partNumber, String supplierName) {
+        return new PartRepository.PartNumberSupplier() {
+            public String getPartNumber() { return partNumber; }
+            public String getSupplierName() { return supplierName; }
+        };
+    }
+}
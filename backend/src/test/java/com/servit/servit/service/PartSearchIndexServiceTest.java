@@ -0,0 +1,103 @@
+package com.servit.servit.service;
+
+import com.servit.servit.entity.PartEntity;
+import com.servit.servit.repository.PartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PartSearchIndexServiceTest {
+
+    private PartRepository partRepository;
+    private PartSearchIndexService index;
+
+    @BeforeEach
+    void setUp() {
+        partRepository = mock(PartRepository.class);
+        index = new PartSearchIndexService(partRepository);
+    }
+
+    @Test
+    void ranksExactAbovePrefixAboveSubstringAndPartNumberAboveDescription() {
+        when(partRepository.findSearchFieldsOfActiveParts()).thenReturn(List.of(
+                fields(1L, "X-100", null, "Cable with SSD-500 adapter", null, null, null),
+                fields(2L, "SSD-500-B", null, "Drive", null, null, null),
+                fields(3L, "SSD-500", null, "Drive", null, null, null),
+                fields(4L, "Z-1", null, "Drive", null, null, "fits ssd-500 bays"),
+                fields(5L, "Z-2", null, "Keyboard", null, null, null)));
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.searchPartIds("ssd-500")).containsExactly(3L, 2L, 1L, 4L);
+    }
+
+    @Test
+    void shortTermsMatchWithoutPostings() {
+        when(partRepository.findSearchFieldsOfActiveParts()).thenReturn(List.of(
+                fields(1L, "AB-1", null, "Fan", null, null, null),
+                fields(2L, "CD-2", null, "Fan", null, null, null)));
+        index.rebuild();
+
+        assertThat(index.searchPartIds("ab")).containsExactly(1L);
+        assertThat(index.searchPartIds(" ")).isEmpty();
+    }
+
+    @Test
+    void partNumbersAreDistinctAndRankedByBestMatch() {
+        when(partRepository.findSearchFieldsOfActiveParts()).thenReturn(List.of(
+                fields(1L, "RAM-8", "ram-serial", "Memory", null, null, null),
+                fields(2L, "RAM-8", null, "Memory", null, null, null),
+                fields(3L, "X-RAM", null, "Memory", null, null, null)));
+        index.rebuild();
+
+        assertThat(index.searchPartNumbers("ram")).containsExactly("RAM-8", "X-RAM");
+    }
+
+    @Test
+    void updatesMadeWhileRebuildingSurviveTheSwap() {
+        when(partRepository.findSearchFieldsOfActiveParts()).thenReturn(List.of(
+                fields(1L, "OLD-1", null, "Battery", null, null, null),
+                fields(2L, "OLD-2", null, "Battery", null, null, null)));
+        index.rebuild();
+
+        // The snapshot was read before part 3 was added and part 2 was deleted
+        when(partRepository.findSearchFieldsOfActiveParts()).thenAnswer(invocation -> {
+            index.indexPart(part(3L, "NEW-3", "Battery"));
+            index.removePart(2L);
+            return List.of(
+                    fields(1L, "OLD-1", null, "Battery", null, null, null),
+                    fields(2L, "OLD-2", null, "Battery", null, null, null));
+        });
+        index.rebuild();
+
+        assertThat(index.searchPartIds("battery")).containsExactly(1L, 3L);
+    }
+
+    private static PartEntity part(Long id, String partNumber, String name) {
+        PartEntity part = new PartEntity();
+        part.setPartId(id);
+        part.setPartNumber(partNumber);
+        part.setName(name);
+        part.setIsDeleted(false);
+        return part;
+    }
+
+    private static PartRepository.PartSearchFields fields(Long id, String partNumber, String serialNumber, String name,
+                                                          String brand, String model, String description) {
+        return new PartRepository.PartSearchFields() {
+            public Long getPartId() { return id; }
+            public String getPartNumber() { return partNumber; }
+            public String getSerialNumber() { return serialNumber; }
+            public String getName() { return name; }
+            public String getBrand() { return brand; }
+            public String getModel() { return model; }
+            public String getDescription() { return description; }
+            public BigDecimal getUnitCost() { return null; }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.servit.servit.service;
+
+import com.servit.servit.dto.part.PartNumberStockSummaryDTO;
+import com.servit.servit.dto.part.PartResponseDTO;
+import com.servit.servit.entity.PartEntity;
+import com.servit.servit.enumeration.PartEnum;
+import com.servit.servit.repository.PartRepository;
+import com.servit.servit.repository.UserRepository;
+import com.servit.servit.util.FileUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PartServiceListingTest {
+
+    private PartRepository partRepository;
+    private PartNumberStockTrackingService stockTrackingService;
+    private PartService partService;
+
+    @BeforeEach
+    void setUp() {
+        partRepository = mock(PartRepository.class);
+        stockTrackingService = mock(PartNumberStockTrackingService.class);
+        partService = new PartService(partRepository, mock(AlertService.class), stockTrackingService,
+                mock(UserRepository.class), mock(FileUtil.class), mock(S3Service.class),
+                mock(PartSearchIndexService.class), mock(SerialNumberRegistryService.class),
+                mock(PartCompatibilityIndexService.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 5000})
+    void listingIsOneProjectionQueryWhateverTheNumberOfParts(int parts) {
+        List<PartRepository.PartRow> rows = new ArrayList<>();
+        for (int i = 0; i < parts; i++) {
+            rows.add(row(part((long) i, "PN-" + (i % 10)), 10, 25));
+        }
+        when(partRepository.findActivePartRows()).thenReturn(rows);
+
+        List<PartResponseDTO> listed = partService.getAllParts();
+
+        assertThat(listed).hasSize(parts);
+        verify(partRepository, times(1)).findActivePartRows();
+        verifyNoMoreInteractions(partRepository);
+        verifyNoInteractions(stockTrackingService);
+    }
+
+    @Test
+    void projectedRowMapsToTheSameDtoAsTheEntity() {
+        PartEntity part = part(7L, "PN-7");
+        PartNumberStockSummaryDTO summary = new PartNumberStockSummaryDTO();
+        summary.setPartNumber("PN-7");
+        summary.setLowStockThreshold(5);
+        summary.setCurrentAvailableStock(8);
+        summary.setStockStatus(PartNumberStockTrackingService.calculateStockStatus(8, 5));
+        when(partRepository.findById(7L)).thenReturn(Optional.of(part));
+        when(stockTrackingService.getStockSummary("PN-7")).thenReturn(summary);
+        when(partRepository.findActivePartRows()).thenReturn(List.of(row(part, 5, 8)));
+
+        PartResponseDTO fromEntity = partService.getPartById(7L).orElseThrow();
+        PartResponseDTO fromRow = partService.getAllParts().get(0);
+
+        assertThat(fromRow).isEqualTo(fromEntity);
+        assertThat(fromRow.getAvailabilityStatus()).isEqualTo("NORMAL");
+    }
+
+    @Test
+    void partNumberWithoutTrackingRowGetsDefaults() {
+        when(partRepository.findLowStockPartRows()).thenReturn(List.of(row(part(1L, "PN-1"), null, null)));
+
+        PartResponseDTO dto = partService.getLowStockParts().get(0);
+
+        assertThat(dto.getLowStockThreshold()).isEqualTo(10);
+        assertThat(dto.getAvailabilityStatus()).isEqualTo("UNKNOWN");
+    }
+
+    private static PartEntity part(Long id, String partNumber) {
+        PartEntity part = new PartEntity();
+        part.setPartId(id);
+        part.setPartNumber(partNumber);
+        part.setName("Part " + id);
+        part.setDescription("Description " + id);
+        part.setUnitCost(new BigDecimal("12.50"));
+        part.setSerialNumber("SN-" + id);
+        part.setPartType(PartEnum.STANDARD);
+        part.setIsDeleted(false);
+        part.setDateAdded(LocalDateTime.of(2024, 1, 1, 10, 0));
+        part.setIsCustomerPurchased(false);
+        part.setAddedBy("admin@example.com");
+        part.setIsReserved(false);
+        part.setReservedQuantity(0);
+        part.setSupplierName("Supplier A");
+        part.setVersion(3L);
+        part.setBrand("Lenovo");
+        part.setModel("X1");
+        part.setPartPhotoUrl("https://example.com/" + id + ".jpg");
+        return part;
+    }
+
+    /**
+     * The projection row the listing queries build for the part, plus the joined tracking columns.
+     */
+    private static PartRepository.PartRow row(PartEntity part, Integer lowStockThreshold, Integer currentAvailableStock) {
+        return new PartRepository.PartRow(part.getPartId(), part.getPartNumber(), part.getName(), part.getDescription(),
+                part.getUnitCost(), part.getSerialNumber(), part.getPartType(), part.getIsDeleted(), part.getDateAdded(),
+                part.getDateModified(), part.getDatePurchasedByCustomer(), part.getWarrantyExpiration(),
+                part.getIsCustomerPurchased(), part.getAddedBy(), part.getModifiedBy(), part.getQuotationPart(),
+                part.getIsReserved(), part.getReservedQuantity(), part.getReservedForTicketId(), part.getSupplierName(),
+                part.getSupplierPartNumber(), part.getSupplierOrderDate(), part.getSupplierExpectedDelivery(),
+                part.getSupplierActualDelivery(), part.getVersion(), part.getBrand(), part.getModel(),
+                part.getCustomerFirstName(), part.getCustomerLastName(), part.getCustomerPhone(), part.getCustomerEmail(),
+                part.getPartPhotoUrl(), lowStockThreshold, currentAvailableStock);
+    }
+}
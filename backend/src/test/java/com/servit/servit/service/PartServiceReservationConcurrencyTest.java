@@ -0,0 +1,212 @@
+package com.servit.servit.service;
+
+import com.servit.servit.dto.part.ReservePartRequestDTO;
+import com.servit.servit.entity.PartEntity;
+import com.servit.servit.repository.PartRepository;
+import com.servit.servit.repository.UserRepository;
+import com.servit.servit.util.FileUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hammers reservePart, releaseReservedStock and confirmPartUsage from many threads against a repository
+ * whose conditional UPDATEs are emulated atomically in memory, the way the database applies them.
+ */
+class PartServiceReservationConcurrencyTest {
+
+    private static final long PART_ID = 1L;
+    private static final int THREADS = 64;
+
+    private PartRepository partRepository;
+    private PartNumberStockTrackingService stockTrackingService;
+    private PartService partService;
+
+    // current stock and reserved quantity of the single part row
+    private final int[] row = new int[2];
+    private final AtomicInteger updateStatements = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        partRepository = mock(PartRepository.class);
+        stockTrackingService = mock(PartNumberStockTrackingService.class);
+        partService = new PartService(partRepository, mock(AlertService.class), stockTrackingService,
+                mock(UserRepository.class), mock(FileUtil.class), mock(S3Service.class),
+                mock(PartSearchIndexService.class), mock(SerialNumberRegistryService.class),
+                mock(PartCompatibilityIndexService.class));
+        // Stubbed up front: Mockito creates deep stubs lazily, which races when the threads hit them first
+        EntityManager entityManager = mock(EntityManager.class);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        PersistenceUnitUtil persistenceUnitUtil = mock(PersistenceUnitUtil.class);
+        when(entityManager.getReference(eq(PartEntity.class), any())).thenReturn(new PartEntity());
+        when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+        when(entityManagerFactory.getPersistenceUnitUtil()).thenReturn(persistenceUnitUtil);
+        ReflectionTestUtils.setField(partService, "entityManager", entityManager);
+
+        when(partRepository.reserveIfAvailable(eq(PART_ID), anyInt(), any(), any(), any())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            return conditionalUpdate(() -> row[0] - row[1] >= quantity, () -> row[1] += quantity);
+        });
+        when(partRepository.releaseIfReserved(eq(PART_ID), anyInt(), any(), any())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            return conditionalUpdate(() -> row[1] >= quantity, () -> row[1] -= quantity);
+        });
+        when(partRepository.confirmUsageIfReserved(eq(PART_ID), anyInt(), any(), any())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            return conditionalUpdate(() -> row[1] >= quantity, () -> {
+                row[0] -= quantity;
+                row[1] -= quantity;
+            });
+        });
+        when(partRepository.findById(PART_ID)).thenAnswer(invocation -> Optional.of(snapshot()));
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        setRow(20, 0);
+
+        Outcome outcome = runConcurrently(THREADS, i -> partService.reservePart(reserveRequest(1)));
+
+        assertThat(outcome.succeeded).isEqualTo(20);
+        assertThat(outcome.rejected).isEqualTo(THREADS - 20);
+        assertThat(outcome.unexpected).isEmpty();
+        assertThat(row[1]).isEqualTo(20);
+        verify(stockTrackingService, times(20)).applyStockDeltaForPart(PART_ID, 0, 1);
+        // One statement per attempt: no read-modify-write retries
+        assertThat(updateStatements.get()).isEqualTo(THREADS);
+    }
+
+    @Test
+    void concurrentReleasesAndConfirmationsNeverGoBelowZero() throws Exception {
+        setRow(30, 20);
+
+        Outcome outcome = runConcurrently(THREADS, i -> {
+            if (i % 2 == 0) {
+                partService.releaseReservedStock(PART_ID, 1);
+            } else {
+                partService.confirmPartUsage(PART_ID, 1);
+            }
+        });
+
+        assertThat(outcome.succeeded).isEqualTo(20);
+        assertThat(outcome.rejected).isEqualTo(THREADS - 20);
+        assertThat(outcome.unexpected).isEmpty();
+        assertThat(row[1]).isZero();
+        // Every confirmation that went through consumed one unit of stock
+        assertThat(30 - row[0]).isBetween(0, 20);
+        verify(stockTrackingService, times(20)).applyStockDeltaForPart(PART_ID, 0, -1);
+    }
+
+    @Test
+    void mixedReserveAndReleaseKeepsReservedWithinStock() throws Exception {
+        setRow(10, 5);
+
+        Outcome outcome = runConcurrently(THREADS * 4, i -> {
+            if (i % 3 == 0) {
+                partService.releaseReservedStock(PART_ID, 1);
+            } else {
+                partService.reservePart(reserveRequest(1));
+            }
+        });
+
+        assertThat(outcome.unexpected).isEmpty();
+        assertThat(row[1]).isBetween(0, 10);
+        assertThat(outcome.succeeded + outcome.rejected).isEqualTo(THREADS * 4);
+    }
+
+    private int conditionalUpdate(BooleanSupplier condition, Runnable change) {
+        updateStatements.incrementAndGet();
+        synchronized (row) {
+            if (!condition.getAsBoolean()) {
+                return 0;
+            }
+            change.run();
+            return 1;
+        }
+    }
+
+    private void setRow(int currentStock, int reserved) {
+        synchronized (row) {
+            row[0] = currentStock;
+            row[1] = reserved;
+        }
+    }
+
+    private PartEntity snapshot() {
+        PartEntity part = new PartEntity();
+        part.setPartId(PART_ID);
+        part.setPartNumber("PN-1");
+        part.setIsDeleted(false);
+        synchronized (row) {
+            part.setCurrentStock(row[0]);
+            part.setReservedQuantity(row[1]);
+        }
+        return part;
+    }
+
+    private static ReservePartRequestDTO reserveRequest(int quantity) {
+        ReservePartRequestDTO request = new ReservePartRequestDTO();
+        request.setPartId(PART_ID);
+        request.setQuantity(quantity);
+        request.setReservedForTicketId("TICKET-1");
+        return request;
+    }
+
+    private interface Call {
+        void run(int i);
+    }
+
+    private static final class Outcome {
+        private int succeeded;
+        private int rejected;
+        private final List<Throwable> unexpected = new ArrayList<>();
+    }
+
+    private static Outcome runConcurrently(int calls, Call call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < calls; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    call.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            Outcome outcome = new Outcome();
+            for (Future<?> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                    outcome.succeeded++;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IllegalArgumentException) {
+                        outcome.rejected++;
+                    } else {
+                        outcome.unexpected.add(e.getCause());
+                    }
+                }
+            }
+            return outcome;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
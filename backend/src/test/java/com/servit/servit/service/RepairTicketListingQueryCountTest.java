@@ -0,0 +1,186 @@
+package com.servit.servit.service;
+
+import com.servit.servit.dto.repairticket.GetRepairTicketResponseDTO;
+import com.servit.servit.entity.AfterRepairPhotoEntity;
+import com.servit.servit.entity.RepairPhotoEntity;
+import com.servit.servit.entity.RepairTicketEntity;
+import com.servit.servit.entity.UserEntity;
+import com.servit.servit.enumeration.RepairStatusEnum;
+import com.servit.servit.enumeration.RepairTicketDeviceType;
+import com.servit.servit.enumeration.UserRoleEnum;
+import com.servit.servit.repository.RepairTicketRepository;
+import com.servit.servit.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements of the paged ticket listings against an in-memory database, with the real
+ * mappings and repository queries. Each listing must cost the same number of statements whatever the page
+ * size: a per-row technician lookup or photo collection load would grow with it.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ticket_listing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class RepairTicketListingQueryCountTest {
+
+    private static final int TICKETS = 150;
+    private static final int TECHNICIANS = 3;
+
+    // Page, count, repair photo URLs and after-repair photo URLs
+    private static final int STATEMENTS_PER_PAGE = 4;
+
+    @Autowired
+    private RepairTicketRepository repairTicketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private RepairTicketService repairTicketService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // Full-text search is off, so searches take the repository's LIKE query
+        RepairTicketSearchService searchService = new RepairTicketSearchService(jdbcTemplate, repairTicketRepository);
+        repairTicketService = new RepairTicketService(repairTicketRepository, userRepository);
+        ReflectionTestUtils.setField(repairTicketService, "repairTicketSearchService", searchService);
+
+        List<UserEntity> technicians = new ArrayList<>();
+        for (int t = 0; t < TECHNICIANS; t++) {
+            technicians.add(entityManager.merge(technician(t)));
+        }
+        for (int i = 0; i < TICKETS; i++) {
+            entityManager.persist(ticket(i, technicians.get(i % TECHNICIANS)));
+        }
+        entityManager.flush();
+        // Listings start from an empty persistence context, as each request does
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void allTicketsPage(int pageSize) {
+        Page<GetRepairTicketResponseDTO> page = countStatements(
+                () -> repairTicketService.getAllRepairTickets(PageRequest.of(0, pageSize)));
+
+        assertThat(page.getContent()).hasSize(pageSize);
+        assertPhotosAndTechniciansListed(page);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void searchPage(int pageSize) {
+        Page<GetRepairTicketResponseDTO> page = countStatements(
+                () -> repairTicketService.searchRepairTickets("macbook", PageRequest.of(0, pageSize)));
+
+        assertThat(page.getContent()).hasSize(pageSize);
+        assertPhotosAndTechniciansListed(page);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void statusPage(int pageSize) {
+        Page<GetRepairTicketResponseDTO> page = countStatements(
+                () -> repairTicketService.getRepairTicketsByStatusPageable("RECEIVED", PageRequest.of(0, pageSize)));
+
+        assertThat(page.getContent()).hasSize(pageSize);
+        assertPhotosAndTechniciansListed(page);
+    }
+
+    private Page<GetRepairTicketResponseDTO> countStatements(Supplier<Page<GetRepairTicketResponseDTO>> listing) {
+        statistics.clear();
+        Page<GetRepairTicketResponseDTO> page = listing.get();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_PAGE);
+        return page;
+    }
+
+    private static void assertPhotosAndTechniciansListed(Page<GetRepairTicketResponseDTO> page) {
+        for (GetRepairTicketResponseDTO ticket : page.getContent()) {
+            assertThat(ticket.getTechnicianEmail()).startsWith("tech");
+            assertThat(ticket.getRepairPhotosUrls()).hasSize(2);
+            assertThat(ticket.getAfterRepairPhotosUrls()).hasSize(1);
+        }
+    }
+
+    private static UserEntity technician(int index) {
+        UserEntity user = new UserEntity();
+        user.setUsername("tech" + index);
+        user.setPassword("secret");
+        user.setEmail("tech" + index + "@servit.com");
+        user.setFirstName("Tech");
+        user.setLastName(String.valueOf(index));
+        user.setRole(UserRoleEnum.TECHNICIAN);
+        user.setPhoneNumber("09170000000");
+        user.setIsVerified(true);
+        user.setStatus("Active");
+        return user;
+    }
+
+    private static RepairTicketEntity ticket(int index, UserEntity technician) {
+        RepairTicketEntity ticket = new RepairTicketEntity();
+        ticket.setTicketNumber(String.format("IORT-%06d", index + 1));
+        ticket.setCustomerFirstName("Customer");
+        ticket.setCustomerLastName(String.valueOf(index));
+        ticket.setCustomerEmail("customer" + index + "@example.com");
+        ticket.setCustomerPhoneNumber("09181234567");
+        ticket.setDeviceType(RepairTicketDeviceType.LAPTOP);
+        ticket.setDeviceColor("Silver");
+        ticket.setDeviceSerialNumber("SN-" + index);
+        ticket.setDeviceModel("MacBook Air");
+        ticket.setDeviceBrand("Apple");
+        ticket.setReportedIssue("Cracked screen");
+        ticket.setTechnicianEmail(technician);
+        ticket.setTechnicianName(technician.getFirstName() + " " + technician.getLastName());
+        ticket.setStatus("ACTIVE");
+        ticket.setRepairStatus(RepairStatusEnum.RECEIVED);
+        ticket.setCheckInDate(LocalDateTime.of(2024, 1, 1, 9, 0).plusHours(index));
+
+        List<RepairPhotoEntity> photos = new ArrayList<>();
+        for (int p = 1; p <= 2; p++) {
+            RepairPhotoEntity photo = new RepairPhotoEntity();
+            photo.setPhotoUrl("https://example.com/" + index + "-" + p + ".jpg");
+            photo.setRepairTicket(ticket);
+            photos.add(photo);
+        }
+        ticket.setRepairPhotos(photos);
+
+        AfterRepairPhotoEntity afterPhoto = new AfterRepairPhotoEntity();
+        afterPhoto.setPhotoUrl("https://example.com/" + index + "-after.jpg");
+        afterPhoto.setRepairTicket(ticket);
+        ticket.setAfterRepairPhotos(List.of(afterPhoto));
+        return ticket;
+    }
+}
@@ -0,0 +1,192 @@
+package com.servit.servit.service;
+
+import com.servit.servit.entity.RepairTicketEntity;
+import com.servit.servit.repository.RepairTicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RepairTicketSearchServiceTest {
+
+    private static final String INDEX_LOOKUP = "SELECT COUNT(*) FROM information_schema";
+    private static final String SEARCH_PAGE = "SELECT t.repair_ticket_id, COUNT(*) OVER () FROM (";
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    private JdbcTemplate jdbcTemplate;
+    private RepairTicketRepository repairTicketRepository;
+    private RepairTicketSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        repairTicketRepository = mock(RepairTicketRepository.class);
+        searchService = new RepairTicketSearchService(jdbcTemplate, repairTicketRepository);
+        ReflectionTestUtils.setField(searchService, "fullTextEnabled", true);
+        ReflectionTestUtils.setField(searchService, "likeFallbackOnEmpty", false);
+        when(jdbcTemplate.queryForObject("SELECT @@innodb_ft_min_token_size", Integer.class)).thenReturn(3);
+        when(repairTicketRepository.searchRepairTickets(anyString(), any(Pageable.class))).thenReturn(Page.empty(PAGE));
+    }
+
+    @Test
+    void indexCreatedByAnotherInstanceIsUsed() {
+        when(jdbcTemplate.queryForObject(startsWith(INDEX_LOOKUP), eq(Integer.class), anyString())).thenReturn(0, 1);
+        doThrow(new BadSqlGrammarException("ALTER TABLE", "ALTER TABLE repair_ticket",
+                new SQLException("Duplicate key name 'ft_repair_ticket_search'")))
+                .when(jdbcTemplate).execute(startsWith("ALTER TABLE"));
+
+        searchService.ensureIndex();
+        searchService.search("lenovo", PAGE);
+
+        verify(jdbcTemplate).query(startsWith(SEARCH_PAGE), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void failedIndexCreationFallsBackToLike() {
+        when(jdbcTemplate.queryForObject(startsWith(INDEX_LOOKUP), eq(Integer.class), anyString())).thenReturn(0);
+        doThrow(new DataAccessResourceFailureException("Lock wait timeout"))
+                .when(jdbcTemplate).execute(startsWith("ALTER TABLE"));
+
+        searchService.ensureIndex();
+        searchService.search("lenovo", PAGE);
+
+        verify(repairTicketRepository).searchRepairTickets("lenovo", PAGE);
+        verify(jdbcTemplate, never()).query(startsWith(SEARCH_PAGE), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void identifierTermsAlsoMatchTicketAndSerialNumberPrefixes() throws SQLException {
+        indexReady();
+        hits(2, 123L, 7L);
+        when(repairTicketRepository.findByRepairTicketIdIn(List.of(123L, 7L))).thenReturn(List.of(ticket(7L), ticket(123L)));
+
+        Page<RepairTicketEntity> found = searchService.search(" 123 ", PAGE);
+
+        assertThat(searchSql()).contains("UNION ALL SELECT r.repair_ticket_id, 0 AS relevance, 100 AS boost FROM repair_ticket r WHERE r.ticket_number LIKE ?",
+                "UNION ALL SELECT r.repair_ticket_id, 0 AS relevance, 100 AS boost FROM repair_ticket r WHERE r.device_serial_number LIKE ?");
+        // A number alone is a ticket number; no lookup starts with a wildcard
+        assertThat(searchArgs()).containsExactly("+123*", "+123*", "IORT-000123%", "123%", 20, 0L);
+        assertThat(found.getContent()).extracting(RepairTicketEntity::getRepairTicketId).containsExactly(123L, 7L);
+        assertThat(found.getTotalElements()).isEqualTo(2);
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void scopedIdentifierSearchFiltersEveryLookup() {
+        indexReady();
+
+        Page<RepairTicketEntity> found = searchService.searchByCustomerEmail("jane@example.com", "A12345", PAGE);
+
+        assertThat(searchArgs()).containsExactly("+a12345*", "+a12345*", "jane@example.com", "A12345%", "jane@example.com",
+                "A12345%", "jane@example.com", 20, 0L);
+        assertThat(found.getContent()).isEmpty();
+        verify(repairTicketRepository, never()).searchRepairTicketsByEmail(anyString(), anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void pagePastTheLastIsCountedSeparately() {
+        indexReady();
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*) FROM (SELECT c.repair_ticket_id"), eq(Long.class), any(Object[].class)))
+                .thenReturn(25L);
+
+        Page<RepairTicketEntity> found = searchService.search("lenovo", PageRequest.of(5, 20));
+
+        assertThat(found.getContent()).isEmpty();
+        assertThat(found.getTotalElements()).isEqualTo(25);
+        verify(repairTicketRepository, never()).searchRepairTickets(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void shortWordsAndTicketNumberLettersAreLeftOutOfTheIndexQuery() {
+        indexReady();
+
+        searchService.search("SN-0042", PAGE);
+        assertThat(searchArgs()).startsWith("+0042*", "+0042*", "SN-0042%", "SN-0042%");
+
+        // IORT is in every ticket number; the ticket number lookup matches it
+        searchService.search("IORT-000123", PAGE);
+        assertThat(searchArgs()).startsWith("+000123*", "+000123*", "IORT-000123%", "IORT-000123%");
+
+        searchService.search("no such ticket", PAGE);
+        assertThat(searchArgs()).startsWith("+such* +ticket*", "+such* +ticket*", 20);
+        verify(repairTicketRepository, never()).searchRepairTickets(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void termWithoutIndexedWordsUsesPrefixLookupsAlone() {
+        indexReady();
+
+        searchService.search("hp", PAGE);
+
+        assertThat(searchSql()).doesNotContain("MATCH");
+        assertThat(searchArgs()).containsExactly("hp%", "hp%", 20, 0L);
+        verify(repairTicketRepository, never()).searchRepairTickets(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void wordTermsOnlyMatchWordPrefixes() {
+        indexReady();
+        ReflectionTestUtils.setField(searchService, "likeFallbackOnEmpty", true);
+
+        searchService.search("cracked screen", PAGE);
+
+        assertThat(searchSql()).doesNotContain("ticket_number LIKE");
+        assertThat(searchArgs()).containsExactly("+cracked* +screen*", "+cracked* +screen*", 20, 0L);
+        // No hits: the substring search runs when enabled
+        verify(repairTicketRepository).searchRepairTickets("cracked screen", PAGE);
+    }
+
+    private void indexReady() {
+        when(jdbcTemplate.queryForObject(startsWith(INDEX_LOOKUP), eq(Integer.class), anyString())).thenReturn(1);
+        searchService.ensureIndex();
+    }
+
+    /**
+     * Answers the page query with the given ticket IDs, each row carrying the total.
+     */
+    private void hits(long total, Long... ids) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Long id : ids) {
+                when(rs.getLong(1)).thenReturn(id);
+                when(rs.getLong(2)).thenReturn(total);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith(SEARCH_PAGE), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private String searchSql() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).query(sql.capture(), any(RowCallbackHandler.class), any(Object[].class));
+        return sql.getValue();
+    }
+
+    private Object[] searchArgs() {
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, atLeastOnce()).query(anyString(), any(RowCallbackHandler.class), args.capture());
+        return args.getValue();
+    }
+
+    private static RepairTicketEntity ticket(Long id) {
+        RepairTicketEntity ticket = new RepairTicketEntity();
+        ticket.setRepairTicketId(id);
+        return ticket;
+    }
+}
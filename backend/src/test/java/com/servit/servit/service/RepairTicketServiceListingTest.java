@@ -0,0 +1,117 @@
+package com.servit.servit.service;
+
+import com.servit.servit.dto.repairticket.GetRepairTicketResponseDTO;
+import com.servit.servit.entity.RepairTicketEntity;
+import com.servit.servit.entity.UserEntity;
+import com.servit.servit.enumeration.RepairStatusEnum;
+import com.servit.servit.repository.RepairTicketRepository;
+import com.servit.servit.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RepairTicketServiceListingTest {
+
+    private RepairTicketRepository repairTicketRepository;
+    private RepairTicketService repairTicketService;
+
+    @BeforeEach
+    void setUp() {
+        repairTicketRepository = mock(RepairTicketRepository.class);
+        repairTicketService = new RepairTicketService(repairTicketRepository, mock(UserRepository.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void customerPageIsThreeQueriesWhateverThePageSize(int pageSize) {
+        List<RepairTicketEntity> tickets = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            tickets.add(spy(ticket((long) i)));
+        }
+        when(repairTicketRepository.findByCustomerEmailNormalized(eq("jane@example.com"), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(tickets, invocation.getArgument(1), 500));
+
+        Page<GetRepairTicketResponseDTO> page =
+                repairTicketService.getAllRepairTicketsByCustomer(" Jane@Example.com ", PageRequest.of(0, pageSize));
+
+        assertThat(page.getContent()).hasSize(pageSize);
+        verify(repairTicketRepository).findByCustomerEmailNormalized("jane@example.com",
+                PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "repairTicketId")));
+        verify(repairTicketRepository, times(1)).findRepairPhotoUrlsByTicketIds(anyCollection());
+        verify(repairTicketRepository, times(1)).findAfterRepairPhotoUrlsByTicketIds(anyCollection());
+        verifyNoMoreInteractions(repairTicketRepository);
+        // The photo collections are never initialized, so no per-ticket lazy loads
+        for (RepairTicketEntity ticket : tickets) {
+            verify(ticket, never()).getRepairPhotos();
+            verify(ticket, never()).getAfterRepairPhotos();
+        }
+    }
+
+    @Test
+    void photoUrlsAreGroupedByTicket() {
+        when(repairTicketRepository.findByRepairStatus(eq(RepairStatusEnum.RECEIVED), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(ticket(1L), ticket(2L), ticket(3L)),
+                        invocation.getArgument(1), 3));
+        when(repairTicketRepository.findRepairPhotoUrlsByTicketIds(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                new Object[] {1L, "https://example.com/1a.jpg"},
+                new Object[] {3L, "https://example.com/3a.jpg"},
+                new Object[] {1L, "https://example.com/1b.jpg"}));
+        when(repairTicketRepository.findAfterRepairPhotoUrlsByTicketIds(List.of(1L, 2L, 3L))).thenReturn(List.<Object[]>of(
+                new Object[] {2L, "https://example.com/2-after.jpg"}));
+
+        List<GetRepairTicketResponseDTO> listed =
+                repairTicketService.getRepairTicketsByStatusPageable("RECEIVED", PageRequest.of(0, 20)).getContent();
+
+        assertThat(listed).extracting(GetRepairTicketResponseDTO::getRepairTicketId).containsExactly(1L, 2L, 3L);
+        assertThat(listed.get(0).getRepairPhotosUrls())
+                .containsExactly("https://example.com/1a.jpg", "https://example.com/1b.jpg");
+        assertThat(listed.get(0).getAfterRepairPhotosUrls()).isEmpty();
+        assertThat(listed.get(1).getRepairPhotosUrls()).isEmpty();
+        assertThat(listed.get(1).getAfterRepairPhotosUrls()).containsExactly("https://example.com/2-after.jpg");
+        assertThat(listed.get(2).getRepairPhotosUrls()).containsExactly("https://example.com/3a.jpg");
+    }
+
+    @Test
+    void unpagedListingLooksUpPhotosInChunks() {
+        List<RepairTicketEntity> tickets = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            tickets.add(ticket((long) i));
+        }
+        when(repairTicketRepository.findAll(any(Sort.class))).thenReturn(tickets);
+
+        assertThat(repairTicketService.getAllRepairTickets()).hasSize(1200);
+
+        // 500 ids per IN list: three chunks, two photo queries each
+        verify(repairTicketRepository).findAll(any(Sort.class));
+        verify(repairTicketRepository, times(3)).findRepairPhotoUrlsByTicketIds(anyCollection());
+        verify(repairTicketRepository, times(3)).findAfterRepairPhotoUrlsByTicketIds(anyCollection());
+        verifyNoMoreInteractions(repairTicketRepository);
+    }
+
+    private static RepairTicketEntity ticket(Long id) {
+        UserEntity technician = new UserEntity();
+        technician.setEmail("tech@example.com");
+        RepairTicketEntity ticket = new RepairTicketEntity();
+        ticket.setRepairTicketId(id);
+        ticket.setTicketNumber(String.format("IORT-%06d", id));
+        ticket.setCustomerEmail("jane@example.com");
+        ticket.setTechnicianEmail(technician);
+        ticket.setRepairStatus(RepairStatusEnum.RECEIVED);
+        ticket.setCheckInDate(LocalDateTime.of(2024, 1, 1, 10, 0));
+        return ticket;
+    }
+}
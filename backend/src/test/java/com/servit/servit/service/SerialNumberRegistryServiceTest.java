@@ -0,0 +1,100 @@
+package com.servit.servit.service;
+
+import com.servit.servit.repository.PartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class SerialNumberRegistryServiceTest {
+
+    private PartRepository partRepository;
+    private SerialNumberRegistryService registry;
+
+    @BeforeEach
+    void setUp() {
+        partRepository = mock(PartRepository.class);
+        registry = new SerialNumberRegistryService(partRepository);
+    }
+
+    @Test
+    void storedSerialsAreAlwaysCheckedInTheDatabase() {
+        List<String> stored = serials("SN-", 10_000);
+        when(partRepository.findAllSerialNumbers()).thenReturn(stored);
+        when(partRepository.findExistingSerialNumbers(anyCollection()))
+                .thenAnswer(invocation -> new ArrayList<>(invocation.<Collection<String>>getArgument(0)));
+        registry.rebuild();
+
+        Set<String> existing = registry.findExisting(stored);
+
+        assertThat(existing).hasSize(stored.size());
+    }
+
+    @Test
+    void absentSerialsAreMostlyScreenedOutByTheFilter() {
+        when(partRepository.findAllSerialNumbers()).thenReturn(serials("SN-", 10_000));
+        when(partRepository.findExistingSerialNumbers(anyCollection())).thenReturn(List.of());
+        registry.rebuild();
+
+        Set<String> existing = registry.findExisting(serials("NEW-", 10_000));
+
+        assertThat(existing).isEmpty();
+        assertThat(checkedInDatabase()).hasSizeLessThan(300);
+    }
+
+    @Test
+    void filterIgnoresCaseAndSurroundingWhitespace() {
+        when(partRepository.findAllSerialNumbers()).thenReturn(List.of("abc-123"));
+        when(partRepository.findExistingSerialNumbers(anyCollection())).thenReturn(List.of("abc-123"));
+        registry.rebuild();
+
+        assertThat(registry.exists(" ABC-123 ")).isTrue();
+    }
+
+    @Test
+    void registeredSerialsPassTheFilter() {
+        when(partRepository.findAllSerialNumbers()).thenReturn(List.of());
+        when(partRepository.findExistingSerialNumbers(anyCollection())).thenReturn(List.of("SN-NEW"));
+        registry.rebuild();
+
+        registry.register("SN-NEW");
+
+        assertThat(registry.exists("SN-NEW")).isTrue();
+    }
+
+    @Test
+    void withoutAFilterEverySerialIsChecked() {
+        when(partRepository.findExistingSerialNumbers(anyCollection())).thenReturn(List.of());
+
+        registry.findExisting(serials("SN-", 1_200));
+
+        // Chunks of 500
+        verify(partRepository, times(3)).findExistingSerialNumbers(anyCollection());
+        assertThat(checkedInDatabase()).hasSize(1_200);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> checkedInDatabase() {
+        ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(partRepository, atLeast(0)).findExistingSerialNumbers(captor.capture());
+        List<String> checked = new ArrayList<>();
+        captor.getAllValues().forEach(checked::addAll);
+        return checked;
+    }
+
+    private static List<String> serials(String prefix, int count) {
+        List<String> serials = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            serials.add(prefix + i);
+        }
+        return serials;
+    }
+}